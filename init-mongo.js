@@ -15,4 +15,38 @@ db.createCollection('downtime_events');
 db.downtime_events.createIndex({ equipmentId: 1 });
 db.downtime_events.createIndex({ status: 1 });
 db.downtime_events.createIndex({ startTime: 1 });
-db.downtime_events.createIndex({ operatorId: 1 });
\ No newline at end of file
+db.downtime_events.createIndex({ operatorId: 1 });
+db.downtime_events.createIndex({ equipmentId: 1, startTime: 1, _id: 1 }, { name: 'equipment_start_id_idx' });
+db.downtime_events.createIndex({ operatorId: 1, startTime: 1, _id: 1 }, { name: 'operator_start_id_idx' });
+db.downtime_events.createIndex({ status: 1, startTime: 1, _id: 1 }, { name: 'status_start_id_idx' });
+db.downtime_events.createIndex({ 'outboxPending.createdAt': 1 }, { name: 'outbox_pending_idx', sparse: true });
+
+// Холодный уровень: закрытые старые простои, те же индексы для чтения по ID и выгрузок
+db.createCollection('downtime_events_archive');
+db.downtime_events_archive.createIndex({ equipmentId: 1, startTime: 1, _id: 1 }, { name: 'equipment_start_id_idx' });
+db.downtime_events_archive.createIndex({ operatorId: 1, startTime: 1, _id: 1 }, { name: 'operator_start_id_idx' });
+db.downtime_events_archive.createIndex({ status: 1, startTime: 1, _id: 1 }, { name: 'status_start_id_idx' });
+db.downtime_events_archive.createIndex({ 'outboxPending.createdAt': 1 }, { name: 'outbox_pending_idx', sparse: true });
+
+db.createCollection('equipment');
+
+// Аренды оборудования экземплярами мониторинга и живые узлы; просроченные удаляет TTL
+db.createCollection('equipment_leases');
+db.equipment_leases.createIndex({ expiresAt: 1 }, { name: 'lease_expires_ttl_idx', expireAfterSeconds: 0 });
+db.createCollection('monitor_nodes');
+db.monitor_nodes.createIndex({ expiresAt: 1 }, { name: 'node_expires_ttl_idx', expireAfterSeconds: 0 });
+db.createCollection('equipment_status');
+
+// Outbox изменений простоев и курсоры получателей
+db.createCollection('downtime_outbox');
+db.downtime_outbox.createIndex({ createdAt: 1 }, { name: 'outbox_created_ttl_idx', expireAfterSeconds: 604800 });
+db.downtime_outbox.createIndex({ changeId: 1 }, { name: 'outbox_change_id_idx', unique: true, sparse: true });
+db.createCollection('outbox_cursors');
+
+// Ключи идемпотентности POST-запросов
+db.createCollection('idempotency_keys');
+db.idempotency_keys.createIndex({ createdAt: 1 }, { name: 'idempotency_created_ttl_idx', expireAfterSeconds: 86400 });
+
+// Настройки приложения: ключ уникален, начальные значения добавляются upsert по ключу
+db.createCollection('settings');
+db.settings.createIndex({ key: 1 }, { name: 'settings_key_idx', unique: true });
@@ -0,0 +1,63 @@
+package com.example.downtime.benchmark;
+
+import com.example.downtime.factory.DowntimeTestFactory;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeRequest;
+import com.example.downtime.model.DowntimeStatus;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор воспроизводимых наборов простоев для бенчмарков (на основе DowntimeTestFactory).
+ */
+public final class DowntimeDatasetGenerator {
+
+    private static final String[] REASONS = {
+            "Поломка", "Наладка", "Нет заготовок", "Смена инструмента", "Плановое ТО", "Нет оператора"
+    };
+
+    private DowntimeDatasetGenerator() {
+    }
+
+    public static List<DowntimeEvent> generate(int size, int equipmentCount, long seed) {
+        return generate(1L, size, equipmentCount, seed);
+    }
+
+    // Порция набора с ID начиная с firstId - для заливки больших коллекций частями
+    public static List<DowntimeEvent> generate(long firstId, int size, int equipmentCount, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusDays(365);
+        List<DowntimeEvent> events = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            int equipment = random.nextInt(equipmentCount) + 1;
+            DowntimeRequest request = DowntimeTestFactory.createRequestWithDefaults();
+            request.setEquipmentId(String.format("EQ%03d", equipment));
+            request.setEquipmentName("Оборудование " + equipment);
+            request.setOperatorId(String.format("OP%03d", random.nextInt(50) + 1));
+            request.setReason(REASONS[random.nextInt(REASONS.length)]);
+
+            LocalDateTime start = base.plusMinutes(random.nextInt(365 * 24 * 60));
+            boolean resolved = random.nextInt(10) > 0;
+            List<String> photos = new ArrayList<>();
+            for (int p = random.nextInt(4); p > 0; p--) {
+                photos.add("http://localhost:9000/downtime-photos/downtimes/" + (firstId + i) + "/photo-" + p + ".jpg");
+            }
+
+            events.add(DowntimeTestFactory.createEventFromRequest(request).toBuilder()
+                    .id(firstId + i)
+                    .startTime(start)
+                    .endTime(resolved ? start.plusMinutes(5 + random.nextInt(600)) : null)
+                    .status(resolved ? DowntimeStatus.RESOLVED : DowntimeStatus.ACTIVE)
+                    .photoUrls(photos)
+                    .createdAt(start)
+                    .updatedAt(start)
+                    .build());
+        }
+        return events;
+    }
+}
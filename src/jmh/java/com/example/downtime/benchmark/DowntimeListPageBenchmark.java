@@ -0,0 +1,161 @@
+package com.example.downtime.benchmark;
+
+import com.example.downtime.dto.DowntimeListPageDto;
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.repository.DowntimeRepository;
+import com.example.downtime.repository.EquipmentRepository;
+import com.example.downtime.service.DowntimeQueryCache;
+import com.example.downtime.service.DowntimeRollupService;
+import com.example.downtime.service.DowntimeService;
+import com.example.downtime.service.EquipmentCatalogService;
+import com.example.downtime.service.PageDataLoader;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Страница списка простоев на 1M документов: шесть загрузок DowntimeWebController.index
+ * (последовательно и параллельно через PageDataLoader) против одной команды $facet.
+ * Список оборудования в обоих вариантах читается из справочника в памяти.
+ * Нужен Docker: MongoDB поднимается через Testcontainers, заливка занимает несколько минут.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class DowntimeListPageBenchmark {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int INSERT_BATCH = 50_000;
+    private static final int EQUIPMENT_COUNT = 200;
+
+    // none - без фильтра, equipment - одно оборудование, active - только активные
+    @Param({"none", "equipment", "active"})
+    private String filter;
+
+    private MongoDBContainer mongo;
+    private MongoClient mongoClient;
+    private DowntimeService downtimeService;
+    private PageDataLoader pageDataLoader;
+
+    private String equipmentId;
+    private DowntimeStatus status;
+    private final Pageable pageable = PageRequest.of(0, 5);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new MongoDBContainer("mongo:6");
+        mongo.start();
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "downtime_benchmark");
+
+        // Те же индексы, что создает приложение
+        IndexOperations indexOps = mongoTemplate.indexOps(DowntimeEvent.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(DowntimeEvent.class)
+                .forEach(indexOps::ensureIndex);
+
+        for (int offset = 0; offset < DOCUMENTS; offset += INSERT_BATCH) {
+            mongoTemplate.insert(DowntimeDatasetGenerator.generate(
+                    offset + 1L, INSERT_BATCH, EQUIPMENT_COUNT, 42L + offset), DowntimeEvent.class);
+        }
+
+        DowntimeRollupService rollupService = new DowntimeRollupService(mongoTemplate, mongoTemplate);
+        ReflectionTestUtils.setField(rollupService, "shiftStartHours", new int[]{0, 8, 16});
+        rollupService.init();
+        rollupService.rebuild();
+
+        DowntimeRepository repository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(DowntimeRepository.class);
+        EquipmentCatalogService equipmentCatalog = new EquipmentCatalogService(
+                new MongoRepositoryFactory(mongoTemplate).getRepository(EquipmentRepository.class),
+                mongoTemplate, event -> { });
+        equipmentCatalog.init();
+        // Кэш результатов запросов пропускает все вызовы - меряются сами запросы
+        DowntimeQueryCache queryCache = mock(DowntimeQueryCache.class);
+        when(queryCache.getPage(any(), any(), any(), any(), anyInt(), anyInt(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(7).get());
+        downtimeService = new DowntimeService(repository, mongoTemplate, mongoTemplate, null, null, rollupService,
+                equipmentCatalog, null, queryCache, null);
+
+        // Таймаут с запасом: fallback по таймауту исказил бы замер
+        pageDataLoader = new PageDataLoader(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pageDataLoader, "defaultTimeout", Duration.ofMinutes(5));
+
+        equipmentId = "equipment".equals(filter) ? "EQ001" : null;
+        status = "active".equals(filter) ? DowntimeStatus.ACTIVE : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pageDataLoader.shutdown();
+        mongoClient.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public void sequentialIndexLoads(Blackhole blackhole) {
+        blackhole.consume(downtimeService.getFilteredDowntimes(equipmentId, status, null, null, pageable));
+        blackhole.consume(downtimeService.getAllEquipment());
+        blackhole.consume(downtimeService.countByStatus(DowntimeStatus.ACTIVE));
+        blackhole.consume(downtimeService.countToday());
+        blackhole.consume(downtimeService.getAverageDuration());
+        blackhole.consume(downtimeService.countTotalPhotos());
+    }
+
+    @Benchmark
+    public void parallelIndexLoads(Blackhole blackhole) {
+        PageDataLoader.Load<Page<DowntimeResponse>> downtimes = pageDataLoader.submit("downtimes",
+                () -> downtimeService.getFilteredDowntimes(equipmentId, status, null, null, pageable),
+                Page.empty(pageable));
+        PageDataLoader.Load<List<EquipmentDto>> equipment = pageDataLoader.submit("equipment",
+                downtimeService::getAllEquipment, Collections.emptyList());
+        PageDataLoader.Load<Long> active = pageDataLoader.submit("activeCount",
+                () -> downtimeService.countByStatus(DowntimeStatus.ACTIVE), 0L);
+        PageDataLoader.Load<Long> today = pageDataLoader.submit("todayCount",
+                downtimeService::countToday, 0L);
+        PageDataLoader.Load<String> avgDuration = pageDataLoader.submit("avgDuration",
+                downtimeService::getAverageDuration, "0ч");
+        PageDataLoader.Load<Long> photos = pageDataLoader.submit("photosCount",
+                downtimeService::countTotalPhotos, 0L);
+
+        blackhole.consume(downtimes.get());
+        blackhole.consume(equipment.get());
+        blackhole.consume(active.get());
+        blackhole.consume(today.get());
+        blackhole.consume(avgDuration.get());
+        blackhole.consume(photos.get());
+    }
+
+    @Benchmark
+    public DowntimeListPageDto facetPageModel() {
+        return downtimeService.getListPageModel(equipmentId, status, null, null, pageable);
+    }
+}
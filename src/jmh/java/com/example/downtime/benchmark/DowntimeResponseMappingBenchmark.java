@@ -0,0 +1,200 @@
+package com.example.downtime.benchmark;
+
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.model.DowntimeStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг 10k событий в DowntimeResponse: текущий (ленивые поля, общий список фото)
+ * против прежнего (копия списка, String.format, now() на каждую строку).
+ * Аллокации: mvn -Pjmh test-compile exec:exec -Djmh.args="DowntimeResponseMapping -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DowntimeResponseMappingBenchmark {
+
+    @Param("10000")
+    private int size;
+
+    private List<DowntimeEvent> events;
+
+    @Setup
+    public void setUp() {
+        events = DowntimeDatasetGenerator.generate(size, 20, 42L);
+    }
+
+    // Маппинг для списка: вычисляемые поля не запрашиваются (например, страница с пагинацией)
+    @Benchmark
+    public void mapOnly(Blackhole blackhole) {
+        for (DowntimeEvent event : events) {
+            blackhole.consume(DowntimeResponse.from(event));
+        }
+    }
+
+    // Маппинг + чтение всех вычисляемых полей, как при сериализации в JSON
+    @Benchmark
+    public void mapAndReadDerived(Blackhole blackhole) {
+        for (DowntimeEvent event : events) {
+            DowntimeResponse response = DowntimeResponse.from(event);
+            blackhole.consume(response.getDurationFormatted());
+            blackhole.consume(response.getCurrentDurationFormatted());
+            blackhole.consume(response.getIsLongDowntime());
+            blackhole.consume(response.getPhotoCount());
+            blackhole.consume(response.getStatusText());
+            blackhole.consume(response.getStatusColor());
+            blackhole.consume(response.getStatusIcon());
+        }
+    }
+
+    // Прежняя реализация mapToResponse - базовая линия для сравнения
+    @Benchmark
+    public void legacyMapping(Blackhole blackhole) {
+        for (DowntimeEvent event : events) {
+            blackhole.consume(LegacyResponse.map(event));
+        }
+    }
+
+    /**
+     * Воспроизводит прежний mapToResponse: builder, копия photoUrls,
+     * withCalculatedFields (промежуточный объект, String.format, LocalDateTime.now()).
+     */
+    static final class LegacyResponse {
+        private Long id;
+        private String equipmentId;
+        private String equipmentName;
+        private String operatorId;
+        private String operatorName;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private String reason;
+        private String comment;
+        private List<String> photoUrls;
+        private DowntimeStatus status;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private Long durationMinutes;
+        private String durationFormatted;
+        private Boolean isActive;
+        private Boolean isLongDowntime;
+        private Integer photoCount;
+        private Long currentDurationMinutes;
+        private String currentDurationFormatted;
+        private String statusColor;
+        private String statusIcon;
+        private String statusText;
+
+        static LegacyResponse map(DowntimeEvent event) {
+            LegacyResponse builder = new LegacyResponse();
+            builder.id = event.getId();
+            builder.equipmentId = event.getEquipmentId();
+            builder.equipmentName = event.getEquipmentName();
+            builder.operatorId = event.getOperatorId();
+            builder.operatorName = event.getOperatorName();
+            builder.startTime = event.getStartTime();
+            builder.endTime = event.getEndTime();
+            builder.reason = event.getReason();
+            builder.comment = event.getComment();
+            builder.photoUrls = event.getPhotoUrls() != null
+                    ? new ArrayList<>(event.getPhotoUrls()) : new ArrayList<>();
+            builder.status = event.getStatus();
+            builder.createdAt = event.getCreatedAt();
+            builder.updatedAt = event.getUpdatedAt();
+
+            // withCalculatedFields: временный объект для вычислений, затем копия в итоговый
+            LegacyResponse temp = builder.copy();
+            temp.calculateDerivedFields();
+            LegacyResponse result = temp.copy();
+            return result;
+        }
+
+        private LegacyResponse copy() {
+            LegacyResponse copy = new LegacyResponse();
+            copy.id = id;
+            copy.equipmentId = equipmentId;
+            copy.equipmentName = equipmentName;
+            copy.operatorId = operatorId;
+            copy.operatorName = operatorName;
+            copy.startTime = startTime;
+            copy.endTime = endTime;
+            copy.reason = reason;
+            copy.comment = comment;
+            copy.photoUrls = photoUrls;
+            copy.status = status;
+            copy.createdAt = createdAt;
+            copy.updatedAt = updatedAt;
+            copy.durationMinutes = durationMinutes;
+            copy.durationFormatted = durationFormatted;
+            copy.isActive = isActive;
+            copy.isLongDowntime = isLongDowntime;
+            copy.photoCount = photoCount;
+            copy.currentDurationMinutes = currentDurationMinutes;
+            copy.currentDurationFormatted = currentDurationFormatted;
+            copy.statusColor = statusColor;
+            copy.statusIcon = statusIcon;
+            copy.statusText = statusText;
+            return copy;
+        }
+
+        private void calculateDerivedFields() {
+            photoCount = photoUrls != null ? photoUrls.size() : 0;
+            isActive = status == DowntimeStatus.ACTIVE;
+            statusText = switch (status) {
+                case ACTIVE -> "Активен";
+                case RESOLVED -> "Решен";
+                case UNPLANNED -> "Внеплановый";
+                case PLANNED -> "Плановый";
+                default -> status.toString();
+            };
+            statusColor = switch (status) {
+                case ACTIVE -> "danger";
+                case RESOLVED -> "success";
+                case UNPLANNED -> "warning";
+                case PLANNED -> "info";
+                default -> "secondary";
+            };
+            statusIcon = switch (status) {
+                case ACTIVE -> "⏱️";
+                case RESOLVED -> "✅";
+                case UNPLANNED -> "⚠️";
+                case PLANNED -> "📅";
+                default -> "📊";
+            };
+
+            if (endTime != null && startTime != null) {
+                durationMinutes = Duration.between(startTime, endTime).toMinutes();
+                durationFormatted = formatDuration(durationMinutes);
+                isLongDowntime = durationMinutes > 60;
+            } else if (isActive && startTime != null) {
+                currentDurationMinutes = Duration.between(startTime, LocalDateTime.now()).toMinutes();
+                currentDurationFormatted = formatDuration(currentDurationMinutes);
+                isLongDowntime = currentDurationMinutes > 60;
+            } else {
+                isLongDowntime = false;
+            }
+        }
+
+        private static String formatDuration(long minutes) {
+            long hours = minutes / 60;
+            long mins = minutes % 60;
+            if (hours > 0 && mins > 0) {
+                return String.format("%dч %02dм", hours, mins);
+            } else if (hours > 0) {
+                return String.format("%dч", hours);
+            } else {
+                return String.format("%dм", mins);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.downtime.benchmark;
+
+import com.example.downtime.model.DowntimeResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация страницы DowntimeResponse в JSON (ObjectMapper настроен как в Spring Boot:
+ * JavaTimeModule, даты строками). Включает вычисляемые геттеры - они считаются при записи.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DowntimeResponseSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private List<DowntimeResponse> responses;
+    private DowntimeResponse single;
+    private ObjectWriter listWriter;
+    private ObjectWriter itemWriter;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        responses = DowntimeDatasetGenerator.generate(size, 20, 42L).stream()
+                .map(DowntimeResponse::from)
+                .toList();
+        single = responses.get(0);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, DowntimeResponse.class));
+        itemWriter = objectMapper.writerFor(DowntimeResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() throws JsonProcessingException {
+        return itemWriter.writeValueAsBytes(single);
+    }
+}
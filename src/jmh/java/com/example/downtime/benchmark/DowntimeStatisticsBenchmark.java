@@ -0,0 +1,59 @@
+package com.example.downtime.benchmark;
+
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.service.DowntimeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * DowntimeService.getStatistics: группировка по статусу/оборудованию и сумма длительностей
+ * на выборке за год. Аналитический MongoTemplate подменен заглушкой - измеряется только обработка в памяти.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DowntimeStatisticsBenchmark {
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    private DowntimeService downtimeService;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        List<DowntimeEvent> events = DowntimeDatasetGenerator.generate(size, 20, 42L);
+        MongoTemplate analyticsTemplate = mock(MongoTemplate.class);
+        when(analyticsTemplate.stream(any(Query.class), eq(DowntimeEvent.class)))
+                .thenAnswer(invocation -> events.stream());
+        // Архив пуст
+        when(analyticsTemplate.stream(any(Query.class), eq(DowntimeEvent.class), anyString()))
+                .thenAnswer(invocation -> Stream.empty());
+
+        downtimeService = new DowntimeService(null, null, analyticsTemplate, null, null, null, null, null, null, null);
+        to = LocalDate.now();
+        from = to.minusDays(365);
+    }
+
+    @Benchmark
+    public Map<String, Object> getStatistics() {
+        return downtimeService.getStatistics(from, to);
+    }
+}
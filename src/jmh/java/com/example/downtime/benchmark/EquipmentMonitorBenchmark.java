@@ -0,0 +1,76 @@
+package com.example.downtime.benchmark;
+
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.model.EquipmentStatus;
+import com.example.downtime.service.EquipmentCatalogService;
+import com.example.downtime.service.EquipmentMonitorService;
+import com.example.downtime.service.EquipmentOwnershipService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * EquipmentMonitorService под конкуренцией: смена статуса из 8 потоков (computeIfPresent
+ * по небольшому набору ключей) одновременно с чтением статистики.
+ * Фоновые задачи мониторинга останавливаются сразу после init, чтобы не искажать замер.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EquipmentMonitorBenchmark {
+
+    private EquipmentMonitorService monitorService;
+    private String[] equipmentIds;
+
+    @Setup
+    public void setUp() {
+        EquipmentCatalogService catalog = mock(EquipmentCatalogService.class);
+        when(catalog.getAll()).thenReturn(IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> new EquipmentDto(String.format("EQ%03d", i), "Оборудование " + i))
+                .toList());
+        // Распределение выключено (isEnabled() == false) - экземпляр ведет все оборудование сам
+        EquipmentOwnershipService ownership = mock(EquipmentOwnershipService.class);
+        monitorService = new EquipmentMonitorService(new SimpleMeterRegistry(), catalog, ownership);
+        monitorService.init();
+        monitorService.shutdown();
+
+        List<EquipmentStatus> statuses = monitorService.getAllEquipmentStatuses();
+        equipmentIds = statuses.stream().map(EquipmentStatus::getEquipmentId).toArray(String[]::new);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(8)
+    public void changeEquipmentStatus() {
+        monitorService.changeEquipmentStatus(equipmentIds[ThreadLocalRandom.current().nextInt(equipmentIds.length)]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public Map<String, Object> getStatisticsWhileChanging() {
+        return monitorService.getStatistics();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void changeEquipmentStatusOnly() {
+        monitorService.changeEquipmentStatus(equipmentIds[ThreadLocalRandom.current().nextInt(equipmentIds.length)]);
+    }
+
+    @Benchmark
+    public Map<String, Object> getStatistics() {
+        return monitorService.getStatistics();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.downtime.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сравнение двух JSON-результатов JMH (например, предыдущего и текущего релиза).
+ * java -cp target/test-classes:... com.example.downtime.benchmark.JmhResultDiff old.json new.json
+ */
+public final class JmhResultDiff {
+
+    private JmhResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: JmhResultDiff <baseline.json> <current.json>");
+            System.exit(1);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(objectMapper.readTree(new File(args[1])));
+
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "delta");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue().path("primaryMetric");
+            JsonNode before = baseline.containsKey(entry.getKey())
+                    ? baseline.get(entry.getKey()).path("primaryMetric") : null;
+
+            double score = now.path("score").asDouble();
+            String unit = now.path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+            double baseScore = before.path("score").asDouble();
+            double delta = baseScore != 0 ? (score - baseScore) * 100.0 / baseScore : 0;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%n", entry.getKey(), baseScore, score, delta, unit);
+        }
+    }
+
+    // Ключ: имя бенчмарка + режим + параметры
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(" [").append(result.path("mode").asText()).append("]");
+            JsonNode params = result.path("params");
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+}
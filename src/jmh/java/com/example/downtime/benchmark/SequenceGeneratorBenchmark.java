@@ -0,0 +1,58 @@
+package com.example.downtime.benchmark;
+
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.service.SequenceGeneratorService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерация ID через findAndModify на счетчике database_sequences - одна горячая запись
+ * на все создания простоев. Нужен Docker: MongoDB поднимается через Testcontainers.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SequenceGeneratorBenchmark {
+
+    private MongoDBContainer mongo;
+    private MongoClient mongoClient;
+    private SequenceGeneratorService sequenceGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new MongoDBContainer("mongo:6");
+        mongo.start();
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+
+        sequenceGenerator = new SequenceGeneratorService();
+        ReflectionTestUtils.setField(sequenceGenerator, "mongoOperations",
+                new MongoTemplate(mongoClient, "downtime_benchmark"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoClient.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long generateSequenceSingleThread() {
+        return sequenceGenerator.generateSequence(DowntimeEvent.SEQUENCE_NAME);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Long generateSequenceContended() {
+        return sequenceGenerator.generateSequence(DowntimeEvent.SEQUENCE_NAME);
+    }
+}
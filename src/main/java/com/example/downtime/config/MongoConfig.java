@@ -1,11 +1,67 @@
 package com.example.downtime.config;
 
+import com.mongodb.ReadPreference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableMongoAuditing
 @EnableMongoRepositories(basePackages = "com.example.downtime.repository")
 public class MongoConfig {
+
+    public static final String ANALYTICS_TEMPLATE = "analyticsMongoTemplate";
+
+    // Меньше не допускает драйвер: heartbeat (10 с) + период холостой записи primary (10 с) с запасом
+    private static final Duration MIN_MAX_STALENESS = Duration.ofSeconds(90);
+
+    // @Transactional методов DowntimeService становится транзакцией Mongo: простой и запись outbox
+    // фиксируются вместе. Общие счетчики и агрегаты пишутся вне транзакции, иначе параллельные записи
+    // прерывались бы с WriteConflict. Требует replica set - на одиночном сервере транзакции недоступны
+    @Bean
+    @ConditionalOnProperty(name = "downtime.outbox.transactional", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+
+    // Объявлен явно: второй MongoTemplate отключает автоконфигурацию Spring Boot.
+    // Записи и чтения сразу после записи (списки, карточка, кэши) - только с primary
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter) {
+        return new MongoTemplate(databaseFactory, converter);
+    }
+
+    /**
+     * Шаблон для тяжелых аналитических чтений: secondaryPreferred с ограничением отставания,
+     * отчеты не нагружают primary, на который пишут операторы. Без replica set
+     * (или при выключенной маршрутизации) читает primary.
+     */
+    @Bean(ANALYTICS_TEMPLATE)
+    public MongoTemplate analyticsMongoTemplate(
+            MongoDatabaseFactory databaseFactory,
+            MongoConverter converter,
+            @Value("${downtime.analytics.secondary-reads:true}") boolean secondaryReads,
+            @Value("${downtime.analytics.max-staleness:120s}") Duration maxStaleness) {
+        MongoTemplate template = new MongoTemplate(databaseFactory, converter);
+        if (secondaryReads) {
+            if (maxStaleness.compareTo(MIN_MAX_STALENESS) < 0) {
+                throw new IllegalStateException("downtime.analytics.max-staleness должен быть не меньше "
+                        + MIN_MAX_STALENESS.toSeconds() + " с: " + maxStaleness);
+            }
+            template.setReadPreference(ReadPreference.secondaryPreferred(maxStaleness.toSeconds(), TimeUnit.SECONDS));
+        }
+        return template;
+    }
 }
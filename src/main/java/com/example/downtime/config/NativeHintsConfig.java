@@ -0,0 +1,62 @@
+package com.example.downtime.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Подсказки рефлексии для AOT-обработки и GraalVM native image (профили aot и native).
+ * Spring Data AOT покрывает только сущности репозиториев, а часть коллекций пишется через MongoTemplate;
+ * модели и DTO (Lombok-геттеры и сеттеры) читают маппинг Mongo, Jackson и выражения Thymeleaf;
+ * Q-типы QueryDSL ищутся по имени (SimpleEntityPathResolver).
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.DowntimeRuntimeHints.class)
+public class NativeHintsConfig {
+
+    private static final String[] REFLECTIVE_PACKAGES = {
+            "com.example.downtime.model",
+            "com.example.downtime.dto",
+            "com.example.downtime.event"
+    };
+
+    static class DowntimeRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Сканирование выполняется при сборке - новые модели подхватываются без правки списка
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter(new RegexPatternTypeFilter(Pattern.compile(".*")));
+            for (String basePackage : REFLECTIVE_PACKAGES) {
+                for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                    String className = candidate.getBeanClassName();
+                    register(hints, classLoader, className);
+                    // Q-тип QueryDSL рядом с моделью (генерируется apt-maven-plugin)
+                    register(hints, classLoader, ClassUtils.getPackageName(className) + ".Q"
+                            + ClassUtils.getShortName(className));
+                }
+            }
+
+            hints.resources().registerPattern("templates/**");
+        }
+
+        private static void register(RuntimeHints hints, ClassLoader classLoader, String className) {
+            if (!ClassUtils.isPresent(className, classLoader)) {
+                return;
+            }
+            hints.reflection().registerType(ClassUtils.resolveClassName(className, classLoader),
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
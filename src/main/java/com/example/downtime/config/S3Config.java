@@ -1,14 +1,18 @@
 package com.example.downtime.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 
 import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class S3Config {
@@ -25,8 +29,15 @@ public class S3Config {
     @Value("${aws.region}")
     private String region;
 
+    // Медленный MinIO не должен держать поток загрузки дольше этого
+    @Value("${downtime.storage.call-timeout:30s}")
+    private Duration callTimeout;
+
+    @Value("${downtime.storage.attempt-timeout:10s}")
+    private Duration attemptTimeout;
+
     @Bean
-    public S3Client s3Client() {
+    public S3Client s3Client(MeterRegistry meterRegistry) {
         return S3Client.builder()
                 .endpointOverride(URI.create(s3Endpoint))
                 .credentialsProvider(StaticCredentialsProvider.create(
@@ -34,6 +45,13 @@ public class S3Config {
                 ))
                 .region(Region.of(region))
                 .forcePathStyle(true)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(new S3MetricsInterceptor(meterRegistry))
+                        .apiCallTimeout(callTimeout)
+                        .apiCallAttemptTimeout(attemptTimeout)
+                        // Повторы - в StorageGuard, с учетом автомата; повторы SDK их бы умножали
+                        .retryPolicy(RetryPolicy.none())
+                        .build())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.downtime.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpHeaders;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики запросов к S3: латентность по операции и исходу (s3.requests),
+ * объем отправленных и полученных данных (s3.request.bytes / s3.response.bytes).
+ */
+public class S3MetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("MetricsStartNanos");
+
+    private final MeterRegistry meterRegistry;
+
+    public S3MetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        attributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes attributes) {
+        recordBytes("s3.request.bytes", context.httpRequest(), attributes);
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes attributes) {
+        recordBytes("s3.response.bytes", context.httpResponse(), attributes);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        recordLatency(attributes, "success", String.valueOf(context.httpResponse().statusCode()));
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        String status = context.httpResponse()
+                .map(response -> String.valueOf(response.statusCode()))
+                .orElse("NONE");
+        recordLatency(attributes, "error", status);
+    }
+
+    private void recordLatency(ExecutionAttributes attributes, String outcome, String status) {
+        Long start = attributes.getAttribute(START_NANOS);
+        if (start == null) {
+            return;
+        }
+        Timer.builder("s3.requests")
+                .description("Латентность запросов к S3")
+                .tag("operation", operation(attributes))
+                .tag("outcome", outcome)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordBytes(String name, SdkHttpHeaders headers, ExecutionAttributes attributes) {
+        headers.firstMatchingHeader("Content-Length")
+                .map(Long::parseLong)
+                .filter(bytes -> bytes > 0)
+                .ifPresent(bytes -> DistributionSummary.builder(name)
+                        .baseUnit("bytes")
+                        .tag("operation", operation(attributes))
+                        .register(meterRegistry)
+                        .record(bytes));
+    }
+
+    private static String operation(ExecutionAttributes attributes) {
+        String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operation != null ? operation : "unknown";
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.downtime.controller;
+
+import com.example.downtime.dto.ReasonParetoDto;
+import com.example.downtime.dto.ReliabilityDto;
+import com.example.downtime.dto.RollupSummaryDto;
+import com.example.downtime.service.DowntimeRollupService;
+import com.example.downtime.service.ReasonAnalyticsService;
+import com.example.downtime.service.ReliabilityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Downtime Analytics", description = "API for aggregated downtime analytics")
+public class AnalyticsApiController {
+
+    private final ReasonAnalyticsService reasonAnalyticsService;
+    private final ReliabilityService reliabilityService;
+    private final DowntimeRollupService rollupService;
+
+    @GetMapping("/reasons/pareto")
+    @Operation(summary = "Top downtime reasons by count or total minutes (Pareto)")
+    public ResponseEntity<List<ReasonParetoDto>> getReasonPareto(
+            @RequestParam(required = false) String equipmentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "COUNT") ReasonAnalyticsService.Metric metric,
+            @RequestParam(defaultValue = "10") int limit) {
+        validatePeriod(from, to);
+        return ResponseEntity.ok(reasonAnalyticsService.getPareto(equipmentId, from, to, metric, limit));
+    }
+
+    @PostMapping("/reasons/rebuild")
+    @Operation(summary = "Rebuild reason rollups from raw downtime events")
+    public ResponseEntity<Map<String, Long>> rebuildReasonRollups() {
+        return ResponseEntity.ok(Map.of("rollups", reasonAnalyticsService.rebuildRollups()));
+    }
+
+    @GetMapping("/reliability")
+    @Operation(summary = "MTBF, MTTR and availability for the whole fleet")
+    public ResponseEntity<List<ReliabilityDto>> getFleetReliability(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate periodTo = to != null ? to : LocalDate.now();
+        LocalDate periodFrom = from != null ? from : periodTo.minusDays(30);
+        validatePeriod(periodFrom, periodTo);
+        return ResponseEntity.ok(reliabilityService.getFleetReliability(
+                periodFrom.atStartOfDay(), periodTo.plusDays(1).atStartOfDay()));
+    }
+
+    @GetMapping("/reliability/{equipmentId}")
+    @Operation(summary = "MTBF, MTTR and availability for one equipment")
+    public ResponseEntity<ReliabilityDto> getReliability(
+            @PathVariable String equipmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate periodTo = to != null ? to : LocalDate.now();
+        LocalDate periodFrom = from != null ? from : periodTo.minusDays(30);
+        validatePeriod(periodFrom, periodTo);
+        return ResponseEntity.ok(reliabilityService.getReliability(
+                equipmentId, periodFrom.atStartOfDay(), periodTo.plusDays(1).atStartOfDay()));
+    }
+
+    @GetMapping("/rollups")
+    @Operation(summary = "Pre-aggregated downtime buckets (hour/shift/day) for a period")
+    public ResponseEntity<RollupSummaryDto> getRollups(
+            @RequestParam(required = false) String equipmentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше окончания");
+        }
+        return ResponseEntity.ok(rollupService.getRollups(equipmentId, from, to));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "Rebuild hour/shift/day rollups from raw downtime events")
+    public ResponseEntity<Map<String, Long>> rebuildRollups() {
+        return ResponseEntity.ok(Map.of("rollups", rollupService.rebuild()));
+    }
+
+    private void validatePeriod(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Дата начала периода позже даты окончания");
+        }
+    }
+}
@@ -1,56 +1,162 @@
 package com.example.downtime.controller;
 
+import com.example.downtime.model.DowntimeEvent;
 import com.example.downtime.model.DowntimeRequest;
 import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.service.DataVersionService;
 import com.example.downtime.service.DowntimeService;
+import com.example.downtime.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/downtimes")
 @RequiredArgsConstructor
 @Tag(name = "Downtime Management", description = "API for managing equipment downtime events")
 public class DowntimeApiController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 10_000;
+    private static final int FLUSH_EVERY = 200;
+
     private final DowntimeService downtimeService;
+    private final ObjectMapper objectMapper;
+    private final DataVersionService dataVersionService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @Operation(summary = "Create a new downtime event")
     public ResponseEntity<DowntimeResponse> createDowntime(
-            @Valid @RequestBody DowntimeRequest request) {
-        return ResponseEntity.ok(downtimeService.createDowntime(request));
+            @Valid @RequestBody DowntimeRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // Повтор шлюза с тем же ключом не создает второй простой
+        return idempotencyService.execute("create", idempotencyKey, request, DowntimeResponse.class,
+                        () -> downtimeService.createDowntime(request))
+                .toResponseEntity();
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get downtime event by ID")
-    public ResponseEntity<DowntimeResponse> getDowntime(@PathVariable Long id) { // Используем Long напрямую
-        return ResponseEntity.ok(downtimeService.getDowntime(id)); // Убрали .toString()
+    public ResponseEntity<DowntimeResponse> getDowntime(@PathVariable Long id, WebRequest webRequest) {
+        // ETag и тело - из одного снимка; при совпадении маппинг и сериализация не выполняются
+        DowntimeEvent event = downtimeService.getDowntimeEntity(id);
+        String etag = ETags.forDowntime(event, true);
+        long lastModified = ETags.lastModified(event);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .lastModified(lastModified)
+                .body(DowntimeResponse.from(event));
     }
 
     @GetMapping("/equipment/{equipmentId}")
     @Operation(summary = "Get all downtime events for equipment")
     public ResponseEntity<List<DowntimeResponse>> getDowntimesByEquipment(
-            @PathVariable String equipmentId) {
-        return ResponseEntity.ok(downtimeService.getDowntimesByEquipment(equipmentId));
+            @PathVariable String equipmentId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = listETag("equipment", equipmentId, page, size);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return conditional(etag).body(downtimeService.getDowntimesByEquipment(equipmentId, pageable(page, size)));
+    }
+
+    @GetMapping(value = "/equipment/{equipmentId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream downtime events for equipment as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamDowntimesByEquipment(
+            @PathVariable String equipmentId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = listETag("equipment-ndjson", equipmentId, page, size);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Pageable pageable = pageable(page, size);
+        return ndjson(etag, () -> downtimeService.streamDowntimesByEquipment(equipmentId, pageable));
     }
 
     @GetMapping("/active")
     @Operation(summary = "Get all active downtime events")
-    public ResponseEntity<List<DowntimeResponse>> getActiveDowntimes() {
-        return ResponseEntity.ok(downtimeService.getActiveDowntimes());
+    public ResponseEntity<List<DowntimeResponse>> getActiveDowntimes(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = listETag("active", null, page, size);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return conditional(etag).body(downtimeService.getActiveDowntimes(pageable(page, size)));
+    }
+
+    @GetMapping(value = "/active", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream active downtime events as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamActiveDowntimes(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = listETag("active-ndjson", null, page, size);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Pageable pageable = pageable(page, size);
+        return ndjson(etag, () -> downtimeService.streamActiveDowntimes(pageable));
     }
 
     @GetMapping("/operator/{operatorId}")
     @Operation(summary = "Get downtime events created by operator")
     public ResponseEntity<List<DowntimeResponse>> getDowntimesByOperator(
-            @PathVariable String operatorId) {
-        return ResponseEntity.ok(downtimeService.getDowntimesByOperator(operatorId));
+            @PathVariable String operatorId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = listETag("operator", operatorId, page, size);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return conditional(etag).body(downtimeService.getDowntimesByOperator(operatorId, pageable(page, size)));
+    }
+
+    @GetMapping(value = "/operator/{operatorId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream downtime events created by operator as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamDowntimesByOperator(
+            @PathVariable String operatorId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = listETag("operator-ndjson", operatorId, page, size);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Pageable pageable = pageable(page, size);
+        return ndjson(etag, () -> downtimeService.streamDowntimesByOperator(operatorId, pageable));
     }
 
     @PutMapping("/{id}/resolve")
@@ -60,4 +166,65 @@ public class DowntimeApiController {
             @RequestParam(required = false) String comment) {
         return ResponseEntity.ok(downtimeService.resolveDowntime(id, comment));
     }
-}
\ No newline at end of file
+
+    // Списки содержат активные простои с текущей длительностью - ETag привязан и к минуте
+    private String listETag(String scope, String key, Integer page, Integer size) {
+        return ETags.forList(scope, dataVersionService.currentVersion(), true, key, page, size);
+    }
+
+    // no-cache: клиент может хранить ответ, но обязан перепроверять его по ETag
+    private ResponseEntity.BodyBuilder conditional(String etag) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag);
+    }
+
+    // Без page/size - весь результат (для NDJSON память все равно не растет)
+    private Pageable pageable(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return Pageable.unpaged();
+        }
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("Номер страницы не может быть отрицательным");
+        }
+        return PageRequest.of(page != null ? page : 0, pageSize);
+    }
+
+    /**
+     * Построчная выдача: курсор открывается и закрывается в потоке записи ответа,
+     * каждый объект сериализуется сразу в выходной поток, сброс клиенту - каждые FLUSH_EVERY строк.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(String etag, Supplier<Stream<DowntimeResponse>> source) {
+        ObjectWriter writer = objectMapper.writerFor(DowntimeResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (Stream<DowntimeResponse> responses = source.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                int written = 0;
+                for (Iterator<DowntimeResponse> it = responses.iterator(); it.hasNext(); ) {
+                    writer.writeValue(generator, it.next());
+                    generator.writeRaw('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+                log.debug("NDJSON: отправлено {} записей", written);
+            } catch (IOException e) {
+                // Клиент закрыл соединение - курсор уже закрыт try-with-resources
+                log.warn("Потоковая выдача прервана: {}", e.getMessage());
+                throw e;
+            }
+        };
+
+        return conditional(etag)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
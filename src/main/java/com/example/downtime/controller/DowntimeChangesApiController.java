@@ -0,0 +1,45 @@
+package com.example.downtime.controller;
+
+import com.example.downtime.dto.DowntimeChangeDto;
+import com.example.downtime.dto.DowntimeChangesDto;
+import com.example.downtime.model.OutboxEntry;
+import com.example.downtime.service.DowntimeOutboxService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/downtimes/changes")
+@RequiredArgsConstructor
+@Tag(name = "Downtime Changes", description = "Incremental feed of downtime changes from the outbox")
+public class DowntimeChangesApiController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final DowntimeOutboxService outboxService;
+
+    @GetMapping
+    @Operation(summary = "Changes after the given cursor; pass nextCursor as since in the next call")
+    public ResponseEntity<DowntimeChangesDto> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (since < 0 || limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("since >= 0, limit от 1 до " + MAX_LIMIT);
+        }
+        List<OutboxEntry> entries = outboxService.readAfter(since, limit);
+        List<DowntimeChangeDto> changes = entries.stream().map(DowntimeChangeDto::from).toList();
+        long nextCursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return ResponseEntity.ok(DowntimeChangesDto.builder()
+                .changes(changes)
+                .nextCursor(nextCursor)
+                .hasMore(changes.size() == limit)
+                .build());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.downtime.controller;
+
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Сильные ETag для условных GET (If-None-Match -> 304).
+ * Один простой - по id и updatedAt, списки - по версии данных (DataVersionService) и параметрам запроса.
+ * В JSON активного простоя есть текущая длительность, поэтому такие ответы дополнительно
+ * привязаны к минуте - иначе 304 отдавал бы клиенту устаревшую длительность.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String forDowntime(DowntimeEvent event, boolean includesLiveDuration) {
+        StringBuilder tag = new StringBuilder("\"").append(event.getId())
+                .append('-').append(lastModified(event));
+        if (includesLiveDuration && event.getStatus() == DowntimeStatus.ACTIVE) {
+            tag.append("-m").append(currentMinute());
+        }
+        return tag.append('"').toString();
+    }
+
+    public static String forList(String scope, long dataVersion, boolean includesLiveDuration, Object... params) {
+        StringBuilder tag = new StringBuilder("\"").append(scope).append("-v").append(dataVersion);
+        if (includesLiveDuration) {
+            tag.append("-m").append(currentMinute());
+        }
+        return tag.append('-').append(Integer.toHexString(Arrays.deepHashCode(params))).append('"').toString();
+    }
+
+    public static long lastModified(DowntimeEvent event) {
+        return event.getUpdatedAt() != null
+                ? event.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1L;
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+}
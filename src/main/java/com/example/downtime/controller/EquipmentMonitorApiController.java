@@ -0,0 +1,49 @@
+package com.example.downtime.controller;
+
+import com.example.downtime.model.EquipmentStatus;
+import com.example.downtime.service.EquipmentMonitorService;
+import com.example.downtime.service.EquipmentOwnershipService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/monitor")
+@RequiredArgsConstructor
+@Tag(name = "Equipment Monitor", description = "API for live equipment statuses")
+public class EquipmentMonitorApiController {
+
+    private final EquipmentMonitorService monitorService;
+
+    @GetMapping("/equipment")
+    @Operation(summary = "Current status of all equipment across monitor instances")
+    public ResponseEntity<List<EquipmentStatus>> getAllStatuses() {
+        return ResponseEntity.ok(monitorService.getAllEquipmentStatuses().stream()
+                .sorted(Comparator.comparing(EquipmentStatus::getEquipmentId))
+                .toList());
+    }
+
+    @GetMapping("/equipment/{equipmentId}")
+    @Operation(summary = "Current status of equipment")
+    public ResponseEntity<EquipmentStatus> getStatus(@PathVariable String equipmentId) {
+        EquipmentStatus status = monitorService.getEquipmentStatus(equipmentId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    @PutMapping("/equipment/{equipmentId}/status")
+    @Operation(summary = "Set equipment status; forwarded to the owning instance when needed")
+    public ResponseEntity<EquipmentStatus> setStatus(
+            @PathVariable String equipmentId,
+            @RequestParam EquipmentStatus.Status status,
+            @RequestHeader(value = EquipmentOwnershipService.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        EquipmentStatus updated = monitorService.setEquipmentStatus(equipmentId, status, forwarded);
+        // Пересланная команда дошла не до владельца - аренда успела перейти, клиент повторит
+        return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -1,15 +1,21 @@
 package com.example.downtime.controller;
 
+import com.example.downtime.exception.StorageUnavailableException;
 import com.example.downtime.service.DowntimeService;
 import com.example.downtime.service.FileStorageService;
+import com.example.downtime.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Arrays;
+
 @RestController
 @RequestMapping("/downtimes/{downtimeId}/photos")
 @RequiredArgsConstructor
@@ -18,16 +24,29 @@ public class FileUploadController {
 
     private final FileStorageService fileStorageService;
     private final DowntimeService downtimeService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Upload photo for downtime event")
     public ResponseEntity<String> uploadPhoto(
             @PathVariable Long downtimeId, // String -> Long
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
 
-        String photoUrl = fileStorageService.uploadFile(file, downtimeId.toString());
-        downtimeService.addPhotoToDowntime(downtimeId, photoUrl);
+        // Повтор с тем же ключом отдает прежний URL без второй загрузки в S3
+        Object request = Arrays.asList(downtimeId, file.getOriginalFilename(), file.getContentType(), file.getSize());
+        return idempotencyService.execute("photo", idempotencyKey, request, String.class, () -> {
+            String photoUrl = fileStorageService.uploadFile(file, downtimeId.toString());
+            downtimeService.addPhotoToDowntime(downtimeId, photoUrl);
+            return photoUrl;
+        }).toResponseEntity();
+    }
 
-        return ResponseEntity.ok(photoUrl);
+    // Хранилище перегружено или недоступно - клиент повторит позже, поток Tomcat освобождается сразу
+    @ExceptionHandler(StorageUnavailableException.class)
+    public ResponseEntity<String> storageUnavailable(StorageUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -1,31 +1,40 @@
 package com.example.downtime.controller.web;
 
+import com.example.downtime.controller.ETags;
 import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.exception.StorageUnavailableException;
 import com.example.downtime.model.DowntimeEvent;
 import com.example.downtime.model.DowntimeRequest;
 import com.example.downtime.model.DowntimeResponse;
 import com.example.downtime.model.DowntimeStatus;
 import com.example.downtime.repository.DowntimeRepository;
+import com.example.downtime.service.DataVersionService;
 import com.example.downtime.service.DowntimeService;
 import com.example.downtime.service.FileStorageService;
+import com.example.downtime.service.PageDataLoader;
 import com.example.downtime.service.SettingsService;
-import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -41,6 +50,12 @@ public class DowntimeWebController {
     private final FileStorageService fileStorageService;
     private final DowntimeRepository downtimeRepository;
     private final SettingsService settingsService;
+    private final PageDataLoader pageDataLoader;
+    private final DataVersionService dataVersionService;
+
+    // Счетчики дашборда читаются с secondary и могут отставать на это время
+    @Value("${downtime.analytics.max-staleness:120s}")
+    private Duration analyticsMaxStaleness;
 
     @GetMapping("/")
     public String redirectToDowntimes() {
@@ -52,36 +67,28 @@ public class DowntimeWebController {
         return "redirect:/web/downtimes";
     }
 
-    @PostConstruct
-    public void initSettings() {
-        try {
-            settingsService.initializeDefaultSettings();
-        } catch (Exception e) {
-            log.error("Ошибка при инициализации настроек по умолчанию: {}", e.getMessage());
-        }
-    }
-
-
     @GetMapping("/settings")
     public String settings(Model model) {
         try {
-            Map<String, String> settings = settingsService.getAllSettingsAsMap();
-            if (settings == null) {
-                settings = new HashMap<>();
-            }
+            PageDataLoader.Load<Map<String, String>> settingsLoad = pageDataLoader.submit("settings",
+                    settingsService::getAllSettingsAsMap, new HashMap<>());
+            PageDataLoader.Load<Integer> refreshIntervalLoad = pageDataLoader.submit("refreshInterval",
+                    () -> settingsService.getIntSetting("refresh.interval"), null);
+            PageDataLoader.Load<Integer> maxFileSizeLoad = pageDataLoader.submit("maxFileSize",
+                    () -> settingsService.getIntSetting("photos.max.file.size"), null);
+            PageDataLoader.Load<Boolean> compressImagesLoad = pageDataLoader.submit("compressImages",
+                    () -> settingsService.getBooleanSetting("photos.compress.enabled"), null);
+            PageDataLoader.Load<Boolean> emailNotificationsLoad = pageDataLoader.submit("emailNotifications",
+                    () -> settingsService.getBooleanSetting("notifications.email.enabled"), null);
 
             // Получаем все настройки по категориям
-            model.addAttribute("refreshInterval",
-                    settingsService.getIntSetting("refresh.interval"));
-            model.addAttribute("maxFileSize",
-                    settingsService.getIntSetting("photos.max.file.size"));
-            model.addAttribute("compressImages",
-                    settingsService.getBooleanSetting("photos.compress.enabled"));
-            model.addAttribute("emailNotifications",
-                    settingsService.getBooleanSetting("notifications.email.enabled"));
+            model.addAttribute("refreshInterval", refreshIntervalLoad.get());
+            model.addAttribute("maxFileSize", maxFileSizeLoad.get());
+            model.addAttribute("compressImages", compressImagesLoad.get());
+            model.addAttribute("emailNotifications", emailNotificationsLoad.get());
 
             // Для сохранения состояния формы
-            model.addAttribute("settings", settings);
+            model.addAttribute("settings", settingsLoad.get());
 
         } catch (Exception e) {
             log.error("Ошибка при загрузке настроек: {}", e.getMessage());
@@ -139,60 +146,57 @@ public class DowntimeWebController {
                         @RequestParam(required = false) String equipmentId,
                         @RequestParam(required = false) DowntimeStatus status,
                         @RequestParam(required = false) String operator,
-                        @RequestParam(required = false) LocalDate dateFrom) {
+                        @RequestParam(required = false) LocalDate dateFrom,
+                        WebRequest webRequest,
+                        HttpServletResponse response) {
+
+        // Страница меняется только с версией данных и датой (счетчик "сегодня") -
+        // при совпадении ETag загрузки и рендеринг не выполняются.
+        // Окно max-staleness в ETag: счетчики, прочитанные с отстающей secondary, не закрепляются до следующей записи
+        String etag = ETags.forList("index", dataVersionService.currentVersion(), false,
+                equipmentId, status, operator, dateFrom, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().toString(), LocalDate.now(),
+                System.currentTimeMillis() / analyticsMaxStaleness.toMillis());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
 
         try {
             log.info("Получение списка простоев с параметрами: equipmentId={}, status={}, operator={}, dateFrom={}",
                     equipmentId, status, operator, dateFrom);
 
-            // 1. Получаем данные
-            Page<DowntimeResponse> downtimes = Page.empty(pageable);
-            List<EquipmentDto> equipmentList = Collections.emptyList();
-
-            try {
-                // Получаем список простоев с проверкой на null
-                Page<DowntimeResponse> tempDowntimes = downtimeService.getFilteredDowntimes(
-                        equipmentId, status, operator, dateFrom, pageable);
-
-                if (tempDowntimes != null && tempDowntimes.getContent() != null) {
-                    // Фильтруем null значения в контенте
-                    List<DowntimeResponse> filteredContent = tempDowntimes.getContent().stream()
+            // 1. Все независимые загрузки запускаются параллельно
+            PageDataLoader.Load<Page<DowntimeResponse>> downtimesLoad = pageDataLoader.submit("downtimes",
+                    () -> downtimeService.getFilteredDowntimes(equipmentId, status, operator, dateFrom, pageable),
+                    Page.empty(pageable));
+            PageDataLoader.Load<Long> activeLoad = pageDataLoader.submit("activeCount",
+                    () -> downtimeService.countByStatus(DowntimeStatus.ACTIVE), 0L);
+            PageDataLoader.Load<Long> todayLoad = pageDataLoader.submit("todayCount",
+                    downtimeService::countToday, 0L);
+            PageDataLoader.Load<String> avgDurationLoad = pageDataLoader.submit("avgDuration",
+                    downtimeService::getAverageDuration, "0ч");
+            PageDataLoader.Load<Long> photosLoad = pageDataLoader.submit("photosCount",
+                    downtimeService::countTotalPhotos, 0L);
+
+            // Фильтруем null значения в контенте
+            Page<DowntimeResponse> loadedDowntimes = downtimesLoad.get();
+            Page<DowntimeResponse> downtimes = new PageImpl<>(
+                    loadedDowntimes.getContent().stream()
                             .filter(Objects::nonNull)
-                            .collect(Collectors.toList());
-
-                    // Создаем новую страницу с отфильтрованным контентом
-                    downtimes = new PageImpl<>(
-                            filteredContent,
-                            pageable,
-                            tempDowntimes.getTotalElements()
-                    );
-                }
-            } catch (Exception e) {
-                log.error("Ошибка при получении списка простоев: {}", e.getMessage(), e);
-                downtimes = Page.empty(pageable);
-            }
+                            .collect(Collectors.toList()),
+                    pageable,
+                    loadedDowntimes.getTotalElements()
+            );
 
-            try {
-                // Получаем список оборудования с проверкой на null
-                List<EquipmentDto> tempEquipmentList = downtimeService.getAllEquipment();
-                if (tempEquipmentList != null) {
-                    equipmentList = tempEquipmentList.stream()
-                            .filter(Objects::nonNull)
-                            .filter(eq -> eq.getEquipmentId() != null && !eq.getEquipmentId().trim().isEmpty())
-                            .filter(eq -> eq.getEquipmentName() != null && !eq.getEquipmentName().trim().isEmpty())
-                            .collect(Collectors.toList());
-                }
-            } catch (Exception e) {
-                log.error("Ошибка при получении списка оборудования: {}", e.getMessage(), e);
-                equipmentList = Collections.emptyList();
-            }
+            // Справочник оборудования в памяти - загружать параллельно нечего
+            List<EquipmentDto> equipmentList = downtimeService.getAllEquipment();
 
-            // 2. Собираем статистику с безопасными методами
+            // 2. Статистика
             Map<String, Object> stats = new HashMap<>();
-            stats.put("activeCount", safeCountByStatus(DowntimeStatus.ACTIVE));
-            stats.put("todayCount", safeCountToday());
-            stats.put("avgDuration", safeGetAverageDuration());
-            stats.put("photosCount", safeCountTotalPhotos());
+            stats.put("activeCount", nonNegative(activeLoad.get()));
+            stats.put("todayCount", nonNegative(todayLoad.get()));
+            stats.put("avgDuration", avgDurationLoad.get());
+            stats.put("photosCount", nonNegative(photosLoad.get()));
 
             // 3. Добавляем атрибуты в модель
             model.addAttribute("downtimes", downtimes);
@@ -200,6 +204,16 @@ public class DowntimeWebController {
             model.addAttribute("stats", stats);
             model.addAttribute("refreshInterval", 30);
 
+            // Неполную страницу (fallback вместо данных) не кэшируем и не опрашиваем по ETag
+            boolean degraded = downtimesLoad.isFallback() || activeLoad.isFallback() || todayLoad.isFallback()
+                    || avgDurationLoad.isFallback() || photosLoad.isFallback();
+            if (degraded) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            } else {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+                model.addAttribute("pageEtag", etag);
+            }
+
             // 4. Добавляем параметры фильтров для сохранения состояния формы
             if (equipmentId != null) model.addAttribute("selectedEquipmentId", equipmentId);
             if (status != null) model.addAttribute("selectedStatus", status.name());
@@ -213,6 +227,7 @@ public class DowntimeWebController {
 
         } catch (Exception e) {
             log.error("Критическая ошибка при загрузке страницы списка простоев", e);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
 
             // Возвращаем безопасные значения по умолчанию
             model.addAttribute("downtimes", Page.empty(pageable));
@@ -230,49 +245,33 @@ public class DowntimeWebController {
         }
     }
 
-    // Вспомогательные методы для безопасного получения статистики
-    private Integer safeCountByStatus(DowntimeStatus status) {
-        try {
-            long count = downtimeService.countByStatus(status);
-            return count >= 0 ? (int) count : 0;
-        } catch (Exception e) {
-            log.warn("Ошибка при подсчете по статусу {}: {}", status, e.getMessage());
-            return 0;
-        }
+    private static Integer nonNegative(Long count) {
+        return count != null && count >= 0 ? count.intValue() : 0;
     }
 
-    private Integer safeCountToday() {
-        try {
-            long count = downtimeService.countToday();
-            return count >= 0 ? (int) count : 0;
-        } catch (Exception e) {
-            log.warn("Ошибка при подсчете за сегодня: {}", e.getMessage());
-            return 0;
-        }
+    private static String storageUnavailableMessage(StorageUnavailableException e) {
+        return e.getMessage() + ". Повторите загрузку фото через " + e.getRetryAfterSeconds() + " с";
     }
 
-    private String safeGetAverageDuration() {
-        try {
-            String duration = downtimeService.getAverageDuration();
-            return duration != null ? duration : "0ч";
-        } catch (Exception e) {
-            log.warn("Ошибка при получении средней длительности: {}", e.getMessage());
-            return "0ч";
-        }
-    }
-
-    private Integer safeCountTotalPhotos() {
-        try {
-            long count = downtimeService.countTotalPhotos();
-            return count >= 0 ? (int) count : 0;
-        } catch (Exception e) {
-            log.warn("Ошибка при подсчете фото: {}", e.getMessage());
-            return 0;
+    @GetMapping("/{id}")
+    public String getDowntimeDetails(@PathVariable Long id, Model model,
+                                     WebRequest webRequest, HttpServletResponse response) {
+        // Текущая длительность на странице считается скриптом от startTime,
+        // поэтому ETag зависит только от id и updatedAt
+        if (id != null && id > 0) {
+            try {
+                DowntimeEvent event = downtimeService.getDowntimeEntity(id);
+                String etag = ETags.forDowntime(event, false);
+                if (webRequest.checkNotModified(etag, ETags.lastModified(event))) {
+                    return null;
+                }
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+                model.addAttribute("pageEtag", etag);
+            } catch (IllegalArgumentException e) {
+                // Не найден - ниже отрисуется страница с ошибкой
+            }
         }
-    }
 
-    @GetMapping("/{id}")
-    public String getDowntimeDetails(@PathVariable Long id, Model model) {
         try {
             log.info("Попытка получить простой с ID: {}", id);
 
@@ -362,7 +361,8 @@ public class DowntimeWebController {
                                  BindingResult result,
                                  @RequestParam(required = false) List<MultipartFile> photos,
                                  Model model,
-                                 HttpServletRequest httpRequest) {
+                                 HttpServletRequest httpRequest,
+                                 RedirectAttributes redirectAttributes) {
 
         log.info("=== НАЧАЛО СОЗДАНИЯ ПРОСТОЯ ===");
 
@@ -390,13 +390,20 @@ public class DowntimeWebController {
 
             if (photos != null && !photos.isEmpty()) {
                 log.info("Получено фото: {}", photos.size());
-                for (MultipartFile photo : photos) {
-                    if (photo != null && !photo.isEmpty()) {
-                        String photoUrl = fileStorageService.uploadFile(photo, created.getId().toString());
-                        if (photoUrl != null) {
-                            downtimeService.addPhotoToDowntime(created.getId(), photoUrl);
+                try {
+                    for (MultipartFile photo : photos) {
+                        if (photo != null && !photo.isEmpty()) {
+                            String photoUrl = fileStorageService.uploadFile(photo, created.getId().toString());
+                            if (photoUrl != null) {
+                                downtimeService.addPhotoToDowntime(created.getId(), photoUrl);
+                            }
                         }
                     }
+                } catch (StorageUnavailableException e) {
+                    // Простой уже создан - повторная отправка формы создала бы дубликат, фото догружаются отдельно
+                    log.warn("Простой {} создан без фото: {}", created.getId(), e.getMessage());
+                    redirectAttributes.addFlashAttribute("error", storageUnavailableMessage(e));
+                    return "redirect:/web/downtimes/" + created.getId() + "/photos";
                 }
             }
 
@@ -448,6 +455,10 @@ public class DowntimeWebController {
                                 downtimeService.addPhotoToDowntime(id, photoUrl);
                                 log.info("Фото загружено: {}", photoUrl);
                             }
+                        } catch (StorageUnavailableException e) {
+                            // Остальные файлы тоже не пройдут - не ждем на каждом
+                            model.addAttribute("error", storageUnavailableMessage(e));
+                            break;
                         } catch (Exception e) {
                             log.error("Ошибка при загрузке фото: {}", e.getMessage());
                         }
@@ -459,7 +470,9 @@ public class DowntimeWebController {
             DowntimeResponse downtime = downtimeService.getDowntime(id);
             if (downtime != null) {
                 model.addAttribute("downtime", downtime);
-                model.addAttribute("successMessage", "Фото успешно загружены!");
+                if (!model.containsAttribute("error")) {
+                    model.addAttribute("successMessage", "Фото успешно загружены!");
+                }
             } else {
                 model.addAttribute("error", "Простой не найден");
             }
@@ -1,18 +1,25 @@
 package com.example.downtime.controller.web;
 
+import com.example.downtime.dto.ReliabilityDto;
 import com.example.downtime.model.EquipmentStatus;
 import com.example.downtime.service.EquipmentMonitorService;
+import com.example.downtime.service.ReliabilityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 @Slf4j
 @Controller
@@ -21,6 +28,7 @@ import java.util.Comparator;
 public class EquipmentMonitorController {
 
     private final EquipmentMonitorService monitorService;
+    private final ReliabilityService reliabilityService;
 
     @GetMapping("/dashboard")
     public String monitorDashboard(Model model) {
@@ -48,6 +56,29 @@ public class EquipmentMonitorController {
         return "monitor/dashboard";
     }
 
+    @GetMapping("/reliability")
+    public String reliabilityDashboard(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Model model) {
+        LocalDate periodTo = to != null ? to : LocalDate.now();
+        LocalDate periodFrom = from != null && !from.isAfter(periodTo) ? from : periodTo.minusDays(30);
+
+        try {
+            List<ReliabilityDto> reliability = reliabilityService.getFleetReliability(
+                    periodFrom.atStartOfDay(), periodTo.plusDays(1).atStartOfDay());
+            model.addAttribute("reliabilityList", reliability);
+        } catch (Exception e) {
+            log.error("Ошибка при расчете показателей надежности: {}", e.getMessage());
+            model.addAttribute("reliabilityList", Collections.emptyList());
+            model.addAttribute("error", "Ошибка при расчете показателей надежности");
+        }
+
+        model.addAttribute("from", periodFrom);
+        model.addAttribute("to", periodTo);
+        return "monitor/reliability";
+    }
+
     @GetMapping("/{equipmentId}")
     public String equipmentDetail(@PathVariable String equipmentId, Model model) {
         try {
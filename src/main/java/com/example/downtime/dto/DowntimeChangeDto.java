@@ -0,0 +1,44 @@
+package com.example.downtime.dto;
+
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.model.OutboxEntry;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Изменение простоя в ленте /api/downtimes/changes и в доставке получателям.
+ * Доставка "хотя бы один раз" - получатель отбрасывает повторы по seq.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DowntimeChangeDto {
+
+    private long seq;
+    private ChangeType type;
+    private Long downtimeId;
+    private String equipmentId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime occurredAt;
+
+    private DowntimeResponse downtime;
+
+    public static DowntimeChangeDto from(OutboxEntry entry) {
+        return DowntimeChangeDto.builder()
+                .seq(entry.getSeq())
+                .type(entry.getType())
+                .downtimeId(entry.getDowntimeId())
+                .equipmentId(entry.getEquipmentId())
+                .occurredAt(entry.getCreatedAt())
+                .downtime(entry.getDowntime() != null ? DowntimeResponse.from(entry.getDowntime()) : null)
+                .build();
+    }
+}
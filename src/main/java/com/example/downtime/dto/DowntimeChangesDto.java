@@ -0,0 +1,22 @@
+package com.example.downtime.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница ленты изменений: следующий запрос передает nextCursor в since.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DowntimeChangesDto {
+
+    private List<DowntimeChangeDto> changes;
+    private long nextCursor;
+    private boolean hasMore;
+}
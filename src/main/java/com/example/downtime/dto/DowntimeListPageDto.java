@@ -0,0 +1,23 @@
+package com.example.downtime.dto;
+
+import com.example.downtime.model.DowntimeResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DowntimeListPageDto {
+    private Page<DowntimeResponse> downtimes;
+    private List<EquipmentDto> equipmentList;
+    private long activeCount;
+    private long todayCount;
+    private String avgDuration;
+    private long photosCount;
+}
@@ -0,0 +1,19 @@
+package com.example.downtime.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReasonParetoDto {
+    private String reason;
+    private long count;
+    private long totalMinutes;
+    private long resolvedCount;
+    private double share;            // Доля причины в процентах по выбранной метрике
+    private double cumulativeShare;  // Накопленная доля (для линии Парето)
+}
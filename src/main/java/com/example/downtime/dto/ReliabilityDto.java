@@ -0,0 +1,39 @@
+package com.example.downtime.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReliabilityDto {
+    private String equipmentId;
+    private String equipmentName;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime periodStart;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime periodEnd;
+
+    private long periodMinutes;
+    private int failureCount;       // Количество простоев после слияния пересекающихся интервалов
+    private long downtimeMinutes;
+    private long uptimeMinutes;
+    private Double mtbfMinutes;     // Средняя наработка на отказ (null, если отказов не было)
+    private Double mttrMinutes;     // Среднее время восстановления
+    private double availability;    // Коэффициент готовности, %
+
+    // Данные живого мониторинга (EquipmentMonitorService), если оборудование отслеживается
+    private Long monitorUptimeMinutes;
+    private Long monitorDowntimeMinutes;
+    private Double monitorAvailability;
+}
@@ -0,0 +1,25 @@
+package com.example.downtime.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupBucketDto {
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime bucketStart;
+
+    private long count;
+    private long resolvedCount;
+    private long totalMinutes;
+    private long activeAtStart;
+    private long photoCount;
+}
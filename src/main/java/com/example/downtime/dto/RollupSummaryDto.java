@@ -0,0 +1,32 @@
+package com.example.downtime.dto;
+
+import com.example.downtime.model.RollupGranularity;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupSummaryDto {
+    private String equipmentId;  // null - по всему парку
+    private RollupGranularity granularity;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to;
+
+    private long totalCount;
+    private long totalResolved;
+    private long totalMinutes;
+    private long totalPhotos;
+    private List<RollupBucketDto> buckets;
+}
@@ -0,0 +1,14 @@
+package com.example.downtime.event;
+
+import com.example.downtime.model.DowntimeEvent;
+
+/**
+ * Событие изменения простоя, публикуется DowntimeService после каждой успешной записи.
+ * Слушатели (аналитика, кэши) получают его синхронно в потоке запроса.
+ */
+public record DowntimeChangedEvent(ChangeType type, DowntimeEvent downtime) {
+
+    public enum ChangeType {
+        CREATED, PHOTO_ADDED, RESOLVED, DELETED
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.downtime.event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Активный простой длится дольше порога эскалации (DowntimeEscalationService).
+ * level - номер порога с 1, threshold - сам порог.
+ */
+public record DowntimeEscalatedEvent(Long downtimeId, String equipmentId, String equipmentName,
+                                     LocalDateTime startTime, int level, Duration threshold) {
+}
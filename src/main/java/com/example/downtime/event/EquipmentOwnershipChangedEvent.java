@@ -0,0 +1,9 @@
+package com.example.downtime.event;
+
+import java.util.Set;
+
+/**
+ * Экземпляр получил или потерял аренду оборудования (EquipmentOwnershipService).
+ */
+public record EquipmentOwnershipChangedEvent(Set<String> gained, Set<String> lost) {
+}
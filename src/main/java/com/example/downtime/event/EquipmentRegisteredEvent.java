@@ -0,0 +1,7 @@
+package com.example.downtime.event;
+
+/**
+ * Новое оборудование добавлено в справочник (EquipmentCatalogService).
+ */
+public record EquipmentRegisteredEvent(String equipmentId, String equipmentName) {
+}
@@ -0,0 +1,14 @@
+package com.example.downtime.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Ключ идемпотентности занят: запрос с ним еще выполняется или ключ уже использован с другим телом.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
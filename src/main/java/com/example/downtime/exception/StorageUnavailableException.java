@@ -0,0 +1,31 @@
+package com.example.downtime.exception;
+
+import java.time.Duration;
+
+/**
+ * Хранилище фото не принимает загрузку: исчерпан лимит параллельных загрузок или разомкнут
+ * автомат после серии ошибок S3. retryAfter - через сколько имеет смысл повторить.
+ */
+public class StorageUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public StorageUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public StorageUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    // Для заголовка Retry-After: целые секунды, не меньше одной
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.downtime.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,6 +9,8 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -16,6 +19,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "downtime_events")
+@CompoundIndexes({
+        // _id в конце индексов - стабильная сортировка постраничных и потоковых списков без сортировки в памяти
+        @CompoundIndex(name = "equipment_start_id_idx", def = "{'equipmentId': 1, 'startTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "operator_start_id_idx", def = "{'operatorId': 1, 'startTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "status_start_id_idx", def = "{'status': 1, 'startTime': 1, '_id': 1}"),
+        // Поиск недописанных в outbox изменений; документы без них в индекс не попадают
+        @CompoundIndex(name = "outbox_pending_idx", def = "{'outboxPending.createdAt': 1}", sparse = true)
+})
 @Data
 @Builder(toBuilder = true)
 @NoArgsConstructor
@@ -53,6 +64,10 @@ public class DowntimeEvent {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // Изменения, сохраненные вместе с документом, но еще не записанные в outbox (см. DowntimeOutboxService)
+    @JsonIgnore
+    private List<PendingOutboxChange> outboxPending;
+
     @Transient  // Это поле не сохраняется в БД
     public static final String SEQUENCE_NAME = "downtime_events_sequence";
 }
@@ -1,13 +1,16 @@
 package com.example.downtime.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 @Data
@@ -15,8 +18,19 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL) // Не включать null поля в JSON
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class DowntimeResponse {
 
+    // Готовые строки длительности для первых суток - без String.format на каждую строку списка
+    private static final int FORMATTED_CACHE_MINUTES = 24 * 60;
+    private static final String[] FORMATTED_DURATIONS = new String[FORMATTED_CACHE_MINUTES];
+
+    static {
+        for (int minutes = 0; minutes < FORMATTED_CACHE_MINUTES; minutes++) {
+            FORMATTED_DURATIONS[minutes] = buildDuration(minutes);
+        }
+    }
+
     @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long id; // Long внутри Java, но в JSON будет строкой
     private String equipmentId;
@@ -41,150 +55,111 @@ public class DowntimeResponse {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime updatedAt;
 
+    /**
+     * Маппинг события в ответ. Список фото не копируется - отдается неизменяемое представление,
+     * вычисляемые поля считаются лениво в геттерах при сериализации/рендеринге.
+     */
+    public static DowntimeResponse from(DowntimeEvent event) {
+        DowntimeResponse response = new DowntimeResponse();
+        response.id = event.getId();
+        response.equipmentId = event.getEquipmentId();
+        response.equipmentName = event.getEquipmentName();
+        response.operatorId = event.getOperatorId();
+        response.operatorName = event.getOperatorName();
+        response.startTime = event.getStartTime();
+        response.endTime = event.getEndTime();
+        response.reason = event.getReason();
+        response.comment = event.getComment();
+        response.photoUrls = event.getPhotoUrls() != null
+                ? Collections.unmodifiableList(event.getPhotoUrls()) : Collections.emptyList();
+        response.status = event.getStatus();
+        response.createdAt = event.getCreatedAt();
+        response.updatedAt = event.getUpdatedAt();
+        return response;
+    }
+
     // ========== ВЫЧИСЛЯЕМЫЕ ПОЛЯ ==========
 
     // Продолжительность в минутах (null если еще не завершен)
-    private Long durationMinutes;
+    public Long getDurationMinutes() {
+        if (startTime == null || endTime == null) {
+            return null;
+        }
+        return Duration.between(startTime, endTime).toMinutes();
+    }
 
-    // Форматированная продолжительность (например, "2ч 15м", "45м", "в процессе")
-    private String durationFormatted;
+    // Форматированная продолжительность (например, "2ч 15м", "45м")
+    public String getDurationFormatted() {
+        Long minutes = getDurationMinutes();
+        return minutes != null ? formatDuration(minutes) : null;
+    }
 
     // Является ли простой активным (удобно для фронтенда)
-    private Boolean isActive;
+    public Boolean getIsActive() {
+        return status == DowntimeStatus.ACTIVE;
+    }
 
     // Простой длился более 1 часа? (для стилизации)
-    private Boolean isLongDowntime;
+    public Boolean getIsLongDowntime() {
+        Long minutes = endTime != null ? getDurationMinutes() : getCurrentDurationMinutes();
+        return minutes != null && minutes > 60;
+    }
 
     // Количество фотографий (удобно для отображения)
-    private Integer photoCount;
+    public Integer getPhotoCount() {
+        return photoUrls != null ? photoUrls.size() : 0;
+    }
 
     // Текущая продолжительность активного простоя (в минутах)
-    private Long currentDurationMinutes;
+    public Long getCurrentDurationMinutes() {
+        if (endTime != null || startTime == null || status != DowntimeStatus.ACTIVE) {
+            return null;
+        }
+        return Duration.between(startTime, LocalDateTime.now()).toMinutes();
+    }
 
     // Форматированная текущая продолжительность
-    private String currentDurationFormatted;
+    public String getCurrentDurationFormatted() {
+        Long minutes = getCurrentDurationMinutes();
+        return minutes != null ? formatDuration(minutes) : null;
+    }
 
     // ========== СТАТУСНЫЕ ПОЛЯ ==========
 
     // Цвет для отображения статуса (CSS класс)
-    private String statusColor;
+    public String getStatusColor() {
+        return status != null ? status.getColor() : null;
+    }
 
     // Иконка статуса
-    private String statusIcon;
+    public String getStatusIcon() {
+        return status != null ? status.getIcon() : null;
+    }
 
     // Текст статуса для отображения
-    private String statusText;
-
-    // ========== МЕТОДЫ ДЛЯ УДОБСТВА ==========
-
-    // Можно добавить метод для вычисления полей
-    public void calculateDerivedFields() {
-        // Вычисляем количество фото
-        this.photoCount = this.photoUrls != null ? this.photoUrls.size() : 0;
-
-        // Статус активности
-        this.isActive = this.status == DowntimeStatus.ACTIVE;
-
-        // Текст статуса
-        this.statusText = getStatusDisplayText();
-
-        // Цвет статуса
-        this.statusColor = getStatusColor();
-
-        // Иконка статуса
-        this.statusIcon = getStatusIcon();
-
-        // Вычисляем продолжительность
-        calculateDurations();
+    public String getStatusText() {
+        return status != null ? status.getDisplayName() : null;
     }
 
-    private void calculateDurations() {
-        if (this.endTime != null && this.startTime != null) {
-            // Для завершенных простоев
-            this.durationMinutes = java.time.Duration.between(this.startTime, this.endTime).toMinutes();
-            this.durationFormatted = formatDuration(this.durationMinutes);
-            this.isLongDowntime = this.durationMinutes > 60;
-            this.currentDurationMinutes = null;
-            this.currentDurationFormatted = null;
-        } else if (this.isActive && this.startTime != null) {
-            // Для активных простоев
-            this.currentDurationMinutes = java.time.Duration.between(this.startTime, LocalDateTime.now()).toMinutes();
-            this.currentDurationFormatted = formatDuration(this.currentDurationMinutes);
-            this.isLongDowntime = this.currentDurationMinutes > 60;
-            this.durationMinutes = null;
-            this.durationFormatted = null;
-        } else {
-            this.durationMinutes = null;
-            this.durationFormatted = null;
-            this.currentDurationMinutes = null;
-            this.currentDurationFormatted = null;
-            this.isLongDowntime = false;
+    // ========== ФОРМАТИРОВАНИЕ ==========
+
+    static String formatDuration(long minutes) {
+        if (minutes >= 0 && minutes < FORMATTED_CACHE_MINUTES) {
+            return FORMATTED_DURATIONS[(int) minutes];
         }
+        return buildDuration(minutes);
     }
 
-    private String formatDuration(long minutes) {
+    private static String buildDuration(long minutes) {
         long hours = minutes / 60;
         long mins = minutes % 60;
 
         if (hours > 0 && mins > 0) {
-            return String.format("%dч %02dм", hours, mins);
+            return hours + "ч " + (mins < 10 ? "0" : "") + mins + "м";
         } else if (hours > 0) {
-            return String.format("%dч", hours);
+            return hours + "ч";
         } else {
-            return String.format("%dм", mins);
-        }
-    }
-
-    private String getStatusDisplayText() {
-        return switch (this.status) {
-            case ACTIVE -> "Активен";
-            case RESOLVED -> "Решен";
-            case UNPLANNED -> "Внеплановый";
-            case PLANNED -> "Плановый";
-            default -> this.status.toString();
-        };
-    }
-
-    private String getStatusColor() {
-        return switch (this.status) {
-            case ACTIVE -> "danger";    // красный
-            case RESOLVED -> "success"; // зеленый
-            case UNPLANNED -> "warning"; // желтый
-            case PLANNED -> "info";     // синий
-            default -> "secondary";
-        };
-    }
-
-    private String getStatusIcon() {
-        return switch (this.status) {
-            case ACTIVE -> "⏱️";
-            case RESOLVED -> "✅";
-            case UNPLANNED -> "⚠️";
-            case PLANNED -> "📅";
-            default -> "📊";
-        };
-    }
-
-    public static class DowntimeResponseBuilder {
-
-
-        public DowntimeResponseBuilder withCalculatedFields() {
-            // Создаем временный объект для вычислений
-            DowntimeResponse response = this.build();
-            response.calculateDerivedFields();
-
-            // Возвращаем значения в билдер
-            return this
-                    .durationMinutes(response.durationMinutes)
-                    .durationFormatted(response.durationFormatted)
-                    .isActive(response.isActive)
-                    .isLongDowntime(response.isLongDowntime)
-                    .photoCount(response.photoCount)
-                    .currentDurationMinutes(response.currentDurationMinutes)
-                    .currentDurationFormatted(response.currentDurationFormatted)
-                    .statusColor(response.statusColor)
-                    .statusIcon(response.statusIcon)
-                    .statusText(response.statusText);
+            return mins + "м";
         }
     }
-}
\ No newline at end of file
+}
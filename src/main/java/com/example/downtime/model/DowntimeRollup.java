@@ -0,0 +1,50 @@
+package com.example.downtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Предагрегированная статистика простоев по временным корзинам (час, смена, сутки)
+ * для одной единицы оборудования.
+ */
+@Document(collection = "downtime_rollups")
+@CompoundIndexes({
+        @CompoundIndex(name = "granularity_equipment_bucket_idx",
+                def = "{'granularity': 1, 'equipmentId': 1, 'bucketStart': 1}", unique = true),
+        @CompoundIndex(name = "granularity_bucket_idx", def = "{'granularity': 1, 'bucketStart': 1}")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DowntimeRollup {
+
+    @Id
+    private String id;
+
+    private RollupGranularity granularity;
+
+    private String equipmentId;
+
+    private String equipmentName;
+
+    private LocalDateTime bucketStart;
+
+    private long count;  // Простоев, начавшихся в корзине
+
+    private long resolvedCount;  // Из них закрытых
+
+    private long durationSeconds;  // Длительность закрытых простоев, попавшая в корзину
+
+    private long activeAtStart;  // Закрытых простоев, продолжавшихся на момент начала корзины (открытые досчитываются при запросе)
+
+    private long photoCount;  // Фото у простоев, начавшихся в корзине
+}
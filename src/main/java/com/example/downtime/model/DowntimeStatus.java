@@ -1,5 +1,24 @@
 package com.example.downtime.model;
 
 public enum DowntimeStatus {
-    PLANNED, UNPLANNED, MAINTENANCE, OPERATING, ACTIVE, RESOLVED;
+    PLANNED("Плановый", "info", "📅"),
+    UNPLANNED("Внеплановый", "warning", "⚠️"),
+    MAINTENANCE("MAINTENANCE", "secondary", "📊"),
+    OPERATING("OPERATING", "secondary", "📊"),
+    ACTIVE("Активен", "danger", "⏱️"),
+    RESOLVED("Решен", "success", "✅");
+
+    private final String displayName;
+    private final String color;  // CSS класс Bootstrap
+    private final String icon;
+
+    DowntimeStatus(String displayName, String color, String icon) {
+        this.displayName = displayName;
+        this.color = color;
+        this.icon = icon;
+    }
+
+    public String getDisplayName() { return displayName; }
+    public String getColor() { return color; }
+    public String getIcon() { return icon; }
 }
@@ -0,0 +1,28 @@
+package com.example.downtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Справочник оборудования. Пополняется при первом простое по новому equipmentId.
+ */
+@Document(collection = "equipment")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Equipment {
+
+    @Id
+    private String equipmentId;
+
+    private String equipmentName;
+
+    private LocalDateTime createdAt;
+}
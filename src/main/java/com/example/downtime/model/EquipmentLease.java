@@ -0,0 +1,36 @@
+package com.example.downtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Аренда оборудования экземпляром мониторинга. Владелец продлевает ее heartbeat-ом,
+ * после expiresAt аренду может взять другой экземпляр; просроченные документы удаляет TTL-индекс.
+ */
+@Document(collection = "equipment_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EquipmentLease {
+
+    @Id
+    private String equipmentId;
+
+    private String ownerId;
+
+    // Адрес владельца для пересылки команд
+    private String ownerUrl;
+
+    private LocalDateTime heartbeatAt;
+
+    @Indexed(name = "lease_expires_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
@@ -4,14 +4,19 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+// Снимок статуса публикуется владельцем в equipment_status - его читают остальные экземпляры
+@Document(collection = "equipment_status")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class EquipmentStatus {
+    @Id
     private String equipmentId;
     private String equipmentName;
     private Status currentStatus;
@@ -0,0 +1,45 @@
+package com.example.downtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ключ идемпотентности (заголовок Idempotency-Key) и сохраненный ответ на первый запрос с ним.
+ * Запись живет сутки от создания - в течение этого срока повтор получает тот же ответ.
+ */
+@Document(collection = "idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    public enum State {
+        IN_PROGRESS, COMPLETED
+    }
+
+    // Операция и ключ клиента: "create:<key>", "photo:<key>"
+    @Id
+    private String key;
+
+    // Хэш содержимого запроса - тот же ключ с другим запросом отклоняется
+    private String fingerprint;
+
+    private State state;
+
+    // Ответ в JSON, для COMPLETED
+    private String response;
+
+    // До какого момента запрос считается выполняющимся; после - экземпляр упал, ключ можно перехватить
+    private LocalDateTime lockedUntil;
+
+    @Indexed(name = "idempotency_created_ttl_idx", expireAfter = "1d")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package com.example.downtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Живой экземпляр мониторинга. Набор живых узлов определяет распределение оборудования.
+ */
+@Document(collection = "monitor_nodes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonitorNode {
+
+    @Id
+    private String nodeId;
+
+    private String url;
+
+    private LocalDateTime heartbeatAt;
+
+    @Indexed(name = "node_expires_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
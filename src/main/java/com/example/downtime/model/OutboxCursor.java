@@ -0,0 +1,33 @@
+package com.example.downtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Последний номер outbox, подтвержденный получателем (sink), и блокировка доставки:
+ * при нескольких экземплярах пачки получателю отправляет только один.
+ */
+@Document(collection = "outbox_cursors")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxCursor {
+
+    @Id
+    private String sink;
+
+    private long lastSeq;
+
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    private LocalDateTime updatedAt;
+}
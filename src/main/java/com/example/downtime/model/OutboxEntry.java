@@ -0,0 +1,45 @@
+package com.example.downtime.model;
+
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись outbox: изменение простоя с возрастающим номером (курсор ленты изменений).
+ * Хранится retention-срок TTL-индекса - он должен превышать самый долгий простой получателя.
+ */
+@Document(collection = "downtime_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEntry {
+
+    public static final String SEQUENCE_NAME = "downtime_outbox_sequence";
+
+    @Id
+    private Long seq;
+
+    private ChangeType type;
+
+    // PendingOutboxChange.changeId: повторная вставка того же изменения (сборщиком незавершенных) отбрасывается
+    @Indexed(name = "outbox_change_id_idx", unique = true, sparse = true)
+    private String changeId;
+
+    private Long downtimeId;
+
+    private String equipmentId;
+
+    // Состояние простоя после изменения (для DELETED - до удаления)
+    private DowntimeEvent downtime;
+
+    @Indexed(name = "outbox_created_ttl_idx", expireAfter = "7d")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.example.downtime.model;
+
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Изменение простоя, еще не записанное в outbox. Хранится в самом документе простоя
+ * (DowntimeEvent.outboxPending) и сохраняется той же записью, что и изменение, - поэтому
+ * сбой между сохранением и вставкой в outbox не теряет его: запись доведет OutboxPublisher.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingOutboxChange {
+
+    // Ключ записи outbox (OutboxEntry.changeId) - повторная вставка того же изменения отбрасывается
+    private String changeId;
+
+    private ChangeType type;
+
+    private LocalDateTime createdAt;
+}
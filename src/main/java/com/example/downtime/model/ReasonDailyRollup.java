@@ -0,0 +1,45 @@
+package com.example.downtime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Суточный агрегат простоев: оборудование × причина × день.
+ * Обновляется инкрементально ($inc upsert) при создании и закрытии простоя.
+ */
+@Document(collection = "downtime_reason_rollups")
+@CompoundIndexes({
+        @CompoundIndex(name = "equipment_day_reason_idx", def = "{'equipmentId': 1, 'day': 1, 'reason': 1}", unique = true),
+        @CompoundIndex(name = "day_idx", def = "{'day': 1}")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReasonDailyRollup {
+
+    @Id
+    private String id;
+
+    private String equipmentId;
+
+    private String equipmentName;
+
+    private String reason;
+
+    private LocalDate day;  // День начала простоя
+
+    private long count;  // Количество простоев, начавшихся в этот день
+
+    private long totalMinutes;  // Суммарная длительность закрытых простоев
+
+    private long resolvedCount;  // Количество закрытых простоев
+}
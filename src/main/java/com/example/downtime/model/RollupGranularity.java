@@ -0,0 +1,5 @@
+package com.example.downtime.model;
+
+public enum RollupGranularity {
+    HOUR, SHIFT, DAY;
+}
@@ -2,6 +2,7 @@ package com.example.downtime.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -13,6 +14,8 @@ public class Settings {
     @Id
     private String id;
 
+    // Настройки ищутся и upsert-ятся по ключу: без уникального индекса параллельный старт создал бы дубликаты
+    @Indexed(name = "settings_key_idx", unique = true)
     private String key;
     private String value;
     private String description;
@@ -0,0 +1,9 @@
+package com.example.downtime.repository;
+
+import com.example.downtime.model.Equipment;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EquipmentRepository extends MongoRepository<Equipment, String> {
+}
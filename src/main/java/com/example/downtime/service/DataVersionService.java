@@ -0,0 +1,77 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.model.DatabaseSequence;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Версия данных коллекции downtime_events: счетчик в database_sequences, увеличивается
+ * при каждой записи через DowntimeService. Служит частью ключа кэшей результатов запросов -
+ * после записи старые ключи просто перестают запрашиваться.
+ * Свои записи видны сразу, записи других экземпляров - не позже чем через version-check-interval.
+ * Внутри транзакции Mongo (downtime.outbox.transactional) версия увеличивается только после фиксации:
+ * иначе параллельный читатель закэшировал бы страницу без этой записи под новой версией.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    static final String DOWNTIME_VERSION = "downtime_events_version";
+
+    private final MongoTemplate mongoTemplate;
+    private final SequenceGeneratorService sequenceGenerator;
+
+    @Value("${downtime.cache.query.version-check-interval:1s}")
+    private Duration versionCheckInterval;
+
+    private volatile long version;
+    private volatile long checkedAt;
+    private volatile boolean checked;
+
+    public long currentVersion() {
+        if (checked && System.nanoTime() - checkedAt < versionCheckInterval.toNanos()) {
+            return version;
+        }
+        synchronized (this) {
+            // Пока один поток читал счетчик, остальные ждали - повторно не читаем
+            if (!checked || System.nanoTime() - checkedAt >= versionCheckInterval.toNanos()) {
+                DatabaseSequence stored = mongoTemplate.findById(DOWNTIME_VERSION, DatabaseSequence.class);
+                update(stored != null ? stored.getSeq() : 0L);
+            }
+            return version;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        try {
+            bump();
+        } catch (Exception e) {
+            // Запись уже сохранена - ошибку не пробрасываем; чужие кэши догонят версию при следующей записи
+            log.error("Не удалось увеличить версию данных после изменения простоя: {}", e.getMessage());
+        }
+    }
+
+    // Для изменений без DowntimeChangedEvent (перенос в архив)
+    public void bump() {
+        update(sequenceGenerator.generateSequence(DOWNTIME_VERSION));
+    }
+
+    private synchronized void update(long newVersion) {
+        if (newVersion > version) {
+            log.debug("Версия данных простоев: {} -> {}", version, newVersion);
+            version = newVersion;
+        }
+        checkedAt = System.nanoTime();
+        checked = true;
+    }
+}
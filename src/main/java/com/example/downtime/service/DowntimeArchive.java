@@ -0,0 +1,52 @@
+package com.example.downtime.service;
+
+import com.example.downtime.model.DowntimeEvent;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Чтение простоев с учетом холодного уровня: закрытые старые простои переносятся
+ * DowntimeArchiveService в коллекцию downtime_events_archive с той же схемой и индексами.
+ * Запрос выполняется по обеим коллекциям, горячая читается первой.
+ */
+final class DowntimeArchive {
+
+    static final String COLLECTION = "downtime_events_archive";
+
+    private DowntimeArchive() {
+    }
+
+    static DowntimeEvent findById(MongoTemplate mongoTemplate, Long id) {
+        return mongoTemplate.findById(id, DowntimeEvent.class, COLLECTION);
+    }
+
+    static DowntimeEvent findOne(MongoTemplate mongoTemplate, Query query) {
+        return mongoTemplate.findOne(query, DowntimeEvent.class, COLLECTION);
+    }
+
+    static long count(MongoTemplate mongoTemplate, Query query) {
+        return mongoTemplate.count(query, COLLECTION);
+    }
+
+    /**
+     * Обе коллекции в порядке order. У запроса должна быть сортировка, совпадающая с order, -
+     * тогда результаты сливаются курсорами без сортировки в памяти.
+     * Пропуск и лимит запроса применяются к каждой коллекции отдельно: для страницы
+     * вызывающий код запрашивает offset + size и пропускает offset уже после слияния.
+     */
+    static Stream<DowntimeEvent> stream(MongoTemplate mongoTemplate, Query query, Comparator<DowntimeEvent> order) {
+        Stream<DowntimeEvent> hot = mongoTemplate.stream(query, DowntimeEvent.class);
+        Stream<DowntimeEvent> archived = mongoTemplate.stream(query, DowntimeEvent.class, COLLECTION);
+        return SortedStreams.merge(hot, archived, order);
+    }
+
+    // Без порядка - для полных проходов (перестроение агрегатов)
+    static Stream<DowntimeEvent> streamAll(MongoTemplate mongoTemplate, Query query) {
+        Stream<DowntimeEvent> hot = mongoTemplate.stream(query, DowntimeEvent.class);
+        Stream<DowntimeEvent> archived = mongoTemplate.stream(query, DowntimeEvent.class, COLLECTION);
+        return Stream.concat(hot, archived);
+    }
+}
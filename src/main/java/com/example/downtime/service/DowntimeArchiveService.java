@@ -0,0 +1,211 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Перенос закрытых простоев старше resolved-age из downtime_events в downtime_events_archive.
+ * Горячая коллекция и ее индексы остаются ограниченными рабочим набором, чтение по ID
+ * и выгрузки прозрачно читают архив (DowntimeArchive).
+ * Перенос идет пачками с паузой между ними, каждая пачка: копия в архив (идемпотентно),
+ * затем удаление из горячей коллекции только тех документов, что не изменились с момента чтения.
+ * Содержимое простоев при переносе не меняется, поэтому DowntimeChangedEvent не публикуется -
+ * агрегаты остаются верными, увеличивается только версия данных для кэшей списков.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DowntimeArchiveService {
+
+    private final MongoTemplate mongoTemplate;
+    private final DataVersionService dataVersionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${downtime.archive.enabled:true}")
+    private boolean enabled;
+
+    // Возраст считается от endTime
+    @Value("${downtime.archive.resolved-age:180d}")
+    private Duration resolvedAge;
+
+    @Value("${downtime.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${downtime.archive.batch-pause:200ms}")
+    private Duration batchPause;
+
+    @Value("${downtime.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        // Те же индексы, что у горячей коллекции, - запросы выгрузок одинаковы для обеих
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(DowntimeArchive.COLLECTION);
+            new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(DowntimeEvent.class)
+                    .forEach(indexOps::ensureIndex);
+        } catch (Exception e) {
+            log.error("Ошибка создания индексов архива простоев: {}", e.getMessage());
+        }
+    }
+
+    // ========== ПЕРЕНОС В АРХИВ ==========
+
+    @Scheduled(initialDelayString = "${downtime.archive.initial-delay:PT5M}",
+            fixedDelayString = "${downtime.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveResolved();
+        } catch (Exception e) {
+            log.error("Ошибка архивации простоев: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Один проход архивации, не больше max-batches-per-run пачек. Возвращает число перенесенных простоев.
+     */
+    public long archiveResolved() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Архивация простоев уже выполняется");
+            return 0;
+        }
+        long moved = 0;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(resolvedAge);
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                BatchResult result = archiveBatch(cutoff);
+                moved += result.moved();
+                if (result.found() < batchSize || !pause()) {
+                    break;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+
+        if (moved > 0) {
+            dataVersionService.bump();
+            log.info("В архив перенесено простоев: {}", moved);
+        }
+        return moved;
+    }
+
+    private BatchResult archiveBatch(LocalDateTime cutoff) {
+        // startTime <= endTime, поэтому условие по startTime ведет запрос по status_start_id_idx
+        Query query = new Query(Criteria.where("status").is(DowntimeStatus.RESOLVED)
+                .and("startTime").lt(cutoff)
+                .and("endTime").lt(cutoff));
+        query.with(Sort.by(Sort.Order.asc("startTime"), Sort.Order.asc("_id")));
+        query.limit(batchSize);
+        List<DowntimeEvent> events = mongoTemplate.find(query, DowntimeEvent.class);
+        if (events.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+
+        // Копии пишутся как Document: без аудита, updatedAt в архиве совпадает с горячей коллекцией.
+        // Replace с upsert - повтор после сбоя между шагами не создает дубликатов
+        BulkOperations archive = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DowntimeArchive.COLLECTION);
+        for (DowntimeEvent event : events) {
+            Document copy = new Document();
+            mongoTemplate.getConverter().write(event, copy);
+            archive.replaceOne(byId(event.getId()), copy, FindAndReplaceOptions.options().upsert());
+        }
+        archive.execute();
+
+        // Удаляем только неизмененные: добавленное за это время фото не должно потеряться
+        BulkOperations hot = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DowntimeEvent.class);
+        for (DowntimeEvent event : events) {
+            hot.remove(new Query(Criteria.where("_id").is(event.getId()).and("updatedAt").is(event.getUpdatedAt())));
+        }
+        int removed = hot.execute().getDeletedCount();
+
+        if (removed < events.size()) {
+            dropStaleCopies(events);
+        }
+
+        meterRegistry.counter("downtime.archive.moved").increment(removed);
+        log.debug("Пачка архивации: найдено {}, перенесено {}", events.size(), removed);
+        return new BatchResult(events.size(), removed);
+    }
+
+    // Измененные во время переноса остаются в горячей коллекции, их архивные копии устарели
+    private void dropStaleCopies(List<DowntimeEvent> events) {
+        Query remaining = new Query(Criteria.where("_id").in(events.stream().map(DowntimeEvent::getId).toList()));
+        remaining.fields().include("_id");
+        List<Long> kept = mongoTemplate.find(remaining, DowntimeEvent.class).stream()
+                .map(DowntimeEvent::getId)
+                .toList();
+        if (!kept.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(kept)), DowntimeArchive.COLLECTION);
+        }
+    }
+
+    // ========== ИЗМЕНЕНИЯ АРХИВНЫХ ПРОСТОЕВ ==========
+
+    /**
+     * Изменение архивного простоя сохраняется в горячую коллекцию (save по ID) - архивная копия
+     * больше не нужна. При следующем проходе простой снова уйдет в архив по общему правилу.
+     * Архивную копию удаленного простоя удаляет сам DowntimeService.deleteDowntime.
+     */
+    @EventListener
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        if (change.type() != ChangeType.PHOTO_ADDED || change.downtime() == null || change.downtime().getId() == null) {
+            return;
+        }
+        try {
+            mongoTemplate.remove(byId(change.downtime().getId()), DowntimeArchive.COLLECTION);
+        } catch (Exception e) {
+            // Изменение уже сохранено; горячая копия читается раньше архивной, лишнюю уберет следующий проход
+            log.error("Не удалось удалить архивную копию простоя {}: {}", change.downtime().getId(), e.getMessage());
+        }
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    private static Query byId(Long id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record BatchResult(int found, int moved) {
+    }
+}
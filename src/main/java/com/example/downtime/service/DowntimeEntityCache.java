@@ -0,0 +1,152 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.repository.DowntimeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Кэш простоев по ID (Caffeine, W-TinyLFU) с ограничением по оценке занимаемой памяти.
+ * Локальные записи сбрасывают запись через DowntimeChangedEvent. Записи других экземпляров
+ * приложения ловятся сверкой updatedAt: запись старше revalidate-after перед выдачей
+ * проверяется запросом с проекцией одного поля, документ целиком перечитывается только при расхождении.
+ * Простои, перенесенные в архив, читаются из downtime_events_archive.
+ * Кэшированный объект общий - изменять его нельзя, для изменения берется копия.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DowntimeEntityCache {
+
+    private static final String CACHE_NAME = "downtime.entity";
+
+    private final DowntimeRepository downtimeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${downtime.cache.entity.max-weight:64MB}")
+    private DataSize maxWeight;
+
+    @Value("${downtime.cache.entity.revalidate-after:5s}")
+    private Duration revalidateAfter;
+
+    private Cache<Long, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((Long id, Entry entry) -> estimateBytes(entry.event()))
+                .expireAfterAccess(Duration.ofMinutes(30))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // ========== ЧТЕНИЕ ==========
+
+    public Optional<DowntimeEvent> get(Long id) {
+        Entry entry = cache.get(id, this::load);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (System.nanoTime() - entry.validatedAt() < revalidateAfter.toNanos()) {
+            return Optional.of(entry.event());
+        }
+        return Optional.ofNullable(revalidate(id, entry));
+    }
+
+    // ========== ИНВАЛИДАЦИЯ ==========
+
+    @EventListener
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        if (change.downtime() != null && change.downtime().getId() != null) {
+            cache.invalidate(change.downtime().getId());
+        } else {
+            cache.invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    // Не найден в горячей коллекции - ищем в архиве
+    private Entry load(Long id) {
+        DowntimeEvent event = downtimeRepository.findById(id)
+                .orElseGet(() -> DowntimeArchive.findById(mongoTemplate, id));
+        return event != null ? new Entry(event, System.nanoTime()) : null;
+    }
+
+    private DowntimeEvent revalidate(Long id, Entry entry) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("updatedAt");
+        DowntimeEvent current = mongoTemplate.findOne(query, DowntimeEvent.class);
+        if (current == null) {
+            // Перенос в архив не меняет updatedAt - запись остается свежей
+            current = DowntimeArchive.findOne(mongoTemplate, query);
+        }
+
+        if (current == null) {
+            countRevalidation("deleted");
+            cache.asMap().remove(id, entry);
+            return null;
+        }
+        if (Objects.equals(current.getUpdatedAt(), entry.event().getUpdatedAt())) {
+            countRevalidation("fresh");
+            // replace, а не put: если запись уже сброшена локальным изменением, не возвращаем ее
+            cache.asMap().replace(id, entry, new Entry(entry.event(), System.nanoTime()));
+            return entry.event();
+        }
+
+        countRevalidation("stale");
+        log.debug("Простой {} изменен другим экземпляром, перечитываем", id);
+        cache.asMap().remove(id, entry);
+        Entry reloaded = cache.get(id, this::load);
+        return reloaded != null ? reloaded.event() : null;
+    }
+
+    private void countRevalidation(String result) {
+        meterRegistry.counter("cache.revalidations", "cache", CACHE_NAME, "result", result).increment();
+    }
+
+    // Грубая оценка размера документа в памяти: объект, строки (UTF-16) и ссылки на фото
+    static int estimateBytes(DowntimeEvent event) {
+        long bytes = 256
+                + chars(event.getEquipmentId()) + chars(event.getEquipmentName())
+                + chars(event.getOperatorId()) + chars(event.getOperatorName())
+                + chars(event.getReason()) + chars(event.getComment());
+        if (event.getPhotoUrls() != null) {
+            for (String url : event.getPhotoUrls()) {
+                bytes += 48 + chars(url);
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long chars(String value) {
+        return value != null ? 40L + 2L * value.length() : 0L;
+    }
+
+    private record Entry(DowntimeEvent event, long validatedAt) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeEscalatedEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.repository.DowntimeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Эскалация затянувшихся простоев без опроса Mongo.
+ * Все активные простои держатся в памяти: при старте - из findByStatus(ACTIVE), дальше - по DowntimeChangedEvent.
+ * Для каждого в DelayQueue лежит срок ближайшего порога (O(log n) на вставку и выборку);
+ * поток эскалации спит до ближайшего срока, публикует DowntimeEscalatedEvent и ставит следующий порог.
+ * Закрытие только убирает простой из карты - его сроки в очереди отбрасываются при наступлении.
+ * Пороги, пройденные до старта экземпляра, повторно не эскалируются.
+ * Перед эскалацией статус перепроверяется по базе: простой мог закрыть другой процесс
+ * (реактивный API, другой экземпляр), чье событие сюда не доходит.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DowntimeEscalationService {
+
+    private final DowntimeRepository downtimeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${downtime.escalation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${downtime.escalation.thresholds:30m,60m,240m}")
+    private Duration[] thresholds;
+
+    // false - отслеживаются только простои, созданные после старта этого процесса
+    @Value("${downtime.escalation.seed-on-startup:true}")
+    private boolean seedOnStartup;
+
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private final Map<Long, DowntimeEvent> active = new ConcurrentHashMap<>();
+    // Простои, закрытые или удаленные во время начальной загрузки: в снимке они могут быть еще активны
+    private volatile Set<Long> closedDuringSeed;
+
+    private volatile boolean started;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Arrays.sort(thresholds);
+        Gauge.builder("downtime.escalation.tracked", active, Map::size)
+                .description("Активные простои под наблюдением эскалации")
+                .register(meterRegistry);
+
+        // Слушатель включается до загрузки: созданные во время нее простои не теряются
+        started = true;
+        if (seedOnStartup) {
+            Set<Long> closed = ConcurrentHashMap.newKeySet();
+            closedDuringSeed = closed;
+            for (DowntimeEvent downtime : downtimeRepository.findByStatus(DowntimeStatus.ACTIVE)) {
+                if (closed.contains(downtime.getId())) {
+                    continue;
+                }
+                track(downtime);
+                // Закрыт между проверкой и track - событие уже прошло мимо, снимаем сами
+                if (closed.contains(downtime.getId())) {
+                    active.remove(downtime.getId());
+                }
+            }
+            closedDuringSeed = null;
+        }
+        log.info("Эскалация простоев: отслеживается {}, пороги {}", active.size(), Arrays.toString(thresholds));
+
+        worker = Thread.ofPlatform().name("downtime-escalation").daemon(true).start(this::run);
+    }
+
+    // ========== ИЗМЕНЕНИЯ ПРОСТОЕВ ==========
+
+    @EventListener
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        if (!started || change.downtime() == null || change.downtime().getId() == null) {
+            return;
+        }
+        switch (change.type()) {
+            case CREATED -> {
+                if (change.downtime().getStatus() == DowntimeStatus.ACTIVE) {
+                    track(change.downtime());
+                }
+            }
+            case RESOLVED, DELETED -> {
+                Set<Long> closed = closedDuringSeed;
+                if (closed != null) {
+                    closed.add(change.downtime().getId());
+                }
+                active.remove(change.downtime().getId());
+            }
+            default -> {
+                // Фото на сроки не влияют
+            }
+        }
+    }
+
+    private void track(DowntimeEvent downtime) {
+        // Повторное событие (или простой, созданный во время начальной загрузки) не ставит сроки дважды
+        if (downtime.getStartTime() == null || active.putIfAbsent(downtime.getId(), downtime) != null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int level = 0; level < thresholds.length; level++) {
+            if (dueAt(downtime, level) > now) {
+                schedule(downtime, level);
+                return;
+            }
+        }
+    }
+
+    private void schedule(DowntimeEvent downtime, int level) {
+        deadlines.add(new Deadline(downtime.getId(), level, dueAt(downtime, level)));
+    }
+
+    private long dueAt(DowntimeEvent downtime, int level) {
+        return toMillis(downtime.getStartTime()) + thresholds[level].toMillis();
+    }
+
+    // ========== ЭСКАЛАЦИЯ ==========
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                fire(deadlines.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Ошибка эскалации простоя: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    void fire(Deadline deadline) {
+        DowntimeEvent downtime = active.get(deadline.downtimeId());
+        if (downtime == null) {
+            // Простой уже закрыт или удален
+            return;
+        }
+        if (!stillActive(downtime.getId())) {
+            active.remove(downtime.getId());
+            return;
+        }
+        Duration threshold = thresholds[deadline.level()];
+        log.warn("Эскалация: простой {} на {} длится дольше {} мин",
+                downtime.getId(), downtime.getEquipmentId(), threshold.toMinutes());
+        meterRegistry.counter("downtime.escalations", "level", String.valueOf(deadline.level() + 1)).increment();
+        eventPublisher.publishEvent(new DowntimeEscalatedEvent(downtime.getId(), downtime.getEquipmentId(),
+                downtime.getEquipmentName(), downtime.getStartTime(), deadline.level() + 1, threshold));
+        if (deadline.level() + 1 < thresholds.length) {
+            schedule(downtime, deadline.level() + 1);
+        }
+    }
+
+    // Один запрос по ID на наступивший порог - редкое событие, опросом не является
+    private boolean stillActive(Long downtimeId) {
+        return downtimeRepository.findById(downtimeId)
+                .map(downtime -> downtime.getStatus() == DowntimeStatus.ACTIVE)
+                .orElse(false);
+    }
+
+    int trackedCount() {
+        return active.size();
+    }
+
+    int pendingDeadlines() {
+        return deadlines.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    record Deadline(Long downtimeId, int level, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Deadline) other).dueAtMillis);
+        }
+    }
+}
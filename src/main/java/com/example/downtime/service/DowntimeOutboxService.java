@@ -0,0 +1,237 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.OutboxEntry;
+import com.example.downtime.model.PendingOutboxChange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outbox изменений простоев (коллекция downtime_outbox), доставка "хотя бы один раз" в обоих режимах.
+ * Изменение сначала сохраняется в самом документе простоя (outboxPending) - той же записью, что и
+ * изменение, поэтому атомарно с ним и без транзакций. Затем, после слушателей DowntimeChangedEvent,
+ * DowntimeService (и ReactiveDowntimeService) вставляет запись outbox и снимает отметку.
+ * Если вставка не удалась (после write-attempts повторов ошибка уходит вызывающему) или процесс упал
+ * между сохранением и вставкой, запись дописывает OutboxPublisher по отметкам старше pending-grace.
+ * С транзакциями Mongo (downtime.outbox.transactional, нужен replica set) запись outbox фиксируется
+ * вместе с простоем сразу; без них - возможна задержка до pending-grace и повторная доставка.
+ * Номера берутся из счетчика до вставки и вне транзакции (см. SequenceGeneratorService), поэтому
+ * параллельные записи могут появиться не по порядку, а откаченная транзакция оставляет пропуск:
+ * чтение выдает только непрерывный префикс, а пропуск номера считает потерянным через gap-timeout.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DowntimeOutboxService {
+
+    private final MongoTemplate mongoTemplate;
+    private final SequenceGeneratorService sequenceGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Сколько ждать запись с пропущенным номером (писатель упал между счетчиком и вставкой)
+    @Value("${downtime.outbox.gap-timeout:5s}")
+    private Duration gapTimeout;
+
+    // Попытки вставки записи без транзакции; пауза растет линейно с номером попытки
+    @Value("${downtime.outbox.write-attempts:3}")
+    private int writeAttempts;
+
+    @Value("${downtime.outbox.write-retry-delay:100ms}")
+    private Duration writeRetryDelay;
+
+    // ========== ОТМЕТКИ В ДОКУМЕНТЕ ==========
+
+    public PendingOutboxChange newChange(ChangeType type) {
+        return PendingOutboxChange.builder()
+                .changeId(UUID.randomUUID().toString())
+                .type(type)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Добавляет отметку к документу перед его сохранением. Список копируется -
+     * объект мог прийти из кэша простоев.
+     */
+    public PendingOutboxChange pending(ChangeType type, DowntimeEvent downtime) {
+        PendingOutboxChange change = newChange(type);
+        List<PendingOutboxChange> pending = downtime.getOutboxPending() != null
+                ? new ArrayList<>(downtime.getOutboxPending()) : new ArrayList<>();
+        pending.add(change);
+        downtime.setOutboxPending(pending);
+        return change;
+    }
+
+    /**
+     * Отметка удаления: документ исчезнет вместе с отметкой, поэтому она ставится отдельной записью
+     * до вставки в outbox и удаления. Прервавшееся удаление доводит recoverPending.
+     */
+    public PendingOutboxChange markDeleted(Long downtimeId) {
+        PendingOutboxChange change = newChange(ChangeType.DELETED);
+        Update update = new Update().push("outboxPending", change);
+        if (mongoTemplate.updateFirst(byId(downtimeId), update, DowntimeEvent.class).getMatchedCount() == 0) {
+            mongoTemplate.updateFirst(byId(downtimeId), update, DowntimeArchive.COLLECTION);
+        }
+        return change;
+    }
+
+    // ========== ЗАПИСЬ ==========
+
+    public void record(PendingOutboxChange change, DowntimeEvent downtime) {
+        // Внутри транзакции повтор бесполезен: ошибка записи прерывает транзакцию целиком
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : Math.max(1, writeAttempts);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(change, downtime);
+                break;
+            } catch (DataAccessException e) {
+                if (attempt >= attempts || !pause(writeRetryDelay.multipliedBy(attempt))) {
+                    log.error("Не удалось записать {} простоя {} в outbox за {} попыток, допишет сборщик: {}",
+                            change.getType(), downtime.getId(), attempt, e.getMessage());
+                    throw e;
+                }
+                log.warn("Ошибка записи {} простоя {} в outbox (попытка {}), повтор: {}",
+                        change.getType(), downtime.getId(), attempt, e.getMessage());
+            }
+        }
+        if (change.getType() != ChangeType.DELETED) {
+            clear(change, downtime);
+        }
+    }
+
+    /**
+     * Дописывает в outbox изменения, отмеченные в документах раньше pending-grace назад
+     * (в горячей коллекции и архиве). Возвращает число дописанных.
+     */
+    public int recoverPending(Duration grace, int limit) {
+        LocalDateTime before = LocalDateTime.now().minus(grace);
+        Query query = new Query(Criteria.where("outboxPending.createdAt").lt(before)).limit(limit);
+        int recovered = 0;
+        for (String collection : List.of(mongoTemplate.getCollectionName(DowntimeEvent.class), DowntimeArchive.COLLECTION)) {
+            for (DowntimeEvent downtime : mongoTemplate.find(query, DowntimeEvent.class, collection)) {
+                for (PendingOutboxChange change : List.copyOf(downtime.getOutboxPending())) {
+                    if (change.getCreatedAt() != null && change.getCreatedAt().isBefore(before)) {
+                        recover(change, downtime, collection);
+                        recovered++;
+                    }
+                }
+            }
+        }
+        return recovered;
+    }
+
+    private void recover(PendingOutboxChange change, DowntimeEvent downtime, String collection) {
+        log.warn("Outbox: {} простоя {} от {} не записан - дописываем",
+                change.getType(), downtime.getId(), change.getCreatedAt());
+        insert(change, downtime);
+        if (change.getType() != ChangeType.DELETED) {
+            clear(change, downtime);
+            return;
+        }
+        // Удаление прервалось после отметки - доводим его, как DowntimeService.deleteDowntime
+        Query marked = new Query(Criteria.where("_id").is(downtime.getId()).and("outboxPending.changeId").is(change.getChangeId()));
+        if (mongoTemplate.remove(marked, collection).getDeletedCount() > 0) {
+            mongoTemplate.remove(byId(downtime.getId()), DowntimeArchive.COLLECTION);
+            eventPublisher.publishEvent(new DowntimeChangedEvent(ChangeType.DELETED, snapshot(downtime)));
+        }
+    }
+
+    // Повтор того же изменения (сборщиком или после ответа, потерянного по сети) отбрасывает уникальный changeId
+    private void insert(PendingOutboxChange change, DowntimeEvent downtime) {
+        OutboxEntry entry = OutboxEntry.builder()
+                .seq(sequenceGenerator.generateSequence(OutboxEntry.SEQUENCE_NAME))
+                .type(change.getType())
+                .changeId(change.getChangeId())
+                .downtimeId(downtime.getId())
+                .equipmentId(downtime.getEquipmentId())
+                .downtime(snapshot(downtime))
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            mongoTemplate.insert(entry);
+            log.debug("Outbox: {} простоя {} -> #{}", entry.getType(), entry.getDowntimeId(), entry.getSeq());
+        } catch (DuplicateKeyException e) {
+            log.debug("Outbox: {} простоя {} уже записан", entry.getType(), entry.getDowntimeId());
+        }
+    }
+
+    // Отметка снимается и с объекта: он мог попасть в кэш простоев и уйти в следующее сохранение
+    private void clear(PendingOutboxChange change, DowntimeEvent downtime) {
+        if (downtime.getOutboxPending() != null) {
+            downtime.getOutboxPending().removeIf(pending -> change.getChangeId().equals(pending.getChangeId()));
+        }
+        Update pull = new Update().pull("outboxPending", new Document("changeId", change.getChangeId()));
+        try {
+            // Простой мог успеть уйти в архив вместе с отметкой
+            if (mongoTemplate.updateFirst(byId(downtime.getId()), pull, DowntimeEvent.class).getModifiedCount() == 0) {
+                mongoTemplate.updateFirst(byId(downtime.getId()), pull, DowntimeArchive.COLLECTION);
+            }
+        } catch (DataAccessException e) {
+            // Запись outbox уже есть; оставшуюся отметку сборщик снимет, повтор отбросит changeId
+            log.warn("Не удалось снять отметку outbox простоя {}: {}", downtime.getId(), e.getMessage());
+        }
+    }
+
+    private static DowntimeEvent snapshot(DowntimeEvent downtime) {
+        return downtime.toBuilder().outboxPending(null).build();
+    }
+
+    private static Query byId(Long downtimeId) {
+        return new Query(Criteria.where("_id").is(downtimeId));
+    }
+
+    private static boolean pause(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ========== ЧТЕНИЕ ==========
+
+    /**
+     * Записи с номером больше since по возрастанию, не больше limit, без пропусков номеров
+     * моложе gap-timeout - курсор потребителя не перескочит запись, которая еще вставляется.
+     */
+    public List<OutboxEntry> readAfter(long since, int limit) {
+        Query query = new Query(Criteria.where("_id").gt(since))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        List<OutboxEntry> entries = mongoTemplate.find(query, OutboxEntry.class);
+
+        LocalDateTime settled = LocalDateTime.now().minus(gapTimeout);
+        List<OutboxEntry> visible = new ArrayList<>(entries.size());
+        long expected = since + 1;
+        for (OutboxEntry entry : entries) {
+            if (entry.getSeq() != expected && entry.getCreatedAt() != null && entry.getCreatedAt().isAfter(settled)) {
+                break;
+            }
+            visible.add(entry);
+            expected = entry.getSeq() + 1;
+        }
+        return visible;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.downtime.service;
+
+import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.model.DowntimeStatus;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц списка простоев по нормализованному фильтру и версии данных (DataVersionService).
+ * Одинаковые одновременные запросы объединяются: загрузка выполняется один раз,
+ * остальные ждут тот же CompletableFuture. Ошибочная загрузка в кэше не остается.
+ */
+@Component
+@RequiredArgsConstructor
+public class DowntimeQueryCache {
+
+    private static final String CACHE_NAME = "downtime.query";
+
+    private final DataVersionService dataVersionService;
+    private final MeterRegistry meterRegistry;
+
+    // Загрузки блокируются на Mongo - виртуальные потоки вместо общего ForkJoinPool
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${downtime.cache.query.max-size:1000}")
+    private long maxSize;
+
+    @Value("${downtime.cache.query.ttl:60s}")
+    private Duration ttl;
+
+    private AsyncCache<FilterKey, Page<DowntimeResponse>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Page<DowntimeResponse> getPage(String equipmentId, DowntimeStatus status, String operator,
+                                          LocalDate dateFrom, int page, int size, Sort sort,
+                                          Supplier<Page<DowntimeResponse>> loader) {
+        FilterKey key = new FilterKey(dataVersionService.currentVersion(),
+                normalize(equipmentId), status, normalize(operator), dateFrom, page, size, sort);
+        try {
+            return cache.get(key, k -> loader.get()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private record FilterKey(long version, String equipmentId, DowntimeStatus status, String operator,
+                             LocalDate dateFrom, int page, int size, Sort sort) {
+    }
+}
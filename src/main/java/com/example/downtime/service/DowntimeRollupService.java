@@ -0,0 +1,455 @@
+package com.example.downtime.service;
+
+import com.example.downtime.config.MongoConfig;
+import com.example.downtime.dto.RollupBucketDto;
+import com.example.downtime.dto.RollupSummaryDto;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeRollup;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.RollupGranularity;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Конвейер предагрегации простоев по часам, сменам и суткам (коллекция downtime_rollups).
+ * Живые записи обновляют корзины инкрементально, перестроение восстанавливает их по сырым событиям,
+ * а запросы читают самую крупную гранулярность, покрывающую период, - стоимость O(корзин).
+ * Длительность и activeAtStart в корзинах - по закрытым простоям; еще не закрытые
+ * добавляются к activeAtStart при запросе (их немного, читаются из downtime_events).
+ */
+@Slf4j
+@Service
+@Timed("downtime.service")
+@RequiredArgsConstructor
+public class DowntimeRollupService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // Перестроение пишет сюда, затем коллекция переименовывается поверх downtime_rollups
+    private static final String REBUILD_COLLECTION = "downtime_rollups_rebuild";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Запросы корзин для отчетов и дашборда - с secondary; перестроение и инкременты - через primary
+    @Qualifier(MongoConfig.ANALYTICS_TEMPLATE)
+    private final MongoTemplate analyticsTemplate;
+
+    // Часы начала смен, например "0,8,16" - три смены по 8 часов
+    @Value("${downtime.rollups.shift-start-hours:0,8,16}")
+    private int[] shiftStartHours;
+
+    @Value("${downtime.rollups.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @PostConstruct
+    public void init() {
+        shiftStartHours = Arrays.stream(shiftStartHours).distinct().sorted().toArray();
+        if (shiftStartHours.length == 0 || shiftStartHours[0] < 0 || shiftStartHours[shiftStartHours.length - 1] > 23) {
+            throw new IllegalStateException("Некорректные часы начала смен: " + Arrays.toString(shiftStartHours));
+        }
+    }
+
+    // ========== ИНКРЕМЕНТАЛЬНОЕ ОБНОВЛЕНИЕ ==========
+
+    // После фиксации транзакции: $inc общих корзин внутри нее конфликтовал бы у параллельных записей
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        DowntimeEvent event = change.downtime();
+        if (event == null || event.getStartTime() == null || event.getEquipmentId() == null) {
+            return;
+        }
+
+        try {
+            Map<RollupGranularity, BulkOperations> bulks = new EnumMap<>(RollupGranularity.class);
+            contribute(event, change.type(), (granularity, bucketStart, field, delta) -> {
+                Query query = new Query(Criteria.where("granularity").is(granularity)
+                        .and("equipmentId").is(event.getEquipmentId())
+                        .and("bucketStart").is(bucketStart));
+                Update update = new Update()
+                        .inc(field, delta)
+                        .setOnInsert("equipmentName", event.getEquipmentName());
+                bulks.computeIfAbsent(granularity, g ->
+                                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DowntimeRollup.class))
+                        .upsert(query, update);
+            });
+            bulks.values().forEach(BulkOperations::execute);
+        } catch (Exception e) {
+            // Ошибка агрегата не должна ломать операцию оператора, корзины можно перестроить
+            log.error("Ошибка обновления временных агрегатов для простоя {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Раскладывает изменение простоя на приращения полей корзин всех гранулярностей.
+     */
+    void contribute(DowntimeEvent event, ChangeType type, ContributionSink sink) {
+        int photos = event.getPhotoUrls() != null ? event.getPhotoUrls().size() : 0;
+        boolean resolved = event.getStatus() == DowntimeStatus.RESOLVED;
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime startBucket = bucketStart(granularity, event.getStartTime());
+            switch (type) {
+                case CREATED -> sink.accept(granularity, startBucket, "count", 1);
+                case PHOTO_ADDED -> sink.accept(granularity, startBucket, "photoCount", 1);
+                case RESOLVED -> {
+                    sink.accept(granularity, startBucket, "resolvedCount", 1);
+                    contributeDuration(event, granularity, 1, sink);
+                }
+                case DELETED -> {
+                    sink.accept(granularity, startBucket, "count", -1);
+                    if (photos > 0) {
+                        sink.accept(granularity, startBucket, "photoCount", -photos);
+                    }
+                    if (resolved) {
+                        sink.accept(granularity, startBucket, "resolvedCount", -1);
+                        contributeDuration(event, granularity, -1, sink);
+                    }
+                }
+            }
+        }
+    }
+
+    // Длительность делится между корзинами пропорционально пересечению с интервалом простоя
+    private void contributeDuration(DowntimeEvent event, RollupGranularity granularity, int sign,
+                                    ContributionSink sink) {
+        LocalDateTime start = event.getStartTime();
+        LocalDateTime end = event.getEndTime();
+        if (end == null || !end.isAfter(start)) {
+            return;
+        }
+
+        LocalDateTime bucket = bucketStart(granularity, start);
+        while (bucket.isBefore(end)) {
+            LocalDateTime next = nextBucketStart(granularity, bucket);
+            LocalDateTime overlapStart = start.isAfter(bucket) ? start : bucket;
+            LocalDateTime overlapEnd = end.isBefore(next) ? end : next;
+            long seconds = Duration.between(overlapStart, overlapEnd).getSeconds();
+            if (seconds > 0) {
+                sink.accept(granularity, bucket, "durationSeconds", sign * seconds);
+            }
+            if (bucket.isAfter(start)) {
+                sink.accept(granularity, bucket, "activeAtStart", sign);
+            }
+            bucket = next;
+        }
+    }
+
+    // ========== ЗАПРОСЫ ==========
+
+    /**
+     * Корзины за период. Гранулярность - самая крупная, границы которой совпадают с границами периода;
+     * невыровненный период расширяется до целых часов.
+     */
+    public RollupSummaryDto getRollups(String equipmentId, LocalDateTime from, LocalDateTime to) {
+        RollupGranularity granularity = chooseGranularity(from, to);
+        LocalDateTime alignedFrom = bucketStart(granularity, from);
+        LocalDateTime alignedTo = to.equals(bucketStart(granularity, to))
+                ? to : nextBucketStart(granularity, bucketStart(granularity, to));
+
+        Criteria criteria = Criteria.where("granularity").is(granularity)
+                .and("bucketStart").gte(alignedFrom).lt(alignedTo);
+        if (equipmentId != null && !equipmentId.trim().isEmpty()) {
+            criteria.and("equipmentId").is(equipmentId.trim());
+        }
+
+        TypedAggregation<DowntimeRollup> aggregation = Aggregation.newAggregation(DowntimeRollup.class,
+                Aggregation.match(criteria),
+                Aggregation.group("bucketStart")
+                        .sum("count").as("count")
+                        .sum("resolvedCount").as("resolvedCount")
+                        .sum("durationSeconds").as("durationSeconds")
+                        .sum("activeAtStart").as("activeAtStart")
+                        .sum("photoCount").as("photoCount"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+
+        TreeMap<LocalDateTime, RollupBucketDto> buckets = new TreeMap<>();
+        long totalCount = 0;
+        long totalResolved = 0;
+        long totalSeconds = 0;
+        long totalPhotos = 0;
+        for (Document doc : analyticsTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            long durationSeconds = longValue(doc, "durationSeconds");
+            RollupBucketDto bucket = RollupBucketDto.builder()
+                    .bucketStart(toLocalDateTime(doc.get("_id")))
+                    .count(longValue(doc, "count"))
+                    .resolvedCount(longValue(doc, "resolvedCount"))
+                    .totalMinutes(durationSeconds / 60)
+                    .activeAtStart(longValue(doc, "activeAtStart"))
+                    .photoCount(longValue(doc, "photoCount"))
+                    .build();
+            buckets.put(bucket.getBucketStart(), bucket);
+            totalCount += bucket.getCount();
+            totalResolved += bucket.getResolvedCount();
+            totalSeconds += durationSeconds;
+            totalPhotos += bucket.getPhotoCount();
+        }
+        addOpenDowntimes(buckets, granularity, equipmentId, alignedFrom, alignedTo);
+
+        return RollupSummaryDto.builder()
+                .equipmentId(equipmentId)
+                .granularity(granularity)
+                .from(alignedFrom)
+                .to(alignedTo)
+                .totalCount(totalCount)
+                .totalResolved(totalResolved)
+                .totalMinutes(totalSeconds / 60)
+                .totalPhotos(totalPhotos)
+                .buckets(new ArrayList<>(buckets.values()))
+                .build();
+    }
+
+    /**
+     * activeAtStart для еще не закрытых простоев: инкременты пишут его только при закрытии,
+     * поэтому открытые интервалы досчитываются до текущего момента по активным простоям.
+     */
+    private void addOpenDowntimes(TreeMap<LocalDateTime, RollupBucketDto> buckets, RollupGranularity granularity,
+                                  String equipmentId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = to.isBefore(now) ? to : now;
+        Criteria criteria = Criteria.where("status").is(DowntimeStatus.ACTIVE).and("startTime").lt(until);
+        if (equipmentId != null && !equipmentId.trim().isEmpty()) {
+            criteria.and("equipmentId").is(equipmentId.trim());
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "startTime"));
+        query.fields().include("startTime");
+        List<DowntimeEvent> open = analyticsTemplate.find(query, DowntimeEvent.class);
+        if (open.isEmpty()) {
+            return;
+        }
+
+        // Простои отсортированы по началу: на границе корзины активны все, начавшиеся раньше нее
+        int started = 0;
+        for (LocalDateTime bucket = from; !bucket.isAfter(until) && bucket.isBefore(to);
+             bucket = nextBucketStart(granularity, bucket)) {
+            while (started < open.size() && open.get(started).getStartTime().isBefore(bucket)) {
+                started++;
+            }
+            if (started == 0) {
+                continue;
+            }
+            RollupBucketDto dto = buckets.computeIfAbsent(bucket,
+                    start -> RollupBucketDto.builder().bucketStart(start).build());
+            dto.setActiveAtStart(dto.getActiveAtStart() + started);
+        }
+    }
+
+    /**
+     * Количество простоев, начавшихся в указанные сутки (по суточным корзинам).
+     */
+    public long countStartedOn(LocalDate day) {
+        return getRollups(null, day.atStartOfDay(), day.plusDays(1).atStartOfDay()).getTotalCount();
+    }
+
+    /**
+     * Суммарная длительность (сек) и количество закрытых простоев за все время по суточным корзинам.
+     */
+    public long[] getResolvedTotals() {
+        TypedAggregation<DowntimeRollup> aggregation = Aggregation.newAggregation(DowntimeRollup.class,
+                Aggregation.match(Criteria.where("granularity").is(RollupGranularity.DAY)),
+                Aggregation.group()
+                        .sum("durationSeconds").as("durationSeconds")
+                        .sum("resolvedCount").as("resolvedCount"));
+
+        Document totals = analyticsTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (totals == null) {
+            return new long[]{0, 0};
+        }
+        return new long[]{longValue(totals, "durationSeconds"), longValue(totals, "resolvedCount")};
+    }
+
+    RollupGranularity chooseGranularity(LocalDateTime from, LocalDateTime to) {
+        if (from.equals(bucketStart(RollupGranularity.DAY, from)) && to.equals(bucketStart(RollupGranularity.DAY, to))) {
+            return RollupGranularity.DAY;
+        }
+        if (from.equals(bucketStart(RollupGranularity.SHIFT, from)) && to.equals(bucketStart(RollupGranularity.SHIFT, to))) {
+            return RollupGranularity.SHIFT;
+        }
+        return RollupGranularity.HOUR;
+    }
+
+    // ========== ПЕРЕСТРОЕНИЕ ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (!mongoTemplate.exists(new Query(), DowntimeRollup.class)
+                    && mongoTemplate.exists(new Query(), DowntimeEvent.class)) {
+                log.info("Временные агрегаты отсутствуют - запускаем перестроение");
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Ошибка перестроения временных агрегатов при старте: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Полное перестроение корзин по сырым событиям, включая архив. Память - O(корзин), события читаются курсором.
+     * Корзины пишутся во временную коллекцию, которая затем атомарно переименовывается поверх
+     * downtime_rollups: читатели видят старые или новые корзины, но не пустые.
+     * Инкременты, пришедшие между чтением событий и переименованием, теряются - запускать в спокойное время.
+     */
+    public long rebuild() {
+        log.info("Перестроение временных агрегатов простоев...");
+        Map<String, DowntimeRollup> rollups = new HashMap<>();
+
+        Query query = new Query();
+        query.fields().include("equipmentId", "equipmentName", "startTime", "endTime", "status", "photoUrls");
+
+        try (Stream<DowntimeEvent> events = DowntimeArchive.streamAll(mongoTemplate, query)) {
+            events.filter(event -> event.getStartTime() != null && event.getEquipmentId() != null)
+                    .forEach(event -> {
+                        ContributionSink sink = (granularity, bucketStart, field, delta) -> {
+                            DowntimeRollup rollup = rollups.computeIfAbsent(
+                                    granularity + "|" + event.getEquipmentId() + "|" + bucketStart,
+                                    key -> DowntimeRollup.builder()
+                                            .granularity(granularity)
+                                            .equipmentId(event.getEquipmentId())
+                                            .equipmentName(event.getEquipmentName())
+                                            .bucketStart(bucketStart)
+                                            .build());
+                            applyDelta(rollup, field, delta);
+                        };
+                        contribute(event, ChangeType.CREATED, sink);
+                        int photos = event.getPhotoUrls() != null ? event.getPhotoUrls().size() : 0;
+                        for (int i = 0; i < photos; i++) {
+                            contribute(event, ChangeType.PHOTO_ADDED, sink);
+                        }
+                        if (event.getStatus() == DowntimeStatus.RESOLVED) {
+                            contribute(event, ChangeType.RESOLVED, sink);
+                        }
+                    });
+        }
+
+        // Остаток прерванного перестроения
+        mongoTemplate.dropCollection(REBUILD_COLLECTION);
+        IndexOperations indexOps = mongoTemplate.indexOps(REBUILD_COLLECTION);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(DowntimeRollup.class)
+                .forEach(indexOps::ensureIndex);
+
+        List<DowntimeRollup> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        for (DowntimeRollup rollup : rollups.values()) {
+            batch.add(rollup);
+            if (batch.size() == REBUILD_BATCH_SIZE) {
+                insertBatch(batch);
+            }
+        }
+        insertBatch(batch);
+
+        String liveCollection = mongoTemplate.getCollectionName(DowntimeRollup.class);
+        mongoTemplate.getCollection(REBUILD_COLLECTION).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), liveCollection),
+                new RenameCollectionOptions().dropTarget(true));
+
+        log.info("Временные агрегаты перестроены: {} корзин", rollups.size());
+        return rollups.size();
+    }
+
+    private void insertBatch(List<DowntimeRollup> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DowntimeRollup.class, REBUILD_COLLECTION)
+                .insert(batch)
+                .execute();
+        batch.clear();
+    }
+
+    private static void applyDelta(DowntimeRollup rollup, String field, long delta) {
+        switch (field) {
+            case "count" -> rollup.setCount(rollup.getCount() + delta);
+            case "resolvedCount" -> rollup.setResolvedCount(rollup.getResolvedCount() + delta);
+            case "durationSeconds" -> rollup.setDurationSeconds(rollup.getDurationSeconds() + delta);
+            case "activeAtStart" -> rollup.setActiveAtStart(rollup.getActiveAtStart() + delta);
+            case "photoCount" -> rollup.setPhotoCount(rollup.getPhotoCount() + delta);
+            default -> throw new IllegalArgumentException("Неизвестное поле агрегата: " + field);
+        }
+    }
+
+    // ========== ГРАНИЦЫ КОРЗИН ==========
+
+    LocalDateTime bucketStart(RollupGranularity granularity, LocalDateTime time) {
+        return switch (granularity) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.toLocalDate().atStartOfDay();
+            case SHIFT -> {
+                int hour = time.getHour();
+                for (int i = shiftStartHours.length - 1; i >= 0; i--) {
+                    if (shiftStartHours[i] <= hour) {
+                        yield time.toLocalDate().atTime(shiftStartHours[i], 0);
+                    }
+                }
+                // До первой смены суток - продолжается последняя смена предыдущего дня
+                yield time.toLocalDate().minusDays(1).atTime(shiftStartHours[shiftStartHours.length - 1], 0);
+            }
+        };
+    }
+
+    LocalDateTime nextBucketStart(RollupGranularity granularity, LocalDateTime bucketStart) {
+        return switch (granularity) {
+            case HOUR -> bucketStart.plusHours(1);
+            case DAY -> bucketStart.plusDays(1);
+            case SHIFT -> {
+                int hour = bucketStart.getHour();
+                for (int shiftStart : shiftStartHours) {
+                    if (shiftStart > hour) {
+                        yield bucketStart.toLocalDate().atTime(shiftStart, 0);
+                    }
+                }
+                yield bucketStart.toLocalDate().plusDays(1).atTime(shiftStartHours[0], 0);
+            }
+        };
+    }
+
+    private static long longValue(Document doc, String field) {
+        Object value = doc.get(field);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        }
+        return value instanceof LocalDateTime localDateTime ? localDateTime : null;
+    }
+
+    @FunctionalInterface
+    interface ContributionSink {
+        void accept(RollupGranularity granularity, LocalDateTime bucketStart, String field, long delta);
+    }
+}
@@ -1,17 +1,31 @@
 package com.example.downtime.service;
 
+import com.example.downtime.config.MongoConfig;
+import com.example.downtime.dto.DowntimeListPageDto;
 import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
 import com.example.downtime.model.DowntimeEvent;
 import com.example.downtime.model.DowntimeRequest;
 import com.example.downtime.model.DowntimeResponse;
 import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.PendingOutboxChange;
 import com.example.downtime.repository.DowntimeRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -22,15 +36,39 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
+@Timed("downtime.service")
 @RequiredArgsConstructor
 public class DowntimeService {
 
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    // Поля, которые выводит страница списка простоев
+    private static final String[] LIST_PAGE_FIELDS = {
+            "status", "equipmentId", "equipmentName", "operatorId", "operatorName",
+            "startTime", "endTime", "reason", "comment", "photoUrls"
+    };
+
+    // Порядок listQuery - для слияния горячей коллекции с архивом
+    private static final Comparator<DowntimeEvent> LIST_ORDER = Comparator
+            .comparing(DowntimeEvent::getStartTime, Comparator.<LocalDateTime>nullsLast(Comparator.reverseOrder()))
+            .thenComparing(DowntimeEvent::getId, Comparator.<Long>nullsLast(Comparator.reverseOrder()));
+
     private final DowntimeRepository downtimeRepository;
     private final MongoTemplate mongoTemplate;
+    // Отчетные чтения (статистика, счетчики дашборда) - с secondary, см. MongoConfig
+    @Qualifier(MongoConfig.ANALYTICS_TEMPLATE)
+    private final MongoTemplate analyticsTemplate;
     private final SequenceGeneratorService sequenceGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DowntimeRollupService rollupService;
+    private final EquipmentCatalogService equipmentCatalog;
+    private final DowntimeEntityCache entityCache;
+    private final DowntimeQueryCache queryCache;
+    private final DowntimeOutboxService outboxService;
 
     // ========== СОЗДАНИЕ ПРОСТОЯ ==========
 
@@ -58,11 +96,13 @@ public class DowntimeService {
 
         log.info("Событие создано (до сохранения): {}", event);
 
-        // Сохраняем - ID сгенерируется автоматически в Listener
+        // Сохраняем - ID сгенерируется автоматически в Listener; отметка outbox пишется тем же insert
+        PendingOutboxChange change = outboxService.pending(ChangeType.CREATED, event);
         DowntimeEvent saved = downtimeRepository.save(event);
         log.info("Событие сохранено в БД: {}", saved);
         log.info("ID сохраненного события: {}", saved.getId());
 
+        publishChange(change, saved);
         return mapToResponse(saved);
     }
 
@@ -74,8 +114,8 @@ public class DowntimeService {
 
     public DowntimeResponse getDowntime(Long id) {
         log.debug("Получение простоя по ID (Long): {}", id);
-        DowntimeEvent event = findEventById(id);
-        return mapToResponse(event);
+        // Только чтение - отображаем кэшированный объект без копирования
+        return mapToResponse(cachedEventById(id));
     }
 
     public List<DowntimeEvent> getEventsByOperatorSorted(String operatorId) {
@@ -96,29 +136,95 @@ public class DowntimeService {
     // ========== ПОИСК И ФИЛЬТРАЦИЯ ==========
 
     public List<DowntimeResponse> getDowntimesByEquipment(String equipmentId) {
-        log.debug("Получение простоев для оборудования: {}", equipmentId);
-        return downtimeRepository.findByEquipmentId(equipmentId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return getDowntimesByEquipment(equipmentId, Pageable.unpaged());
+    }
+
+    public List<DowntimeResponse> getDowntimesByEquipment(String equipmentId, Pageable pageable) {
+        log.debug("Получение простоев для оборудования: {}, {}", equipmentId, pageable);
+        return findHistoryResponses(Criteria.where("equipmentId").is(equipmentId), pageable);
     }
 
     public List<DowntimeResponse> getActiveDowntimes() {
-        log.debug("Получение активных простоев");
-        return downtimeRepository.findByStatus(DowntimeStatus.ACTIVE)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return getActiveDowntimes(Pageable.unpaged());
+    }
+
+    public List<DowntimeResponse> getActiveDowntimes(Pageable pageable) {
+        log.debug("Получение активных простоев, {}", pageable);
+        return findResponses(Criteria.where("status").is(DowntimeStatus.ACTIVE), pageable);
     }
 
     public List<DowntimeResponse> getDowntimesByOperator(String operatorId) {
-        log.debug("Получение простоев оператора: {}", operatorId);
-        return downtimeRepository.findByOperatorId(operatorId)
+        return getDowntimesByOperator(operatorId, Pageable.unpaged());
+    }
+
+    public List<DowntimeResponse> getDowntimesByOperator(String operatorId, Pageable pageable) {
+        log.debug("Получение простоев оператора: {}, {}", operatorId, pageable);
+        return findHistoryResponses(Criteria.where("operatorId").is(operatorId), pageable);
+    }
+
+    // ========== ПОТОКОВАЯ ВЫДАЧА ==========
+    // Курсор Mongo читается батчами, в памяти одновременно находится не больше одного батча.
+    // Возвращаемый Stream держит курсор открытым - закрывать через try-with-resources.
+    // История по оборудованию и оператору включает архив, активные простои бывают только в горячей коллекции.
+
+    public Stream<DowntimeResponse> streamDowntimesByEquipment(String equipmentId, Pageable pageable) {
+        log.debug("Потоковая выдача простоев оборудования: {}, {}", equipmentId, pageable);
+        return streamHistoryResponses(Criteria.where("equipmentId").is(equipmentId), pageable);
+    }
+
+    public Stream<DowntimeResponse> streamActiveDowntimes(Pageable pageable) {
+        log.debug("Потоковая выдача активных простоев, {}", pageable);
+        return streamResponses(Criteria.where("status").is(DowntimeStatus.ACTIVE), pageable);
+    }
+
+    public Stream<DowntimeResponse> streamDowntimesByOperator(String operatorId, Pageable pageable) {
+        log.debug("Потоковая выдача простоев оператора: {}, {}", operatorId, pageable);
+        return streamHistoryResponses(Criteria.where("operatorId").is(operatorId), pageable);
+    }
+
+    private List<DowntimeResponse> findResponses(Criteria criteria, Pageable pageable) {
+        return mongoTemplate.find(listQuery(criteria, pageable), DowntimeEvent.class)
                 .stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    private Stream<DowntimeResponse> streamResponses(Criteria criteria, Pageable pageable) {
+        Query query = listQuery(criteria, pageable);
+        query.cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, DowntimeEvent.class).map(this::mapToResponse);
+    }
+
+    private List<DowntimeResponse> findHistoryResponses(Criteria criteria, Pageable pageable) {
+        try (Stream<DowntimeResponse> responses = streamHistoryResponses(criteria, pageable)) {
+            return responses.collect(Collectors.toList());
+        }
+    }
+
+    // Каждая коллекция читается до конца страницы (offset + size), страница отсекается после слияния
+    private Stream<DowntimeResponse> streamHistoryResponses(Criteria criteria, Pageable pageable) {
+        Query query = listQuery(criteria, Pageable.unpaged());
+        if (pageable.isPaged()) {
+            query.limit(Math.toIntExact(pageable.getOffset() + pageable.getPageSize()));
+        }
+        query.cursorBatchSize(STREAM_BATCH_SIZE);
+        Stream<DowntimeEvent> events = DowntimeArchive.stream(mongoTemplate, query, LIST_ORDER);
+        if (pageable.isPaged()) {
+            events = events.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return events.map(this::mapToResponse);
+    }
+
+    // Стабильный порядок (новые сверху, при равенстве - по ID), чтобы страницы не пересекались
+    Query listQuery(Criteria criteria, Pageable pageable) {
+        Query query = new Query(criteria);
+        query.with(Sort.by(Sort.Order.desc("startTime"), Sort.Order.desc("_id")));
+        if (pageable.isPaged()) {
+            query.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return query;
+    }
+
     public Page<DowntimeResponse> getFilteredDowntimes(
             String equipmentId,
             DowntimeStatus status,
@@ -129,7 +235,109 @@ public class DowntimeService {
         log.debug("Фильтрация простоев: equipmentId={}, status={}, operator={}, dateFrom={}",
                 equipmentId, status, operator, dateFrom);
 
-        Query query = new Query();
+        // Настройка сортировки и пагинации
+        Pageable sortedPageable = PageRequest.of(
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                pageable.getSortOr(Sort.by(Sort.Direction.DESC, "startTime"))
+        );
+
+        // Одинаковые запросы (одинаковый фильтр и версия данных) выполняются один раз
+        return queryCache.getPage(equipmentId, status, operator, dateFrom,
+                sortedPageable.getPageNumber(), sortedPageable.getPageSize(), sortedPageable.getSort(),
+                () -> loadFilteredDowntimes(equipmentId, status, operator, dateFrom, sortedPageable));
+    }
+
+    private Page<DowntimeResponse> loadFilteredDowntimes(
+            String equipmentId,
+            DowntimeStatus status,
+            String operator,
+            LocalDate dateFrom,
+            Pageable pageable) {
+
+        Query query = new Query(listFilter(equipmentId, status, operator, dateFrom));
+
+        long total = mongoTemplate.count(query, DowntimeEvent.class);
+        query.with(pageable);
+
+        List<DowntimeEvent> events = mongoTemplate.find(query, DowntimeEvent.class);
+        List<DowntimeResponse> responses = events.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(responses, pageable, total);
+    }
+
+    /**
+     * Все данные страницы списка простоев одной командой aggregate с $facet:
+     * страница с проекцией только отображаемых полей, общее количество по фильтру
+     * и сводные счетчики по всей коллекции. Архив подключается через $unionWith - закрытые
+     * простои не пропадают из списка и счетчиков после переноса. Список оборудования берется из справочника.
+     * Ветви $facet не используют индексы, поэтому на больших коллекциях каждая ветвь -
+     * полный проход; результат должен укладываться в 16MB одного документа.
+     */
+    public DowntimeListPageDto getListPageModel(
+            String equipmentId,
+            DowntimeStatus status,
+            String operator,
+            LocalDate dateFrom,
+            Pageable pageable) {
+
+        Criteria filter = listFilter(equipmentId, status, operator, dateFrom);
+        pageable = PageRequest.of(
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                pageable.getSortOr(Sort.by(Sort.Direction.DESC, "startTime"))
+        );
+
+        FacetOperation facet = Aggregation.facet(
+                        Aggregation.match(filter),
+                        Aggregation.sort(pageable.getSort()),
+                        Aggregation.skip(pageable.getOffset()),
+                        Aggregation.limit(pageable.getPageSize()),
+                        Aggregation.project(LIST_PAGE_FIELDS)).as("page")
+                .and(Aggregation.match(filter),
+                        Aggregation.count().as("count")).as("total")
+                .and(Aggregation.match(Criteria.where("status").is(DowntimeStatus.ACTIVE)),
+                        Aggregation.count().as("count")).as("active")
+                .and(Aggregation.match(Criteria.where("startTime").gte(LocalDate.now().atStartOfDay())),
+                        Aggregation.count().as("count")).as("today")
+                .and(Aggregation.match(Criteria.where("status").is(DowntimeStatus.RESOLVED).and("endTime").ne(null)),
+                        Aggregation.group()
+                                .sum(ArithmeticOperators.Subtract.valueOf("endTime").subtract("startTime")).as("durationMs")
+                                .count().as("count")).as("resolved")
+                .and(Aggregation.group()
+                        .sum(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("photoUrls").then(Collections.emptyList()))).as("count"))
+                .as("photos");
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                        UnionWithOperation.unionWith(DowntimeArchive.COLLECTION), facet)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        Document result = mongoTemplate.aggregate(aggregation, DowntimeEvent.class, Document.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            result = new Document();
+        }
+
+        List<DowntimeResponse> responses = facetList(result, "page").stream()
+                .map(doc -> mapToResponse(mongoTemplate.getConverter().read(DowntimeEvent.class, doc)))
+                .collect(Collectors.toList());
+
+        Document resolved = facetFirst(result, "resolved");
+        return DowntimeListPageDto.builder()
+                .downtimes(new PageImpl<>(responses, pageable, facetCount(result, "total")))
+                .equipmentList(equipmentCatalog.getAll())
+                .activeCount(facetCount(result, "active"))
+                .todayCount(facetCount(result, "today"))
+                .avgDuration(formatAverageDuration(
+                        numberValue(resolved, "durationMs") / 1000, numberValue(resolved, "count")))
+                .photosCount(facetCount(result, "photos"))
+                .build();
+    }
+
+    // Фильтр списка простоев: пустые параметры не ограничивают выборку
+    private Criteria listFilter(String equipmentId, DowntimeStatus status, String operator, LocalDate dateFrom) {
         List<Criteria> criteriaList = new ArrayList<>();
 
         if (equipmentId != null && !equipmentId.trim().isEmpty()) {
@@ -148,26 +356,28 @@ public class DowntimeService {
             criteriaList.add(Criteria.where("startTime").gte(dateFrom.atStartOfDay()));
         }
 
-        if (!criteriaList.isEmpty()) {
-            query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
-        }
+        return criteriaList.isEmpty()
+                ? new Criteria()
+                : new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
+    }
 
-        // Настройка сортировки и пагинации
-        pageable = PageRequest.of(
-                pageable.getPageNumber(),
-                pageable.getPageSize(),
-                pageable.getSortOr(Sort.by(Sort.Direction.DESC, "startTime"))
-        );
+    private static List<Document> facetList(Document result, String name) {
+        List<Document> list = result.getList(name, Document.class);
+        return list != null ? list : Collections.emptyList();
+    }
 
-        long total = mongoTemplate.count(query, DowntimeEvent.class);
-        query.with(pageable);
+    private static Document facetFirst(Document result, String name) {
+        List<Document> list = facetList(result, name);
+        return list.isEmpty() ? null : list.get(0);
+    }
 
-        List<DowntimeEvent> events = mongoTemplate.find(query, DowntimeEvent.class);
-        List<DowntimeResponse> responses = events.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    private static long facetCount(Document result, String name) {
+        return numberValue(facetFirst(result, name), "count");
+    }
 
-        return new PageImpl<>(responses, pageable, total);
+    private static long numberValue(Document doc, String field) {
+        Object value = doc != null ? doc.get(field) : null;
+        return value instanceof Number number ? number.longValue() : 0L;
     }
 
     // ========== ОПЕРАЦИИ С ФОТО ==========
@@ -184,8 +394,10 @@ public class DowntimeService {
         if (!event.getPhotoUrls().contains(photoUrl)) {
             event.getPhotoUrls().add(photoUrl);
             event.setUpdatedAt(LocalDateTime.now());
+            PendingOutboxChange change = outboxService.pending(ChangeType.PHOTO_ADDED, event);
             DowntimeEvent updated = downtimeRepository.save(event);
             log.info("Фото добавлено к простою: {}", downtimeId);
+            publishChange(change, updated);
             return mapToResponse(updated);
         } else {
             log.warn("Фото уже существует для простоя: {}", downtimeId);
@@ -232,8 +444,10 @@ public class DowntimeService {
             event.setComment(commentBuilder.toString());
         }
 
+        PendingOutboxChange change = outboxService.pending(ChangeType.RESOLVED, event);
         DowntimeEvent updated = downtimeRepository.save(event);
         log.info("Простой {} закрыт", id);
+        publishChange(change, updated);
         return mapToResponse(updated);
     }
 
@@ -250,116 +464,55 @@ public class DowntimeService {
     // ========== СТАТИСТИКА И АНАЛИТИКА ==========
 
     public long countByStatus(DowntimeStatus status) {
-        return downtimeRepository.countByStatus(status);
+        long hot = downtimeRepository.countByStatus(status);
+        // Активные простои в архив не переносятся
+        if (status == DowntimeStatus.ACTIVE) {
+            return hot;
+        }
+        return hot + DowntimeArchive.count(mongoTemplate, new Query(Criteria.where("status").is(status)));
     }
 
+    // Считается по суточным агрегатам downtime_rollups, а не по сырым событиям
     public long countToday() {
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfDay = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-        List<DowntimeEvent> todayEvents = downtimeRepository.findByStartTimeBetween(startOfDay, endOfDay);
-        return todayEvents.size();
+        return rollupService.countStartedOn(LocalDate.now());
     }
 
     public String getAverageDuration() {
-        List<DowntimeEvent> resolvedEvents = downtimeRepository.findByStatus(DowntimeStatus.RESOLVED);
-
-        if (resolvedEvents.isEmpty()) {
-            return "0ч 0м";
-        }
+        long[] totals = rollupService.getResolvedTotals();
+        return formatAverageDuration(totals[0], totals[1]);
+    }
 
-        long totalMinutes = resolvedEvents.stream()
-                .filter(event -> event.getEndTime() != null)
-                .mapToLong(event -> ChronoUnit.MINUTES.between(event.getStartTime(), event.getEndTime()))
-                .sum();
+    private static String formatAverageDuration(long totalSeconds, long resolvedCount) {
+        long totalMinutes = totalSeconds / 60;
 
-        if (totalMinutes == 0) {
+        if (resolvedCount <= 0 || totalMinutes <= 0) {
             return "0ч 0м";
         }
 
-        long avgMinutes = totalMinutes / resolvedEvents.size();
+        long avgMinutes = totalMinutes / resolvedCount;
         long hours = avgMinutes / 60;
         long minutes = avgMinutes % 60;
 
         return String.format("%dч %02dм", hours, minutes);
     }
 
+    // Сумма считается на сервере по обеим коллекциям - документы не читаются в приложение
     public long countTotalPhotos() {
-        List<DowntimeEvent> allEvents = downtimeRepository.findAll();
-        return allEvents.stream()
-                .filter(event -> event.getPhotoUrls() != null)
-                .mapToInt(event -> event.getPhotoUrls().size())
-                .sum();
+        Aggregation aggregation = Aggregation.newAggregation(
+                UnionWithOperation.unionWith(DowntimeArchive.COLLECTION),
+                Aggregation.group()
+                        .sum(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("photoUrls").then(Collections.emptyList()))).as("count"));
+        Document result = analyticsTemplate.aggregate(aggregation, DowntimeEvent.class, Document.class)
+                .getUniqueMappedResult();
+        return numberValue(result, "count");
     }
 
+    // Справочник в памяти - без обращения к базе
     public List<EquipmentDto> getAllEquipment() {
-        try {
-            Aggregation aggregation = Aggregation.newAggregation(
-                    Aggregation.group("equipmentId", "equipmentName"),
-                    Aggregation.sort(Sort.Direction.ASC, "equipmentId")
-            );
-
-            AggregationResults<Map> results = mongoTemplate.aggregate(
-                    aggregation, "downtime_events", Map.class);
-
-            List<EquipmentDto> equipmentList = new ArrayList<>();
-
-            for (Map<?, ?> item : results.getMappedResults()) {
-                try {
-                    Map<?, ?> idMap = (Map<?, ?>) item.get("_id");
-                    if (idMap == null) {
-                        continue;  // Пропускаем, а не возвращаем null
-                    }
-
-                    String equipmentId = String.valueOf(idMap.get("equipmentId"));
-                    String equipmentName = String.valueOf(idMap.get("equipmentName"));
-
-                    // Проверка на валидные значения
-                    if ("null".equals(equipmentId) || "null".equals(equipmentName) ||
-                            equipmentId.isEmpty() || equipmentName.isEmpty()) {
-                        continue;  // Пропускаем
-                    }
-
-                    equipmentList.add(new EquipmentDto(equipmentId, equipmentName));
-                } catch (Exception e) {
-                    log.warn("Ошибка при преобразовании агрегации оборудования: {}", e.getMessage());
-                    // Продолжаем обработку остальных записей
-                }
-            }
-
-            // Если через агрегацию ничего не получили, используем fallback
-            if (equipmentList.isEmpty()) {
-                return getEquipmentFallback();
-            }
-
-            return equipmentList;
-
-        } catch (Exception e) {
-            log.warn("Ошибка при агрегации оборудования: {}, используем fallback метод", e.getMessage());
-            return getEquipmentFallback();
-        }
-    }
-
-    private List<EquipmentDto> getEquipmentFallback() {
-        try {
-            List<EquipmentDto> result = downtimeRepository.findAll().stream()
-                    .filter(event -> event.getEquipmentId() != null &&
-                            event.getEquipmentName() != null &&
-                            !event.getEquipmentId().trim().isEmpty() &&
-                            !event.getEquipmentName().trim().isEmpty())
-                    .map(event -> new EquipmentDto(event.getEquipmentId(), event.getEquipmentName()))
-                    .distinct()  // Убираем дубликаты
-                    .sorted(Comparator.comparing(EquipmentDto::getEquipmentId))
-                    .collect(Collectors.toList());
-
-            log.info("Fallback метод вернул {} записей оборудования", result.size());
-            return result;
-        } catch (Exception e) {
-            log.error("Ошибка в fallback методе получения оборудования: {}", e.getMessage());
-            return Collections.emptyList();  // Возвращаем пустой список, а не null
-        }
+        return equipmentCatalog.getAll();
     }
 
-
     // ========== ДОПОЛНИТЕЛЬНЫЕ МЕТОДЫ ==========
 
     public boolean hasActiveDowntime(String equipmentId) {
@@ -371,30 +524,32 @@ public class DowntimeService {
         LocalDateTime start = from.atStartOfDay();
         LocalDateTime end = to.atTime(23, 59, 59);
 
-        List<DowntimeEvent> events = downtimeRepository.findByStartTimeBetween(start, end);
+        // Границы исключаются, как в findByStartTimeBetween; периоды старше resolved-age - в архиве
+        Query query = new Query(Criteria.where("startTime").gt(start).lt(end));
+        query.fields().include("status", "equipmentName", "startTime", "endTime");
+        query.cursorBatchSize(STREAM_BATCH_SIZE);
+
+        long totalEvents = 0;
+        long totalDuration = 0;
+        Map<DowntimeStatus, Long> statusStats = new HashMap<>();
+        Map<String, Long> equipmentStats = new HashMap<>();
+        try (Stream<DowntimeEvent> events = DowntimeArchive.streamAll(analyticsTemplate, query)) {
+            for (Iterator<DowntimeEvent> it = events.iterator(); it.hasNext(); ) {
+                DowntimeEvent event = it.next();
+                totalEvents++;
+                statusStats.merge(event.getStatus(), 1L, Long::sum);
+                equipmentStats.merge(event.getEquipmentName(), 1L, Long::sum);
+                if (event.getEndTime() != null) {
+                    totalDuration += ChronoUnit.MINUTES.between(event.getStartTime(), event.getEndTime());
+                }
+            }
+        }
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("period", from + " - " + to);
-        stats.put("totalEvents", events.size());
-
-        Map<DowntimeStatus, Long> statusStats = events.stream()
-                .collect(Collectors.groupingBy(
-                        DowntimeEvent::getStatus,
-                        Collectors.counting()
-                ));
+        stats.put("totalEvents", totalEvents);
         stats.put("byStatus", statusStats);
-
-        long totalDuration = events.stream()
-                .filter(event -> event.getEndTime() != null)
-                .mapToLong(event -> ChronoUnit.MINUTES.between(event.getStartTime(), event.getEndTime()))
-                .sum();
         stats.put("totalDurationMinutes", totalDuration);
-
-        Map<String, Long> equipmentStats = events.stream()
-                .collect(Collectors.groupingBy(
-                        DowntimeEvent::getEquipmentName,
-                        Collectors.counting()
-                ));
         stats.put("byEquipment", equipmentStats);
 
         return stats;
@@ -403,11 +558,17 @@ public class DowntimeService {
     @Transactional
     public void deleteDowntime(Long id) {
         log.info("Удаление простоя: {}", id);
-        if (!downtimeRepository.existsById(id)) {
-            throw new IllegalArgumentException("Простой не найден: " + id);
-        }
+        DowntimeEvent event = downtimeRepository.findById(id)
+                .or(() -> Optional.ofNullable(DowntimeArchive.findById(mongoTemplate, id)))
+                .orElseThrow(() -> new IllegalArgumentException("Простой не найден: " + id));
+        // Документ исчезнет вместе с отметкой, поэтому запись outbox - до удаления.
+        // Если удаление прервется, отмеченный простой удалит сборщик (DowntimeOutboxService.recoverPending)
+        PendingOutboxChange change = outboxService.markDeleted(id);
+        outboxService.record(change, event);
         downtimeRepository.deleteById(id);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), DowntimeArchive.COLLECTION);
         log.info("Простой {} удален", id);
+        eventPublisher.publishEvent(new DowntimeChangedEvent(ChangeType.DELETED, event));
     }
 
     // Для обратной совместимости
@@ -436,35 +597,29 @@ public class DowntimeService {
 
     // ========== ПРИВАТНЫЕ ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
 
+    // Копия из кэша: вызывающий код может изменять и сохранять ее
     private DowntimeEvent findEventById(Long id) {
-        return downtimeRepository.findById(id)
+        DowntimeEvent cached = cachedEventById(id);
+        return cached.toBuilder()
+                .photoUrls(cached.getPhotoUrls() != null ? new ArrayList<>(cached.getPhotoUrls()) : new ArrayList<>())
+                .build();
+    }
+
+    private DowntimeEvent cachedEventById(Long id) {
+        return entityCache.get(id)
                 .orElseThrow(() -> new IllegalArgumentException("Простой не найден с ID: " + id));
     }
 
-    private DowntimeResponse mapToResponse(DowntimeEvent event) {
-        Long durationMinutes = null;
-        if (event.getEndTime() != null) {
-            durationMinutes = ChronoUnit.MINUTES.between(event.getStartTime(), event.getEndTime());
-        }
+    // Outbox - после слушателей: его ошибка (уже после повторов) доходит до клиента, но не лишает
+    // остальных слушателей события, а изменение не теряется - запись допишет сборщик по отметке.
+    // Второстепенные слушатели ловят свои ошибки сами
+    private void publishChange(PendingOutboxChange change, DowntimeEvent event) {
+        eventPublisher.publishEvent(new DowntimeChangedEvent(change.getType(), event));
+        outboxService.record(change, event);
+    }
 
-        return DowntimeResponse.builder()
-                .id(event.getId()) // Конвертируем Long в String для фронтенда
-                .equipmentId(event.getEquipmentId())
-                .equipmentName(event.getEquipmentName())
-                .operatorId(event.getOperatorId())
-                .operatorName(event.getOperatorName())
-                .startTime(event.getStartTime())
-                .endTime(event.getEndTime())
-                .reason(event.getReason())
-                .comment(event.getComment())
-                .photoUrls(event.getPhotoUrls() != null ?
-                        new ArrayList<>(event.getPhotoUrls()) : new ArrayList<>())
-                .status(event.getStatus())
-                .createdAt(event.getCreatedAt())
-                .updatedAt(event.getUpdatedAt())
-                .durationMinutes(durationMinutes)
-                .withCalculatedFields()
-                .build();
+    private DowntimeResponse mapToResponse(DowntimeEvent event) {
+        return DowntimeResponse.from(event);
     }
 
     private String formatDuration(Long minutes) {
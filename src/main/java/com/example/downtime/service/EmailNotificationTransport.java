@@ -0,0 +1,45 @@
+package com.example.downtime.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+/**
+ * Email через JavaMailSender (spring.mail.*). Без настроенного SMTP получатели уходят следующему транспорту.
+ */
+@Component
+@Order(0)
+public class EmailNotificationTransport implements NotificationTransport {
+
+    private final ObjectProvider<JavaMailSender> mailSender;
+
+    @Value("${downtime.notifications.mail.from:downtime-service@localhost}")
+    private String from;
+
+    public EmailNotificationTransport(ObjectProvider<JavaMailSender> mailSender) {
+        this.mailSender = mailSender;
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public boolean supports(String recipient) {
+        return recipient.contains("@") && mailSender.getIfAvailable() != null;
+    }
+
+    @Override
+    public void send(NotificationMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(from);
+        mail.setTo(message.recipient());
+        mail.setSubject(message.subject());
+        mail.setText(message.body());
+        mailSender.getObject().send(mail);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.event.EquipmentRegisteredEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.Equipment;
+import com.example.downtime.repository.EquipmentRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Справочник оборудования в памяти поверх коллекции equipment.
+ * Читается при старте, дальше пополняется только при создании простоя по новому equipmentId,
+ * поэтому выпадающие списки и монитор не обращаются к базе.
+ * Оборудование, добавленное другим экземпляром приложения, появится здесь после refresh()
+ * (его вызывает heartbeat распределения мониторинга), перезапуска или создания простоя по нему.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EquipmentCatalogService {
+
+    // Начальный справочник для пустой базы
+    private static final List<EquipmentDto> DEFAULT_EQUIPMENT = List.of(
+            new EquipmentDto("EQ001", "Токарный станок ЧПУ"),
+            new EquipmentDto("EQ002", "Фрезерный станок"),
+            new EquipmentDto("EQ003", "Сварочный аппарат"),
+            new EquipmentDto("EQ004", "Пресс-форма"),
+            new EquipmentDto("EQ005", "Конвейерная линия")
+    );
+
+    private final EquipmentRepository equipmentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentHashMap<String, EquipmentDto> catalog = new ConcurrentHashMap<>();
+
+    // Отсортированный неизменяемый снимок, пересобирается только при добавлении оборудования
+    private volatile List<EquipmentDto> snapshot = List.of();
+
+    @PostConstruct
+    public void init() {
+        try {
+            if (equipmentRepository.count() == 0) {
+                seed();
+            }
+            for (Equipment equipment : equipmentRepository.findAll()) {
+                catalog.put(equipment.getEquipmentId(),
+                        new EquipmentDto(equipment.getEquipmentId(), equipment.getEquipmentName()));
+            }
+        } catch (Exception e) {
+            log.error("Ошибка загрузки справочника оборудования: {}", e.getMessage());
+            DEFAULT_EQUIPMENT.forEach(equipment -> catalog.putIfAbsent(equipment.getEquipmentId(), equipment));
+        }
+        rebuildSnapshot();
+        log.info("Справочник оборудования: {} единиц", catalog.size());
+    }
+
+    // ========== ЧТЕНИЕ ==========
+
+    public List<EquipmentDto> getAll() {
+        return snapshot;
+    }
+
+    public EquipmentDto get(String equipmentId) {
+        return equipmentId != null ? catalog.get(equipmentId) : null;
+    }
+
+    // ========== ПОПОЛНЕНИЕ ==========
+
+    // После фиксации: откаченная запись не добавляет оборудование, а upsert вне транзакции не конфликтует
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        if (change.type() != ChangeType.CREATED || change.downtime() == null) {
+            return;
+        }
+        try {
+            register(change.downtime().getEquipmentId(), change.downtime().getEquipmentName());
+        } catch (Exception e) {
+            // Простой уже записан - ошибку не пробрасываем, оборудование добавится при следующем простое
+            log.error("Не удалось добавить оборудование {} в справочник: {}",
+                    change.downtime().getEquipmentId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Добавляет оборудование, если его еще нет. Запись в базу - upsert с $setOnInsert,
+     * поэтому параллельные создания не дублируют и не переименовывают оборудование.
+     */
+    public boolean register(String equipmentId, String equipmentName) {
+        if (isBlank(equipmentId) || isBlank(equipmentName) || catalog.containsKey(equipmentId)) {
+            return false;
+        }
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(equipmentId)),
+                new Update().setOnInsert("equipmentName", equipmentName)
+                        .setOnInsert("createdAt", LocalDateTime.now()),
+                Equipment.class);
+
+        EquipmentDto equipment = new EquipmentDto(equipmentId, equipmentName);
+        if (catalog.putIfAbsent(equipmentId, equipment) != null) {
+            return false;
+        }
+        rebuildSnapshot();
+        log.info("Новое оборудование в справочнике: {} ({})", equipmentId, equipmentName);
+        eventPublisher.publishEvent(new EquipmentRegisteredEvent(equipmentId, equipmentName));
+        return true;
+    }
+
+    /**
+     * Дочитывает оборудование, добавленное в общую коллекцию другими экземплярами,
+     * и возвращает актуальный снимок справочника.
+     */
+    public List<EquipmentDto> refresh() {
+        List<EquipmentDto> added = new ArrayList<>();
+        for (Equipment equipment : equipmentRepository.findAll()) {
+            EquipmentDto dto = new EquipmentDto(equipment.getEquipmentId(), equipment.getEquipmentName());
+            if (catalog.putIfAbsent(dto.getEquipmentId(), dto) == null) {
+                added.add(dto);
+            }
+        }
+        if (!added.isEmpty()) {
+            rebuildSnapshot();
+            log.info("Оборудование из общего справочника: {}", added.size());
+            added.forEach(equipment -> eventPublisher.publishEvent(
+                    new EquipmentRegisteredEvent(equipment.getEquipmentId(), equipment.getEquipmentName())));
+        }
+        return snapshot;
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    // Однократный перенос: начальный справочник плюс оборудование из уже накопленных простоев
+    private void seed() {
+        Map<String, Equipment> seeded = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (EquipmentDto equipment : DEFAULT_EQUIPMENT) {
+            seeded.put(equipment.getEquipmentId(), new Equipment(
+                    equipment.getEquipmentId(), equipment.getEquipmentName(), now));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("equipmentId").first("equipmentName").as("equipmentName"));
+        for (Document item : mongoTemplate.aggregate(aggregation, DowntimeEvent.class, Document.class)) {
+            String equipmentId = item.getString("_id");
+            String equipmentName = item.getString("equipmentName");
+            if (!isBlank(equipmentId) && !isBlank(equipmentName)) {
+                seeded.put(equipmentId, new Equipment(equipmentId, equipmentName, now));
+            }
+        }
+
+        equipmentRepository.saveAll(seeded.values());
+        log.info("Справочник оборудования заполнен: {} единиц", seeded.size());
+    }
+
+    private synchronized void rebuildSnapshot() {
+        List<EquipmentDto> sorted = new ArrayList<>(catalog.values());
+        sorted.sort(Comparator.comparing(EquipmentDto::getEquipmentId));
+        snapshot = Collections.unmodifiableList(sorted);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
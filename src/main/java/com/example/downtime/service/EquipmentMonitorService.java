@@ -1,10 +1,18 @@
 package com.example.downtime.service;
 
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.EquipmentOwnershipChangedEvent;
+import com.example.downtime.event.EquipmentRegisteredEvent;
 import com.example.downtime.model.EquipmentStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -13,128 +21,135 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Имитация работы оборудования. Экземпляр ведет только оборудование, аренда которого у него
+ * (EquipmentOwnershipService); статусы остального читаются из снимков, опубликованных владельцами.
+ */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class EquipmentMonitorService {
 
-    // ConcurrentHashMap для хранения статусов оборудования (потокобезопасная)
+    private final MeterRegistry meterRegistry;
+    private final EquipmentCatalogService equipmentCatalog;
+    private final EquipmentOwnershipService ownership;
+
+    // Статусы оборудования, которое ведет этот экземпляр (потокобезопасная)
     private final ConcurrentHashMap<String, EquipmentStatus> equipmentStatusMap = new ConcurrentHashMap<>();
 
     // Пул потоков для имитации работы оборудования
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(5);
-    private final List<Future<?>> runningTasks = new CopyOnWriteArrayList<>();
+    // Следующая запланированная смена статуса по каждому оборудованию
+    private final ConcurrentHashMap<String, Future<?>> runningTasks = new ConcurrentHashMap<>();
 
     // Счетчик для статистики
     private final AtomicInteger totalStatusChanges = new AtomicInteger(0);
 
-    // Статичный список оборудования
-    private static final List<EquipmentStatus> STATIC_EQUIPMENT_LIST = Arrays.asList(
-            EquipmentStatus.builder()
-                    .equipmentId("EQ001")
-                    .equipmentName("Токарный станок ЧПУ")
-                    .currentStatus(EquipmentStatus.Status.WORKING)
-                    .statusChangedAt(LocalDateTime.now())
-                    .uptimeMinutes(0L)
-                    .downtimeMinutes(0L)
-                    .statusChangesCount(0)
-                    .build(),
-
-            EquipmentStatus.builder()
-                    .equipmentId("EQ002")
-                    .equipmentName("Фрезерный станок")
-                    .currentStatus(EquipmentStatus.Status.WORKING)
-                    .statusChangedAt(LocalDateTime.now())
-                    .uptimeMinutes(0L)
-                    .downtimeMinutes(0L)
-                    .statusChangesCount(0)
-                    .build(),
-
-            EquipmentStatus.builder()
-                    .equipmentId("EQ003")
-                    .equipmentName("Сварочный аппарат")
-                    .currentStatus(EquipmentStatus.Status.DOWNTIME)
-                    .statusChangedAt(LocalDateTime.now())
-                    .uptimeMinutes(0L)
-                    .downtimeMinutes(0L)
-                    .statusChangesCount(0)
-                    .build(),
-
-            EquipmentStatus.builder()
-                    .equipmentId("EQ004")
-                    .equipmentName("Пресс-форма")
-                    .currentStatus(EquipmentStatus.Status.WORKING)
-                    .statusChangedAt(LocalDateTime.now())
-                    .uptimeMinutes(0L)
-                    .downtimeMinutes(0L)
-                    .statusChangesCount(0)
-                    .build(),
-
-            EquipmentStatus.builder()
-                    .equipmentId("EQ005")
-                    .equipmentName("Конвейерная линия")
-                    .currentStatus(EquipmentStatus.Status.DOWNTIME)
-                    .statusChangedAt(LocalDateTime.now())
-                    .uptimeMinutes(0L)
-                    .downtimeMinutes(0L)
-                    .statusChangesCount(0)
-                    .build()
-    );
-
-    @PostConstruct
+    /**
+     * Запуск мониторинга. Вызывается StartupOrchestrator в фоне после старта приложения,
+     * поэтому оборудование могло уже прийти событиями - оно не запускается повторно.
+     */
     public void init() {
         log.info("Инициализация сервиса мониторинга оборудования...");
 
-        // Инициализируем карту статичным оборудованием
-        for (EquipmentStatus equipment : STATIC_EQUIPMENT_LIST) {
-            equipmentStatusMap.put(equipment.getEquipmentId(), equipment);
+        // Оборудование берется из общего справочника. При распределении между экземплярами
+        // его выдает EquipmentOwnershipService по мере получения аренд
+        if (!ownership.isEnabled()) {
+            for (EquipmentDto equipment : equipmentCatalog.getAll()) {
+                if (equipmentStatusMap.putIfAbsent(equipment.getEquipmentId(), initialStatus(equipment)) == null) {
+                    startMonitoringEquipment(equipment.getEquipmentId());
+                }
+            }
         }
 
         log.info("Загружено {} единиц оборудования", equipmentStatusMap.size());
 
-        // Запускаем мониторинг для каждого оборудования в отдельном потоке
-        for (EquipmentStatus equipment : STATIC_EQUIPMENT_LIST) {
-            startMonitoringEquipment(equipment.getEquipmentId());
-        }
+        registerMetrics();
 
         // Запускаем сбор статистики каждые 30 секунд
         scheduler.scheduleAtFixedRate(this::logStatistics, 30, 30, TimeUnit.SECONDS);
     }
 
-    private void startMonitoringEquipment(String equipmentId) {
-        // Каждое оборудование обрабатывается в отдельном потоке
-        Runnable monitoringTask = () -> {
-            log.info("Запущен мониторинг оборудования: {}", equipmentId);
+    @EventListener
+    public void onEquipmentRegistered(EquipmentRegisteredEvent registered) {
+        if (ownership.isEnabled()) {
+            // Владельца нового оборудования определит следующий heartbeat
+            return;
+        }
+        EquipmentDto equipment = new EquipmentDto(registered.equipmentId(), registered.equipmentName());
+        if (equipmentStatusMap.putIfAbsent(equipment.getEquipmentId(), initialStatus(equipment)) == null) {
+            startMonitoringEquipment(equipment.getEquipmentId());
+        }
+    }
 
-            Random random = new Random();
+    @EventListener
+    public void onOwnershipChanged(EquipmentOwnershipChangedEvent change) {
+        for (String equipmentId : change.lost()) {
+            Future<?> task = runningTasks.remove(equipmentId);
+            if (task != null) {
+                task.cancel(false);
+            }
+            equipmentStatusMap.remove(equipmentId);
+            log.info("Мониторинг оборудования {} передан другому экземпляру", equipmentId);
+        }
+        for (String equipmentId : change.gained()) {
+            // Продолжаем с последнего опубликованного прежним владельцем статуса
+            EquipmentDto equipment = equipmentCatalog.get(equipmentId);
+            EquipmentStatus status = ownership.loadSnapshot(equipmentId)
+                    .orElseGet(() -> initialStatus(equipment != null ? equipment : new EquipmentDto(equipmentId, equipmentId)));
+            if (equipmentStatusMap.putIfAbsent(equipmentId, status) == null) {
+                startMonitoringEquipment(equipmentId);
+            }
+        }
+    }
 
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    // Имитация случайной смены статуса (раз в 5-15 секунд)
-                    int delay = 5000 + random.nextInt(10000);
-                    Thread.sleep(delay);
+    private EquipmentStatus initialStatus(EquipmentDto equipment) {
+        return EquipmentStatus.builder()
+                .equipmentId(equipment.getEquipmentId())
+                .equipmentName(equipment.getEquipmentName())
+                .currentStatus(EquipmentStatus.Status.WORKING)
+                .statusChangedAt(LocalDateTime.now())
+                .uptimeMinutes(0L)
+                .downtimeMinutes(0L)
+                .statusChangesCount(0)
+                .build();
+    }
 
-                    // Меняем статус оборудования
-                    changeEquipmentStatus(equipmentId);
+    /**
+     * Имитация смены статуса раз в 5-15 секунд. Каждая смена - отдельная короткая задача,
+     * которая планирует следующую, поэтому пул не занят ожиданием и число оборудования
+     * не ограничено размером пула.
+     */
+    private void startMonitoringEquipment(String equipmentId) {
+        log.info("Запущен мониторинг оборудования: {}", equipmentId);
+        scheduleNextChange(equipmentId);
+    }
 
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.info("Мониторинг оборудования {} остановлен", equipmentId);
-                    break;
+    private void scheduleNextChange(String equipmentId) {
+        // Оборудование передано другому экземпляру
+        if (scheduler.isShutdown() || !equipmentStatusMap.containsKey(equipmentId)) {
+            return;
+        }
+        long delay = 5000 + ThreadLocalRandom.current().nextInt(10000);
+        try {
+            runningTasks.put(equipmentId, scheduler.schedule(() -> {
+                try {
+                    changeEquipmentStatus(equipmentId);
                 } catch (Exception e) {
                     log.error("Ошибка в мониторинге оборудования {}: {}", equipmentId, e.getMessage());
                 }
-            }
-        };
-
-        Future<?> taskFuture = scheduler.submit(monitoringTask);
-        runningTasks.add(taskFuture);
+                scheduleNextChange(equipmentId);
+            }, delay, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            log.info("Мониторинг оборудования {} остановлен", equipmentId);
+        }
     }
 
     /**
      * Потокобезопасное изменение статуса оборудования
      */
     public void changeEquipmentStatus(String equipmentId) {
-        equipmentStatusMap.computeIfPresent(equipmentId, (id, status) -> {
+        publish(equipmentStatusMap.computeIfPresent(equipmentId, (id, status) -> {
             // Сохраняем предыдущий статус для расчета времени
             EquipmentStatus.Status previousStatus = status.getCurrentStatus();
             LocalDateTime previousChangeTime = status.getStatusChangedAt();
@@ -161,33 +176,57 @@ public class EquipmentMonitorService {
             status.setStatusChangesCount(status.getStatusChangesCount() + 1);
 
             totalStatusChanges.incrementAndGet();
+            countTransition(previousStatus, newStatus, "monitor");
 
             log.debug("Оборудование {} сменило статус: {} -> {}",
                     equipmentId, previousStatus.getDisplayName(), newStatus.getDisplayName());
 
             return status;
-        });
+        }));
     }
 
     /**
-     * Получение всех статусов оборудования (потокобезопасно)
+     * Получение всех статусов оборудования (потокобезопасно).
+     * При распределении - снимки всех владельцев, свое оборудование - из памяти
      */
     public List<EquipmentStatus> getAllEquipmentStatuses() {
-        return new ArrayList<>(equipmentStatusMap.values());
+        if (!ownership.isEnabled()) {
+            return new ArrayList<>(equipmentStatusMap.values());
+        }
+        Map<String, EquipmentStatus> statuses = new HashMap<>();
+        for (EquipmentStatus snapshot : ownership.loadSnapshots()) {
+            statuses.put(snapshot.getEquipmentId(), snapshot);
+        }
+        statuses.putAll(equipmentStatusMap);
+        return new ArrayList<>(statuses.values());
     }
 
     /**
      * Получение статуса конкретного оборудования
      */
     public EquipmentStatus getEquipmentStatus(String equipmentId) {
-        return equipmentStatusMap.get(equipmentId);
+        EquipmentStatus status = equipmentStatusMap.get(equipmentId);
+        if (status == null && ownership.isEnabled()) {
+            return ownership.loadSnapshot(equipmentId).orElse(null);
+        }
+        return status;
     }
 
     /**
      * Принудительная смена статуса (для ручного управления)
      */
     public EquipmentStatus setEquipmentStatus(String equipmentId, EquipmentStatus.Status newStatus) {
-        return equipmentStatusMap.computeIfPresent(equipmentId, (id, status) -> {
+        return setEquipmentStatus(equipmentId, newStatus, false);
+    }
+
+    /**
+     * Чужое оборудование меняет владелец: команда пересылается ему, если она сама еще не пересланная
+     */
+    public EquipmentStatus setEquipmentStatus(String equipmentId, EquipmentStatus.Status newStatus, boolean forwarded) {
+        if (!equipmentStatusMap.containsKey(equipmentId) && ownership.isEnabled()) {
+            return forwarded ? null : ownership.forwardStatus(equipmentId, newStatus);
+        }
+        return publish(equipmentStatusMap.computeIfPresent(equipmentId, (id, status) -> {
             // Рассчитываем время в предыдущем статусе
             long minutesInPreviousStatus = ChronoUnit.MINUTES.between(
                     status.getStatusChangedAt(), LocalDateTime.now());
@@ -198,12 +237,21 @@ public class EquipmentMonitorService {
                 status.setDowntimeMinutes(status.getDowntimeMinutes() + minutesInPreviousStatus);
             }
 
+            countTransition(status.getCurrentStatus(), newStatus, "manual");
             status.setCurrentStatus(newStatus);
             status.setStatusChangedAt(LocalDateTime.now());
             status.setStatusChangesCount(status.getStatusChangesCount() + 1);
 
             return status;
-        });
+        }));
+    }
+
+    // Копия, а не сам объект: его продолжают менять задачи мониторинга
+    private EquipmentStatus publish(EquipmentStatus status) {
+        if (status != null && ownership.isEnabled()) {
+            ownership.publishSnapshot(status.toBuilder().build());
+        }
+        return status;
     }
 
     /**
@@ -246,6 +294,27 @@ public class EquipmentMonitorService {
         return stats;
     }
 
+    // ========== МЕТРИКИ ==========
+
+    private void registerMetrics() {
+        // Текущее число единиц в каждом статусе (свое оборудование; по парку - сумма по экземплярам)
+        for (EquipmentStatus.Status status : EquipmentStatus.Status.values()) {
+            Gauge.builder("equipment.status.current", equipmentStatusMap,
+                            map -> map.values().stream().filter(s -> s.getCurrentStatus() == status).count())
+                    .description("Количество оборудования в статусе")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+
+        // Очередь и активные задачи пула мониторинга
+        new ExecutorServiceMetrics(scheduler, "equipment-monitor", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    private void countTransition(EquipmentStatus.Status from, EquipmentStatus.Status to, String source) {
+        meterRegistry.counter("equipment.status.transitions",
+                "from", String.valueOf(from), "to", String.valueOf(to), "source", source).increment();
+    }
+
     private void logStatistics() {
         Map<String, Object> stats = getStatistics();
         log.info("=== СТАТИСТИКА МОНИТОРИНГА ===");
@@ -261,7 +330,7 @@ public class EquipmentMonitorService {
         log.info("Остановка сервиса мониторинга оборудования...");
 
         // Останавливаем все задачи
-        for (Future<?> task : runningTasks) {
+        for (Future<?> task : runningTasks.values()) {
             task.cancel(true);
         }
 
@@ -0,0 +1,266 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.EquipmentOwnershipChangedEvent;
+import com.example.downtime.model.EquipmentLease;
+import com.example.downtime.model.EquipmentStatus;
+import com.example.downtime.model.MonitorNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Распределение оборудования между экземплярами мониторинга через аренды в Mongo.
+ * Каждый экземпляр регистрируется в monitor_nodes и раз в heartbeat-interval:
+ * по живым узлам и общей коллекции equipment вычисляет rendezvous-хэшированием, какое оборудование должно быть его,
+ * берет или продлевает эти аренды и отпускает остальные. При входе или уходе узла
+ * меняется владелец только у его доли оборудования.
+ * Владелец публикует снимки статусов в equipment_status - их читают остальные экземпляры,
+ * а ручные команды пересылаются владельцу по HTTP.
+ * При выключенном распределении (downtime.monitor.partitioning.enabled) экземпляр ведет все оборудование сам.
+ */
+@Slf4j
+@Service
+public class EquipmentOwnershipService {
+
+    public static final String FORWARDED_HEADER = "X-Monitor-Forwarded";
+
+    private final MongoTemplate mongoTemplate;
+    private final EquipmentCatalogService equipmentCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RestTemplate restTemplate;
+
+    @Value("${downtime.monitor.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${downtime.monitor.partitioning.node-id:}")
+    private String configuredNodeId;
+
+    // Адрес, по которому другие экземпляры пересылают команды этому
+    @Value("${downtime.monitor.partitioning.advertised-url:http://localhost:${server.port:8080}}")
+    private String advertisedUrl;
+
+    // Должен быть в несколько раз больше heartbeat-interval
+    @Value("${downtime.monitor.partitioning.lease-ttl:15s}")
+    private Duration leaseTtl;
+
+    private String nodeId;
+
+    // Оборудование, аренда которого сейчас у этого экземпляра
+    private final Set<String> owned = ConcurrentHashMap.newKeySet();
+
+    public EquipmentOwnershipService(MongoTemplate mongoTemplate,
+                                     EquipmentCatalogService equipmentCatalog,
+                                     ApplicationEventPublisher eventPublisher,
+                                     RestTemplateBuilder restTemplateBuilder) {
+        this.mongoTemplate = mongoTemplate;
+        this.equipmentCatalog = equipmentCatalog;
+        this.eventPublisher = eventPublisher;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+                ? configuredNodeId
+                : UUID.randomUUID().toString();
+        if (enabled) {
+            log.info("Распределение мониторинга включено: узел {}, адрес {}", nodeId, advertisedUrl);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ========== HEARTBEAT И ПЕРЕРАСПРЕДЕЛЕНИЕ ==========
+
+    @Scheduled(fixedDelayString = "${downtime.monitor.partitioning.heartbeat-interval:PT5S}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebalance();
+        } catch (Exception e) {
+            // Аренды не продлены - по истечении lease-ttl их возьмут другие узлы
+            log.error("Ошибка heartbeat узла мониторинга {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    void rebalance() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(leaseTtl);
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(nodeId)),
+                new Update().set("url", advertisedUrl).set("heartbeatAt", now).set("expiresAt", expiresAt),
+                MonitorNode.class);
+        List<String> liveNodes = mongoTemplate.find(
+                        new Query(Criteria.where("expiresAt").gt(now)), MonitorNode.class).stream()
+                .map(MonitorNode::getNodeId)
+                .toList();
+
+        Set<String> gained = new HashSet<>();
+        Set<String> lost = new HashSet<>();
+        Set<String> catalogIds = new HashSet<>();
+        // Справочник перечитывается из общей коллекции: оборудование, добавленное на другом узле,
+        // иначе не досталось бы никому, а его аренду здесь сочли бы удаленной из справочника
+        for (EquipmentDto equipment : equipmentCatalog.refresh()) {
+            String equipmentId = equipment.getEquipmentId();
+            catalogIds.add(equipmentId);
+            boolean held = owned.contains(equipmentId);
+            if (nodeId.equals(ownerOf(equipmentId, liveNodes))) {
+                // Пока прежний владелец не отпустил аренду, захват не удастся - повторим на следующем heartbeat
+                if (tryAcquire(equipmentId, now, expiresAt)) {
+                    if (!held) {
+                        gained.add(equipmentId);
+                    }
+                } else if (held) {
+                    lost.add(equipmentId);
+                }
+            } else if (held) {
+                release(equipmentId);
+                lost.add(equipmentId);
+            }
+        }
+        // Удаленное из справочника оборудование
+        for (String equipmentId : owned) {
+            if (!catalogIds.contains(equipmentId)) {
+                release(equipmentId);
+                lost.add(equipmentId);
+            }
+        }
+
+        owned.addAll(gained);
+        owned.removeAll(lost);
+        if (!gained.isEmpty() || !lost.isEmpty()) {
+            log.info("Узел {}: получено {}, отдано {}, всего {} из {} (узлов: {})",
+                    nodeId, gained, lost, owned.size(), catalogIds.size(), liveNodes.size());
+            eventPublisher.publishEvent(new EquipmentOwnershipChangedEvent(Set.copyOf(gained), Set.copyOf(lost)));
+        }
+    }
+
+    /**
+     * Rendezvous (HRW) хэширование: владелец - узел с наибольшим весом для пары (узел, оборудование).
+     * Все узлы получают одинаковый результат без координации, при смене состава узлов
+     * переезжает только оборудование ушедшего или доставшееся новому узлу.
+     */
+    static String ownerOf(String equipmentId, Collection<String> nodeIds) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String candidate : nodeIds) {
+            long weight = UUID.nameUUIDFromBytes((candidate + '|' + equipmentId).getBytes(StandardCharsets.UTF_8))
+                    .getMostSignificantBits();
+            if (owner == null || weight > best || (weight == best && candidate.compareTo(owner) < 0)) {
+                owner = candidate;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    // Своя аренда продлевается, просроченная или отсутствующая берется; чужая действующая - DuplicateKeyException
+    private boolean tryAcquire(String equipmentId, LocalDateTime now, LocalDateTime expiresAt) {
+        Query query = new Query(Criteria.where("_id").is(equipmentId)
+                .orOperator(Criteria.where("ownerId").is(nodeId), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update()
+                .set("ownerId", nodeId)
+                .set("ownerUrl", advertisedUrl)
+                .set("heartbeatAt", now)
+                .set("expiresAt", expiresAt);
+        try {
+            mongoTemplate.upsert(query, update, EquipmentLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void release(String equipmentId) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(equipmentId).and("ownerId").is(nodeId)),
+                EquipmentLease.class);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        // Плановая остановка: аренды отдаются сразу, не дожидаясь lease-ttl
+        try {
+            mongoTemplate.remove(new Query(Criteria.where("ownerId").is(nodeId)), EquipmentLease.class);
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(nodeId)), MonitorNode.class);
+            log.info("Узел мониторинга {} отпустил аренды: {}", nodeId, owned.size());
+        } catch (Exception e) {
+            log.warn("Не удалось отпустить аренды узла {}: {}", nodeId, e.getMessage());
+        }
+        owned.clear();
+    }
+
+    // ========== СНИМКИ СТАТУСОВ ==========
+
+    public void publishSnapshot(EquipmentStatus status) {
+        try {
+            mongoTemplate.save(status);
+        } catch (Exception e) {
+            log.warn("Не удалось опубликовать статус оборудования {}: {}", status.getEquipmentId(), e.getMessage());
+        }
+    }
+
+    public Optional<EquipmentStatus> loadSnapshot(String equipmentId) {
+        return Optional.ofNullable(mongoTemplate.findById(equipmentId, EquipmentStatus.class));
+    }
+
+    public List<EquipmentStatus> loadSnapshots() {
+        return mongoTemplate.findAll(EquipmentStatus.class);
+    }
+
+    // ========== ПЕРЕСЫЛКА ВЛАДЕЛЬЦУ ==========
+
+    /**
+     * Ручная смена статуса на владельце оборудования. Пересланный запрос дальше не пересылается,
+     * поэтому при смене владельца в момент пересылки команда не зацикливается, а возвращает null.
+     */
+    public EquipmentStatus forwardStatus(String equipmentId, EquipmentStatus.Status status) {
+        EquipmentLease lease = mongoTemplate.findById(equipmentId, EquipmentLease.class);
+        if (lease == null || lease.getOwnerUrl() == null || nodeId.equals(lease.getOwnerId())) {
+            log.warn("Нет действующего владельца оборудования {}", equipmentId);
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(FORWARDED_HEADER, "true");
+        try {
+            return restTemplate.exchange(lease.getOwnerUrl() + "/api/monitor/equipment/{id}/status?status={status}",
+                    HttpMethod.PUT, new HttpEntity<>(headers), EquipmentStatus.class,
+                    equipmentId, status).getBody();
+        } catch (RestClientException e) {
+            log.error("Ошибка пересылки команды владельцу {} оборудования {}: {}",
+                    lease.getOwnerId(), equipmentId, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.example.downtime.service;
 
 import io.awspring.cloud.s3.S3Resource;
 import io.awspring.cloud.s3.S3Template;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,18 +17,34 @@ import java.util.UUID;
 
 @Slf4j
 @Service
+@Timed("downtime.service")
 @RequiredArgsConstructor
 public class FileStorageService {
 
     private final S3Template s3Template;
     private final S3Client s3Client; // Добавляем S3Client для управления бакетами
+    private final StorageGuard storageGuard;
 
     @Value("${aws.s3.bucket:downtime-photos}")
     private String bucketName;
 
-    @PostConstruct
-    public void init() {
-        createBucketIfNotExists();
+    // Бакет проверен или создан; до этого загрузка сама проверяет бакет
+    private volatile boolean bucketReady;
+
+    /**
+     * Проверка или создание бакета. Выполняется StartupOrchestrator в фоне после старта,
+     * недоступный MinIO не задерживает и не роняет запуск; загрузка до готовности проверяет бакет сама.
+     */
+    public void ensureBucket() {
+        if (bucketReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!bucketReady) {
+                createBucketIfNotExists();
+                bucketReady = true;
+            }
+        }
     }
 
     private void createBucketIfNotExists() {
@@ -103,26 +119,30 @@ public class FileStorageService {
         String fileName = generateFileName(downtimeId, file);
         log.info("Generated file path: {}", fileName);
 
-        try (InputStream inputStream = file.getInputStream()) {
-            // Загружаем файл в S3
-            S3Resource resource = s3Template.upload(
-                    bucketName,
-                    fileName,
-                    inputStream
-            );
-
-            String fileUrl = resource.getURL().toString();
-            log.info("File uploaded successfully: {}", fileUrl);
-
-            return fileUrl;
-
-        } catch (IOException e) {
-            log.error("Failed to upload file: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to upload file", e);
-        } catch (Exception e) {
-            log.error("Unexpected error during file upload: {}", e.getMessage(), e);
-            throw new RuntimeException("File upload failed", e);
-        }
+        // Bulkhead, автомат и повторы - поток для каждой попытки открывается заново
+        return storageGuard.call("upload", () -> {
+            ensureBucket();
+            try (InputStream inputStream = file.getInputStream()) {
+                // Загружаем файл в S3
+                S3Resource resource = s3Template.upload(
+                        bucketName,
+                        fileName,
+                        inputStream
+                );
+
+                String fileUrl = resource.getURL().toString();
+                log.info("File uploaded successfully: {}", fileUrl);
+
+                return fileUrl;
+
+            } catch (IOException e) {
+                log.error("Failed to upload file: {}", e.getMessage(), e);
+                throw new RuntimeException("Failed to upload file", e);
+            } catch (Exception e) {
+                log.error("Unexpected error during file upload: {}", e.getMessage(), e);
+                throw new RuntimeException("File upload failed", e);
+            }
+        });
     }
 
     private String generateFileName(String downtimeId, MultipartFile file) {
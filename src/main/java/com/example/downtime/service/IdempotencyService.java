@@ -0,0 +1,215 @@
+package com.example.downtime.service;
+
+import com.example.downtime.exception.IdempotencyConflictException;
+import com.example.downtime.model.IdempotencyRecord;
+import com.example.downtime.model.IdempotencyRecord.State;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Идемпотентность POST-запросов по заголовку Idempotency-Key.
+ * Первый запрос с ключом резервирует его в idempotency_keys (вставка по _id - гонку решает Mongo),
+ * выполняется и сохраняет ответ; повтор получает сохраненный ответ без повторного выполнения -
+ * без нового номера из SequenceGeneratorService и без загрузки в S3.
+ * Недавние ответы дополнительно держатся в памяти (hot-window), чтобы частые повторы шлюзов не ходили в Mongo.
+ * Ошибка выполнения освобождает ключ - повтор выполнит запрос заново.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String CACHE_NAME = "idempotency";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${downtime.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${downtime.idempotency.hot-window:10m}")
+    private Duration hotWindow;
+
+    @Value("${downtime.idempotency.hot-max-size:10000}")
+    private long hotMaxSize;
+
+    // Сколько ключ считается занятым выполняющимся запросом
+    @Value("${downtime.idempotency.lock-timeout:1m}")
+    private Duration lockTimeout;
+
+    private Cache<String, Completed> recent;
+
+    @PostConstruct
+    public void init() {
+        recent = Caffeine.newBuilder()
+                .maximumSize(hotMaxSize)
+                .expireAfterWrite(hotWindow)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, CACHE_NAME);
+    }
+
+    /**
+     * Выполнение action не больше одного раза на ключ. Без ключа - обычное выполнение.
+     * request - содержимое запроса, по которому проверяется, что ключ повторен с тем же запросом.
+     */
+    public <T> Result<T> execute(String operation, String clientKey, Object request,
+                                 Class<T> responseType, Supplier<T> action) {
+        if (!enabled || clientKey == null || clientKey.isBlank()) {
+            return new Result<>(action.get(), false);
+        }
+        if (clientKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " длиннее " + MAX_KEY_LENGTH + " символов");
+        }
+        String key = operation + ":" + clientKey;
+        String fingerprint = fingerprint(request);
+
+        Completed cached = recent.getIfPresent(key);
+        if (cached != null) {
+            return replay(operation, key, cached, fingerprint, responseType);
+        }
+
+        IdempotencyRecord existing = reserve(key, fingerprint);
+        if (existing != null) {
+            Completed completed = new Completed(existing.getFingerprint(), existing.getResponse());
+            recent.put(key, completed);
+            return replay(operation, key, completed, fingerprint, responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(key).and("state").is(State.IN_PROGRESS)),
+                    IdempotencyRecord.class);
+            throw e;
+        }
+        complete(key, fingerprint, response);
+        return new Result<>(response, false);
+    }
+
+    // ========== КЛЮЧИ ==========
+
+    /**
+     * Резерв ключа за этим запросом. null - ключ наш, иначе - завершенная запись для повтора.
+     */
+    private IdempotencyRecord reserve(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            mongoTemplate.insert(IdempotencyRecord.builder()
+                    .key(key)
+                    .fingerprint(fingerprint)
+                    .state(State.IN_PROGRESS)
+                    .lockedUntil(now.plus(lockTimeout))
+                    .createdAt(now)
+                    .build());
+            return null;
+        } catch (DuplicateKeyException e) {
+            // Ключ занят - возможно, экземпляром, упавшим посреди запроса
+        }
+
+        IdempotencyRecord taken = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(key)
+                        .and("state").is(State.IN_PROGRESS)
+                        .and("lockedUntil").lt(now)),
+                new Update().set("fingerprint", fingerprint).set("lockedUntil", now.plus(lockTimeout)),
+                IdempotencyRecord.class);
+        if (taken != null) {
+            log.warn("Ключ идемпотентности {} перехвачен после истечения блокировки", key);
+            return null;
+        }
+
+        IdempotencyRecord existing = mongoTemplate.findById(key, IdempotencyRecord.class);
+        if (existing == null || existing.getState() != State.COMPLETED) {
+            meterRegistry.counter("idempotency.conflicts").increment();
+            throw new IdempotencyConflictException("Запрос с ключом " + key + " еще выполняется");
+        }
+        return existing;
+    }
+
+    private void complete(String key, String fingerprint, Object response) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ для ключа " + key, e);
+        }
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(key)),
+                    new Update().set("state", State.COMPLETED).set("response", json).unset("lockedUntil"),
+                    IdempotencyRecord.class);
+        } catch (Exception e) {
+            // Запрос уже выполнен - ответ отдаем, повтор после lock-timeout выполнится заново
+            log.error("Не удалось сохранить ответ для ключа идемпотентности {}: {}", key, e.getMessage());
+        }
+        recent.put(key, new Completed(fingerprint, json));
+    }
+
+    private <T> Result<T> replay(String operation, String key, Completed completed,
+                                 String fingerprint, Class<T> responseType) {
+        if (!completed.fingerprint().equals(fingerprint)) {
+            meterRegistry.counter("idempotency.conflicts").increment();
+            throw new IdempotencyConflictException("Ключ " + key + " уже использован с другим запросом");
+        }
+        meterRegistry.counter("idempotency.replayed", "operation", operation).increment();
+        log.info("Повтор запроса с ключом {} - отдан сохраненный ответ", key);
+        try {
+            return new Result<>(objectMapper.readValue(completed.response(), responseType), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Поврежден сохраненный ответ для ключа " + key, e);
+        }
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Не удалось вычислить отпечаток запроса", e);
+        }
+    }
+
+    private record Completed(String fingerprint, String response) {
+    }
+
+    /**
+     * Ответ и признак повтора; повторный ответ помечается заголовком Idempotent-Replayed.
+     */
+    public record Result<T>(T body, boolean replayed) {
+
+        public ResponseEntity<T> toResponseEntity() {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (replayed) {
+                builder.header(REPLAYED_HEADER, "true");
+            }
+            return builder.body(body);
+        }
+    }
+}
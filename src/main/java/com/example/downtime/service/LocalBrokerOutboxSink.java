@@ -0,0 +1,42 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.DowntimeChangeDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Заменитель брокера сообщений внутри JVM: подписчики получают каждое изменение по порядку.
+ * Для локальной разработки и тестов, пока нет настоящего брокера. Исключение подписчика
+ * проваливает доставку пачки - она придет повторно, как от брокера без подтверждения.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "downtime.outbox.sinks.local-broker.enabled", havingValue = "true", matchIfMissing = true)
+public class LocalBrokerOutboxSink implements OutboxSink {
+
+    private final List<Consumer<DowntimeChangeDto>> subscribers = new CopyOnWriteArrayList<>();
+
+    public void subscribe(Consumer<DowntimeChangeDto> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public String name() {
+        return "local-broker";
+    }
+
+    @Override
+    public void deliver(List<DowntimeChangeDto> changes) {
+        for (DowntimeChangeDto change : changes) {
+            for (Consumer<DowntimeChangeDto> subscriber : subscribers) {
+                subscriber.accept(change);
+            }
+        }
+        log.debug("Локальный брокер: доставлено {} изменений {} подписчикам", changes.size(), subscribers.size());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.downtime.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Запасной транспорт: уведомление только пишется в лог (например, SMTP не настроен).
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class LogNotificationTransport implements NotificationTransport {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public boolean supports(String recipient) {
+        return true;
+    }
+
+    @Override
+    public void send(NotificationMessage message) {
+        log.info("Уведомление для {}: {}\n{}", message.recipient(), message.subject(), message.body());
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Асинхронные уведомления о новых простоях.
+ * Слушатель DowntimeChangedEvent только кладет простой в ограниченную очередь и не ждет SMTP;
+ * раз в digest-interval фоновый поток разбирает очередь и отправляет каждому получателю
+ * одну сводку по всем новым простоям. Ошибка отправки - повтор с экспоненциальной паузой,
+ * после max-attempts сводка отбрасывается. При переполнении очереди простой в уведомления не попадает.
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private final SettingsService settingsService;
+    private final List<NotificationTransport> transports;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${downtime.notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${downtime.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${downtime.notifications.digest-interval:1m}")
+    private Duration digestInterval;
+
+    @Value("${downtime.notifications.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${downtime.notifications.retry-initial:2s}")
+    private Duration retryInitial;
+
+    @Value("${downtime.notifications.retry-max:5m}")
+    private Duration retryMax;
+
+    private BlockingQueue<DowntimeEvent> queue;
+    private ScheduledExecutorService executor;
+
+    public NotificationDispatcher(SettingsService settingsService,
+                                  List<NotificationTransport> transports,
+                                  MeterRegistry meterRegistry) {
+        this.settingsService = settingsService;
+        this.transports = transports;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::safeFlush,
+                digestInterval.toMillis(), digestInterval.toMillis(), TimeUnit.MILLISECONDS);
+        Gauge.builder("notifications.queue.size", queue, Collection::size)
+                .description("Простои, ожидающие отправки уведомлений")
+                .register(meterRegistry);
+    }
+
+    // ========== ПРИЕМ СОБЫТИЙ ==========
+
+    @EventListener
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        if (!enabled || change.type() != ChangeType.CREATED || change.downtime() == null) {
+            return;
+        }
+        if (!queue.offer(change.downtime())) {
+            meterRegistry.counter("notifications.dropped").increment();
+            log.warn("Очередь уведомлений переполнена, простой {} пропущен", change.downtime().getId());
+        }
+    }
+
+    // ========== СВОДКИ ==========
+
+    private void safeFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Ошибка формирования уведомлений: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Разбор очереди: настройки читаются один раз на сводку, получателю - одно письмо со всеми простоями.
+     */
+    void flush() {
+        List<DowntimeEvent> downtimes = new ArrayList<>();
+        queue.drainTo(downtimes);
+        if (downtimes.isEmpty()) {
+            return;
+        }
+        if (!settingsService.getBooleanSetting("notifications.email.enabled")
+                || !settingsService.getBooleanSetting("notifications.active.downtime.enabled")) {
+            log.debug("Уведомления выключены в настройках, пропущено простоев: {}", downtimes.size());
+            return;
+        }
+        List<String> recipients = parseRecipients(settingsService.getSetting("notifications.email.recipients"));
+        if (recipients.isEmpty()) {
+            log.debug("Получатели уведомлений не заданы, пропущено простоев: {}", downtimes.size());
+            return;
+        }
+
+        String subject = "Новые простои оборудования: " + downtimes.size();
+        String body = digestBody(downtimes);
+        for (String recipient : recipients) {
+            send(new NotificationMessage(recipient, subject, body), 1);
+        }
+    }
+
+    private void send(NotificationMessage message, int attempt) {
+        NotificationTransport transport = transports.stream()
+                .filter(candidate -> candidate.supports(message.recipient()))
+                .findFirst()
+                .orElse(null);
+        if (transport == null) {
+            log.warn("Нет транспорта для получателя {}", message.recipient());
+            return;
+        }
+        try {
+            transport.send(message);
+            meterRegistry.counter("notifications.sent", "transport", transport.name()).increment();
+        } catch (Exception e) {
+            meterRegistry.counter("notifications.failures", "transport", transport.name()).increment();
+            if (attempt >= maxAttempts || executor.isShutdown()) {
+                log.error("Уведомление для {} не отправлено после {} попыток: {}",
+                        message.recipient(), attempt, e.getMessage());
+                return;
+            }
+            long delayMillis = Math.min(retryMax.toMillis(),
+                    retryInitial.toMillis() * (1L << Math.min(attempt - 1, 20)));
+            log.warn("Ошибка отправки уведомления для {} (попытка {}), повтор через {} мс: {}",
+                    message.recipient(), attempt, delayMillis, e.getMessage());
+            try {
+                executor.schedule(() -> send(message, attempt + 1), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                log.warn("Повтор уведомления для {} отменен: сервис останавливается", message.recipient());
+            }
+        }
+    }
+
+    static List<String> parseRecipients(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split("[,;\\s]+"))
+                .map(String::trim)
+                .filter(recipient -> !recipient.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static String digestBody(List<DowntimeEvent> downtimes) {
+        StringBuilder body = new StringBuilder("Зарегистрированы новые простои:\n\n");
+        for (DowntimeEvent downtime : downtimes) {
+            body.append("#").append(downtime.getId())
+                    .append(" ").append(downtime.getEquipmentName())
+                    .append(" (").append(downtime.getEquipmentId()).append(")");
+            if (downtime.getStartTime() != null) {
+                body.append(", с ").append(downtime.getStartTime().format(TIME_FORMAT));
+            }
+            if (downtime.getReason() != null) {
+                body.append(", причина: ").append(downtime.getReason());
+            }
+            if (downtime.getOperatorName() != null) {
+                body.append(", оператор: ").append(downtime.getOperatorName());
+            }
+            body.append('\n');
+        }
+        return body.toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Накопленное отправляем сразу, повторы при остановке не ждем
+        try {
+            executor.submit(this::safeFlush).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Не удалось отправить накопленные уведомления при остановке: {}", e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.downtime.service;
+
+/**
+ * Одно уведомление одному получателю (сводка по нескольким простоям).
+ */
+public record NotificationMessage(String recipient, String subject, String body) {
+}
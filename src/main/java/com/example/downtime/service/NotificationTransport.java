@@ -0,0 +1,14 @@
+package com.example.downtime.service;
+
+/**
+ * Способ доставки уведомлений. NotificationDispatcher берет первый транспорт (по @Order),
+ * который поддерживает получателя; исключение из send - повод для повтора с паузой.
+ */
+public interface NotificationTransport {
+
+    String name();
+
+    boolean supports(String recipient);
+
+    void send(NotificationMessage message) throws Exception;
+}
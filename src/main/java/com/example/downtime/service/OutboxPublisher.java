@@ -0,0 +1,181 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.DowntimeChangeDto;
+import com.example.downtime.model.OutboxCursor;
+import com.example.downtime.model.OutboxEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Доставка outbox получателям (OutboxSink) пачками по порядку seq, "хотя бы один раз":
+ * курсор получателя в outbox_cursors сдвигается только после успешной доставки.
+ * Упавший получатель не мешает остальным, повторы - с экспоненциальной паузой до retry-max.
+ * Отдельно дописывает в outbox изменения, оставшиеся отметками в документах простоев
+ * (см. DowntimeOutboxService.recoverPending); повторы на разных экземплярах отбрасывает changeId.
+ */
+@Slf4j
+@Service
+public class OutboxPublisher {
+
+    private final DowntimeOutboxService outbox;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<OutboxSink> sinks;
+    private final MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Backoff> backoffs = new ConcurrentHashMap<>();
+
+    @Value("${downtime.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${downtime.outbox.batch-size:100}")
+    private int batchSize;
+
+    // Пачек за один проход на получателя - чтобы догнать отставание, не занимая планировщик надолго
+    @Value("${downtime.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${downtime.outbox.lock-ttl:30s}")
+    private Duration lockTtl;
+
+    @Value("${downtime.outbox.retry-initial:1s}")
+    private Duration retryInitial;
+
+    @Value("${downtime.outbox.retry-max:5m}")
+    private Duration retryMax;
+
+    // Возраст отметки, после которого ее запись в outbox считается прерванной
+    @Value("${downtime.outbox.pending-grace:30s}")
+    private Duration pendingGrace;
+
+    public OutboxPublisher(DowntimeOutboxService outbox,
+                           MongoTemplate mongoTemplate,
+                           ObjectProvider<OutboxSink> sinks,
+                           MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.mongoTemplate = mongoTemplate;
+        this.sinks = sinks;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${downtime.outbox.poll-interval:PT1S}")
+    public void publish() {
+        if (!enabled) {
+            return;
+        }
+        sinks.orderedStream().forEach(sink -> {
+            try {
+                publishTo(sink);
+            } catch (Exception e) {
+                log.error("Ошибка доставки outbox получателю {}: {}", sink.name(), e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${downtime.outbox.pending-sweep-interval:PT30S}")
+    public void sweepPending() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int recovered = outbox.recoverPending(pendingGrace, batchSize);
+            if (recovered > 0) {
+                meterRegistry.counter("outbox.recovered").increment(recovered);
+                log.warn("Outbox: дописано {} изменений по отметкам в простоях", recovered);
+            }
+        } catch (Exception e) {
+            log.error("Ошибка сбора незаписанных изменений outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Доставка накопившихся изменений одному получателю. Возвращает число доставленных.
+     */
+    public long publishTo(OutboxSink sink) {
+        Backoff backoff = backoffs.get(sink.name());
+        if (backoff != null && System.nanoTime() < backoff.nextAttemptAt()) {
+            return 0;
+        }
+
+        long delivered = 0;
+        for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+            OutboxCursor cursor = claim(sink.name());
+            if (cursor == null) {
+                // Получателя обслуживает другой экземпляр
+                break;
+            }
+            List<OutboxEntry> entries = outbox.readAfter(cursor.getLastSeq(), batchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+            List<DowntimeChangeDto> changes = entries.stream().map(DowntimeChangeDto::from).toList();
+            try {
+                sink.deliver(changes);
+            } catch (Exception e) {
+                scheduleRetry(sink.name(), e);
+                break;
+            }
+
+            long lastSeq = changes.get(changes.size() - 1).getSeq();
+            // $max: курсор не откатится, даже если блокировка успела перейти к другому экземпляру
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(sink.name())),
+                    new Update().max("lastSeq", lastSeq).set("updatedAt", LocalDateTime.now()),
+                    OutboxCursor.class);
+            backoffs.remove(sink.name());
+            meterRegistry.counter("outbox.delivered", "sink", sink.name()).increment(changes.size());
+            delivered += changes.size();
+            if (changes.size() < batchSize) {
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    // Блокировка получателя на lock-ttl; чужая действующая - DuplicateKeyException при upsert
+    private OutboxCursor claim(String sink) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(Criteria.where("_id").is(sink).orOperator(
+                Criteria.where("lockedBy").is(instanceId),
+                Criteria.where("lockedUntil").lt(now),
+                Criteria.where("lockedUntil").exists(false)));
+        Update update = new Update().set("lockedBy", instanceId).set("lockedUntil", now.plus(lockTtl));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), OutboxCursor.class);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    private void scheduleRetry(String sink, Exception error) {
+        Backoff next = backoffs.compute(sink, (name, previous) -> {
+            int failures = previous != null ? previous.failures() + 1 : 1;
+            long delayMillis = Math.min(retryMax.toMillis(),
+                    retryInitial.toMillis() * (1L << Math.min(failures - 1, 20)));
+            return new Backoff(failures, System.nanoTime() + Duration.ofMillis(delayMillis).toNanos(), delayMillis);
+        });
+        meterRegistry.counter("outbox.failures", "sink", sink).increment();
+        log.warn("Получатель {} недоступен ({} попытка подряд), повтор через {} мс: {}",
+                sink, next.failures(), next.delayMillis(), error.getMessage());
+    }
+
+    private record Backoff(int failures, long nextAttemptAt, long delayMillis) {
+    }
+}
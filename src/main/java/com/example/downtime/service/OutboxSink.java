@@ -0,0 +1,17 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.DowntimeChangeDto;
+
+import java.util.List;
+
+/**
+ * Получатель изменений из outbox. OutboxPublisher передает пачки по порядку seq и сдвигает
+ * курсор получателя только после успешного deliver, поэтому после сбоя пачка может прийти повторно.
+ */
+public interface OutboxSink {
+
+    // Имя получателя - ключ его курсора в outbox_cursors
+    String name();
+
+    void deliver(List<DowntimeChangeDto> changes) throws Exception;
+}
@@ -0,0 +1,93 @@
+package com.example.downtime.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Параллельная загрузка независимых данных страницы на виртуальных потоках.
+ * Все загрузки запускаются сразу, поэтому время страницы - максимум, а не сумма запросов.
+ * Каждая загрузка имеет свой таймаут и значение по умолчанию: ошибка или задержка одного
+ * блока не ломает страницу, а отдает fallback.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageDataLoader {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${downtime.web.load-timeout:2s}")
+    private Duration defaultTimeout;
+
+    public <T> Load<T> submit(String name, Callable<T> loader, T fallback) {
+        return submit(name, loader, fallback, defaultTimeout);
+    }
+
+    public <T> Load<T> submit(String name, Callable<T> loader, T fallback, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Future<T> future = executor.submit(loader);
+        return new Load<>(name, future, fallback, deadline);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Результат одной загрузки. get() ждет не дольше дедлайна, отсчитанного от submit.
+     */
+    public final class Load<T> {
+
+        private final String name;
+        private final Future<T> future;
+        private final T fallback;
+        private final long deadline;
+        private volatile boolean fallbackUsed;
+
+        private Load(String name, Future<T> future, T fallback, long deadline) {
+            this.name = name;
+            this.future = future;
+            this.fallback = fallback;
+            this.deadline = deadline;
+        }
+
+        public T get() {
+            try {
+                T value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                return value != null ? value : fallback;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Загрузка '{}' не уложилась в таймаут, используется значение по умолчанию", name);
+                return fail("timeout");
+            } catch (ExecutionException e) {
+                log.warn("Ошибка загрузки '{}': {}", name, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                return fail("error");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return fail("interrupted");
+            }
+        }
+
+        // Вместо данных отдано значение по умолчанию - страница неполная
+        public boolean isFallback() {
+            return fallbackUsed;
+        }
+
+        private T fail(String reason) {
+            fallbackUsed = true;
+            meterRegistry.counter("web.page.load.fallbacks", "load", name, "reason", reason).increment();
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.downtime.service;
+
+import com.example.downtime.config.MongoConfig;
+import com.example.downtime.dto.ReasonParetoDto;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.ReasonDailyRollup;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Аналитика причин простоев (Парето) на основе суточных агрегатов.
+ * Агрегаты обновляются инкрементально, поэтому запрос за год читает
+ * не более ~365 документов на единицу оборудования вместо всех событий.
+ */
+@Slf4j
+@Service
+@Timed("downtime.service")
+@RequiredArgsConstructor
+public class ReasonAnalyticsService {
+
+    static final String UNKNOWN_REASON = "Не указана";
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final String REBUILD_COLLECTION = "downtime_reason_rollups_rebuild";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Парето читается с secondary; агрегаты пишутся и перестраиваются через primary
+    @Qualifier(MongoConfig.ANALYTICS_TEMPLATE)
+    private final MongoTemplate analyticsTemplate;
+
+    public enum Metric {
+        COUNT, MINUTES
+    }
+
+    // ========== ИНКРЕМЕНТАЛЬНОЕ ОБНОВЛЕНИЕ ==========
+
+    // После фиксации транзакции: $inc общего агрегата дня внутри нее конфликтовал бы у параллельных записей
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        DowntimeEvent event = change.downtime();
+        if (event == null || event.getStartTime() == null) {
+            return;
+        }
+
+        try {
+            switch (change.type()) {
+                case CREATED -> increment(event, 1, 0, 0);
+                case RESOLVED -> increment(event, 0, durationMinutes(event), 1);
+                case DELETED -> {
+                    boolean resolved = event.getStatus() == DowntimeStatus.RESOLVED;
+                    increment(event, -1, resolved ? -durationMinutes(event) : 0, resolved ? -1 : 0);
+                }
+                default -> {
+                    // Фото не влияют на статистику причин
+                }
+            }
+        } catch (Exception e) {
+            // Ошибка агрегата не должна ломать операцию оператора, агрегат можно перестроить
+            log.error("Ошибка обновления агрегата причин для простоя {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    private void increment(DowntimeEvent event, long count, long minutes, long resolved) {
+        Query query = new Query(Criteria.where("equipmentId").is(event.getEquipmentId())
+                .and("day").is(event.getStartTime().toLocalDate())
+                .and("reason").is(normalizeReason(event.getReason())));
+
+        Update update = new Update()
+                .inc("count", count)
+                .inc("totalMinutes", minutes)
+                .inc("resolvedCount", resolved)
+                .setOnInsert("equipmentName", event.getEquipmentName());
+
+        mongoTemplate.upsert(query, update, ReasonDailyRollup.class);
+    }
+
+    // ========== ЗАПРОСЫ ==========
+
+    public List<ReasonParetoDto> getPareto(String equipmentId, LocalDate from, LocalDate to,
+                                           Metric metric, int limit) {
+        Criteria criteria = Criteria.where("day").gte(from).lte(to);
+        if (equipmentId != null && !equipmentId.trim().isEmpty()) {
+            criteria.and("equipmentId").is(equipmentId.trim());
+        }
+
+        Query query = new Query(criteria);
+        query.fields().include("reason", "count", "totalMinutes", "resolvedCount");
+
+        List<ReasonDailyRollup> rollups = analyticsTemplate.find(query, ReasonDailyRollup.class);
+        log.debug("Парето причин: equipmentId={}, период {} - {}, агрегатов={}",
+                equipmentId, from, to, rollups.size());
+
+        return buildPareto(rollups, metric, limit);
+    }
+
+    static List<ReasonParetoDto> buildPareto(List<ReasonDailyRollup> rollups, Metric metric, int limit) {
+        Map<String, ReasonParetoDto> byReason = new HashMap<>();
+        for (ReasonDailyRollup rollup : rollups) {
+            ReasonParetoDto dto = byReason.computeIfAbsent(normalizeReason(rollup.getReason()),
+                    reason -> ReasonParetoDto.builder().reason(reason).build());
+            dto.setCount(dto.getCount() + rollup.getCount());
+            dto.setTotalMinutes(dto.getTotalMinutes() + rollup.getTotalMinutes());
+            dto.setResolvedCount(dto.getResolvedCount() + rollup.getResolvedCount());
+        }
+
+        Comparator<ReasonParetoDto> order = Comparator.comparingLong(dto -> metricValue(dto, metric));
+        List<ReasonParetoDto> sorted = byReason.values().stream()
+                .filter(dto -> metricValue(dto, metric) > 0)
+                .sorted(order.reversed().thenComparing(ReasonParetoDto::getReason))
+                .toList();
+
+        long total = sorted.stream().mapToLong(dto -> metricValue(dto, metric)).sum();
+        List<ReasonParetoDto> result = new ArrayList<>();
+        long cumulative = 0;
+        for (ReasonParetoDto dto : sorted) {
+            if (result.size() >= limit) {
+                break;
+            }
+            long value = metricValue(dto, metric);
+            cumulative += value;
+            dto.setShare(percent(value, total));
+            dto.setCumulativeShare(percent(cumulative, total));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // ========== ПЕРЕСТРОЕНИЕ ==========
+
+    /**
+     * Полное перестроение агрегатов по сырым событиям, включая архив (для исторических данных).
+     * Агрегаты пишутся во временную коллекцию, которая затем атомарно переименовывается поверх
+     * downtime_reason_rollups: Парето видит старые или новые агрегаты, но не частичные.
+     * Инкременты, пришедшие между чтением событий и переименованием, теряются - запускать в спокойное время.
+     */
+    public long rebuildRollups() {
+        log.info("Перестроение агрегатов причин простоев...");
+        Map<String, ReasonDailyRollup> rollups = new HashMap<>();
+
+        Query query = new Query();
+        query.fields().include("equipmentId", "equipmentName", "reason", "startTime", "endTime", "status");
+
+        try (Stream<DowntimeEvent> events = DowntimeArchive.streamAll(mongoTemplate, query)) {
+            events.filter(event -> event.getStartTime() != null).forEach(event -> {
+                LocalDate day = event.getStartTime().toLocalDate();
+                String reason = normalizeReason(event.getReason());
+                ReasonDailyRollup rollup = rollups.computeIfAbsent(
+                        event.getEquipmentId() + "|" + day + "|" + reason,
+                        key -> ReasonDailyRollup.builder()
+                                .equipmentId(event.getEquipmentId())
+                                .equipmentName(event.getEquipmentName())
+                                .reason(reason)
+                                .day(day)
+                                .build());
+                rollup.setCount(rollup.getCount() + 1);
+                if (event.getStatus() == DowntimeStatus.RESOLVED) {
+                    rollup.setTotalMinutes(rollup.getTotalMinutes() + durationMinutes(event));
+                    rollup.setResolvedCount(rollup.getResolvedCount() + 1);
+                }
+            });
+        }
+
+        // Остаток прерванного перестроения
+        mongoTemplate.dropCollection(REBUILD_COLLECTION);
+        IndexOperations indexOps = mongoTemplate.indexOps(REBUILD_COLLECTION);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(ReasonDailyRollup.class)
+                .forEach(indexOps::ensureIndex);
+
+        List<ReasonDailyRollup> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        for (ReasonDailyRollup rollup : rollups.values()) {
+            batch.add(rollup);
+            if (batch.size() == REBUILD_BATCH_SIZE) {
+                insertBatch(batch);
+            }
+        }
+        insertBatch(batch);
+
+        String liveCollection = mongoTemplate.getCollectionName(ReasonDailyRollup.class);
+        mongoTemplate.getCollection(REBUILD_COLLECTION).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), liveCollection),
+                new RenameCollectionOptions().dropTarget(true));
+
+        log.info("Агрегаты причин перестроены: {} документов", rollups.size());
+        return rollups.size();
+    }
+
+    private void insertBatch(List<ReasonDailyRollup> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReasonDailyRollup.class, REBUILD_COLLECTION)
+                .insert(batch)
+                .execute();
+        batch.clear();
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    static String normalizeReason(String reason) {
+        return reason == null || reason.trim().isEmpty() ? UNKNOWN_REASON : reason.trim();
+    }
+
+    private static long durationMinutes(DowntimeEvent event) {
+        if (event.getStartTime() == null || event.getEndTime() == null) {
+            return 0;
+        }
+        return Math.max(0, ChronoUnit.MINUTES.between(event.getStartTime(), event.getEndTime()));
+    }
+
+    private static long metricValue(ReasonParetoDto dto, Metric metric) {
+        return metric == Metric.MINUTES ? dto.getTotalMinutes() : dto.getCount();
+    }
+
+    private static double percent(long value, long total) {
+        return total == 0 ? 0.0 : Math.round(value * 10000.0 / total) / 100.0;
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.ReliabilityDto;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.EquipmentStatus;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Расчет MTBF/MTTR/коэффициента готовности по интервалам простоев.
+ * События читаются курсором в порядке startTime, пересекающиеся интервалы сливаются
+ * за один проход, поэтому память не зависит от количества событий.
+ * Архив (DowntimeArchive) сливается с горячей коллекцией в том же порядке.
+ */
+@Slf4j
+@Service
+@Timed("downtime.service")
+@RequiredArgsConstructor
+public class ReliabilityService {
+
+    private static final String FLEET_KEY = "*";
+    private static final int CURSOR_BATCH_SIZE = 1000;
+    private static final int MAX_CACHE_ENTRIES = 1000;
+
+    // Порядок сортировки запросов - для слияния горячей коллекции с архивом
+    private static final Comparator<DowntimeEvent> START_ORDER =
+            Comparator.comparing(DowntimeEvent::getStartTime, Comparator.<LocalDateTime>nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<DowntimeEvent> FLEET_ORDER = Comparator
+            .comparing(DowntimeEvent::getEquipmentId, Comparator.<String>nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(START_ORDER);
+
+    private final MongoTemplate mongoTemplate;
+    private final EquipmentMonitorService equipmentMonitorService;
+    private final DataVersionService dataVersionService;
+
+    // Кэш результатов по (оборудование, период), сбрасывается при записи по оборудованию.
+    // Записи других процессов (реактивный API, другие экземпляры) отсекаются версией данных
+    private final ConcurrentHashMap<CacheKey, CachedResult> cache = new ConcurrentHashMap<>();
+
+    // Периоды, захватывающие текущий момент, зависят от времени - храним их ограниченно
+    @Value("${downtime.reliability.open-period-ttl:60s}")
+    private Duration openPeriodTtl;
+
+    // ========== ЗАПРОСЫ ==========
+
+    public ReliabilityDto getReliability(String equipmentId, LocalDateTime from, LocalDateTime to) {
+        CacheKey key = new CacheKey(equipmentId, from, to);
+        long version = dataVersionService.currentVersion();
+        List<ReliabilityDto> cached = getCached(key, version);
+        if (cached != null) {
+            return cached.get(0);
+        }
+
+        LocalDateTime effectiveTo = effectiveEnd(to);
+        Query query = intervalQuery(from, effectiveTo);
+        query.addCriteria(Criteria.where("equipmentId").is(equipmentId));
+        query.with(Sort.by(Sort.Direction.ASC, "startTime"));
+
+        IntervalSweep sweep = new IntervalSweep(from, effectiveTo);
+        String equipmentName = null;
+        try (Stream<DowntimeEvent> events = DowntimeArchive.stream(mongoTemplate, query, START_ORDER)) {
+            for (Iterator<DowntimeEvent> it = events.iterator(); it.hasNext(); ) {
+                DowntimeEvent event = it.next();
+                sweep.add(event.getStartTime(), intervalEnd(event, effectiveTo));
+                if (equipmentName == null) {
+                    equipmentName = event.getEquipmentName();
+                }
+            }
+        }
+
+        ReliabilityDto result = toDto(equipmentId, equipmentName, sweep);
+        putCached(key, to, version, List.of(result));
+        return result;
+    }
+
+    /**
+     * Расчет по всему парку за один проход курсора, отсортированного по (equipmentId, startTime).
+     */
+    public List<ReliabilityDto> getFleetReliability(LocalDateTime from, LocalDateTime to) {
+        CacheKey key = new CacheKey(FLEET_KEY, from, to);
+        long version = dataVersionService.currentVersion();
+        List<ReliabilityDto> cached = getCached(key, version);
+        if (cached != null) {
+            return cached;
+        }
+
+        long started = System.nanoTime();
+        LocalDateTime effectiveTo = effectiveEnd(to);
+        Query query = intervalQuery(from, effectiveTo);
+        query.with(Sort.by(Sort.Direction.ASC, "equipmentId", "startTime"));
+
+        Map<String, ReliabilityDto> results = new TreeMap<>();
+        try (Stream<DowntimeEvent> events = DowntimeArchive.stream(mongoTemplate, query, FLEET_ORDER)) {
+            String currentEquipment = null;
+            String currentName = null;
+            IntervalSweep sweep = null;
+
+            for (Iterator<DowntimeEvent> it = events.iterator(); it.hasNext(); ) {
+                DowntimeEvent event = it.next();
+                if (event.getEquipmentId() == null) {
+                    continue;
+                }
+                if (!event.getEquipmentId().equals(currentEquipment)) {
+                    if (sweep != null) {
+                        results.put(currentEquipment, toDto(currentEquipment, currentName, sweep));
+                    }
+                    currentEquipment = event.getEquipmentId();
+                    currentName = event.getEquipmentName();
+                    sweep = new IntervalSweep(from, effectiveTo);
+                }
+                sweep.add(event.getStartTime(), intervalEnd(event, effectiveTo));
+            }
+            if (sweep != null) {
+                results.put(currentEquipment, toDto(currentEquipment, currentName, sweep));
+            }
+        }
+
+        // Оборудование без простоев за период - готовность 100%
+        for (EquipmentStatus status : equipmentMonitorService.getAllEquipmentStatuses()) {
+            results.computeIfAbsent(status.getEquipmentId(), id -> toDto(id, status.getEquipmentName(),
+                    new IntervalSweep(from, effectiveTo)));
+        }
+
+        List<ReliabilityDto> fleet = new ArrayList<>(results.values());
+        log.debug("Надежность парка: {} единиц оборудования за {} мс",
+                fleet.size(), (System.nanoTime() - started) / 1_000_000);
+
+        putCached(key, to, version, fleet);
+        return fleet;
+    }
+
+    // ========== ИНВАЛИДАЦИЯ ==========
+
+    @EventListener
+    public void onDowntimeChanged(DowntimeChangedEvent change) {
+        String equipmentId = change.downtime() != null ? change.downtime().getEquipmentId() : null;
+        cache.keySet().removeIf(key -> FLEET_KEY.equals(key.equipmentId())
+                || equipmentId == null
+                || equipmentId.equals(key.equipmentId()));
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    private Query intervalQuery(LocalDateTime from, LocalDateTime to) {
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("startTime").lt(to),
+                new Criteria().orOperator(
+                        Criteria.where("endTime").gt(from),
+                        Criteria.where("endTime").is(null))));
+        query.fields().include("equipmentId", "equipmentName", "startTime", "endTime", "status");
+        query.cursorBatchSize(CURSOR_BATCH_SIZE);
+        return query;
+    }
+
+    private LocalDateTime intervalEnd(DowntimeEvent event, LocalDateTime effectiveTo) {
+        if (event.getEndTime() != null) {
+            return event.getEndTime();
+        }
+        // Активный простой длится до текущего момента
+        return event.getStatus() == DowntimeStatus.ACTIVE ? effectiveTo : event.getStartTime();
+    }
+
+    private LocalDateTime effectiveEnd(LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        return to.isAfter(now) ? now : to;
+    }
+
+    private ReliabilityDto toDto(String equipmentId, String equipmentName, IntervalSweep sweep) {
+        sweep.finish();
+        long periodMinutes = sweep.periodMinutes();
+        long downtimeMinutes = sweep.downtimeMinutes();
+        long uptimeMinutes = Math.max(0, periodMinutes - downtimeMinutes);
+        int failures = sweep.failureCount();
+
+        ReliabilityDto.ReliabilityDtoBuilder builder = ReliabilityDto.builder()
+                .equipmentId(equipmentId)
+                .equipmentName(equipmentName)
+                .periodStart(sweep.from)
+                .periodEnd(sweep.to)
+                .periodMinutes(periodMinutes)
+                .failureCount(failures)
+                .downtimeMinutes(downtimeMinutes)
+                .uptimeMinutes(uptimeMinutes)
+                .mtbfMinutes(failures > 0 ? round((double) uptimeMinutes / failures) : null)
+                .mttrMinutes(failures > 0 ? round((double) downtimeMinutes / failures) : null)
+                .availability(periodMinutes > 0 ? round(uptimeMinutes * 100.0 / periodMinutes) : 100.0);
+
+        EquipmentStatus monitorStatus = equipmentMonitorService.getEquipmentStatus(equipmentId);
+        if (monitorStatus != null) {
+            long monitorUp = monitorStatus.getUptimeMinutes();
+            long monitorDown = monitorStatus.getDowntimeMinutes();
+            builder.equipmentName(equipmentName != null ? equipmentName : monitorStatus.getEquipmentName())
+                    .monitorUptimeMinutes(monitorUp)
+                    .monitorDowntimeMinutes(monitorDown)
+                    .monitorAvailability(monitorUp + monitorDown > 0
+                            ? round(monitorUp * 100.0 / (monitorUp + monitorDown)) : null);
+        }
+        return builder.build();
+    }
+
+    private List<ReliabilityDto> getCached(CacheKey key, long version) {
+        CachedResult cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.version() != version
+                || (cached.expiresAt() != null && LocalDateTime.now().isAfter(cached.expiresAt()))) {
+            cache.remove(key, cached);
+            return null;
+        }
+        return cached.value();
+    }
+
+    // Версия берется до чтения: результат, посчитанный во время записи, не закрепится под новой версией
+    private void putCached(CacheKey key, LocalDateTime to, long version, List<ReliabilityDto> value) {
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            cache.clear();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = to.isAfter(now) ? now.plus(openPeriodTtl) : null;
+        cache.put(key, new CachedResult(value, version, expiresAt));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private record CacheKey(String equipmentId, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private record CachedResult(List<ReliabilityDto> value, long version, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Слияние интервалов простоя, поступающих в порядке возрастания начала.
+     * Интервалы обрезаются границами периода; пересекающиеся и смежные сливаются в один отказ.
+     */
+    static final class IntervalSweep {
+
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        private LocalDateTime currentStart;
+        private LocalDateTime currentEnd;
+        private long downtimeSeconds;
+        private int failures;
+
+        IntervalSweep(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            if (start == null || end == null) {
+                return;
+            }
+            LocalDateTime clippedStart = start.isBefore(from) ? from : start;
+            LocalDateTime clippedEnd = end.isAfter(to) ? to : end;
+            if (!clippedEnd.isAfter(clippedStart)) {
+                return;
+            }
+
+            if (currentEnd == null) {
+                currentStart = clippedStart;
+                currentEnd = clippedEnd;
+            } else if (!clippedStart.isAfter(currentEnd)) {
+                if (clippedEnd.isAfter(currentEnd)) {
+                    currentEnd = clippedEnd;
+                }
+            } else {
+                flush();
+                currentStart = clippedStart;
+                currentEnd = clippedEnd;
+            }
+        }
+
+        void finish() {
+            if (currentEnd != null) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            downtimeSeconds += Duration.between(currentStart, currentEnd).getSeconds();
+            failures++;
+            currentStart = null;
+            currentEnd = null;
+        }
+
+        long periodMinutes() {
+            return to.isAfter(from) ? Duration.between(from, to).toMinutes() : 0;
+        }
+
+        long downtimeMinutes() {
+            return downtimeSeconds / 60;
+        }
+
+        int failureCount() {
+            return failures;
+        }
+    }
+}
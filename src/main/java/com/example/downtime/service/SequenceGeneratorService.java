@@ -7,6 +7,8 @@ import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
 
@@ -16,6 +18,10 @@ public class SequenceGeneratorService {
     @Autowired
     private MongoOperations mongoOperations;
 
+    // Счетчик общий для всех писателей: внутри транзакции Mongo (downtime.outbox.transactional)
+    // параллельные записи конфликтовали бы на нем (WriteConflict). Транзакция приостанавливается,
+    // номер берется сразу; при откате остается пропуск номера
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Long generateSequence(String seqName) {
         DatabaseSequence counter = mongoOperations.findAndModify(
                 Query.query(Criteria.where("_id").is(seqName)),
@@ -4,6 +4,11 @@ import com.example.downtime.model.Settings;
 import com.example.downtime.repository.SettingsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -18,6 +23,7 @@ import java.util.Optional;
 public class SettingsService {
 
     private final SettingsRepository settingsRepository;
+    private final MongoTemplate mongoTemplate;
 
     // Значения по умолчанию
     private static final Map<String, String> DEFAULT_SETTINGS = new HashMap<>();
@@ -47,23 +53,24 @@ public class SettingsService {
     }
 
     /**
-     * Инициализация настроек по умолчанию при первом запуске
+     * Инициализация настроек по умолчанию при первом запуске.
+     * Один bulk-запрос: upsert по ключу с $setOnInsert - существующие значения не меняются
      */
     public void initializeDefaultSettings() {
         log.info("Проверка инициализации настроек по умолчанию");
 
-        DEFAULT_SETTINGS.forEach((key, defaultValue) -> {
-            if (!settingsRepository.existsByKey(key)) {
-                Settings setting = new Settings(
-                        key,
-                        defaultValue,
-                        getDescription(key),
-                        getCategory(key)
-                );
-                settingsRepository.save(setting);
-                log.info("Создана настройка по умолчанию: {} = {}", key, defaultValue);
-            }
-        });
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Settings.class);
+        LocalDateTime now = LocalDateTime.now();
+        DEFAULT_SETTINGS.forEach((key, defaultValue) -> bulk.upsert(
+                new Query(Criteria.where("key").is(key)),
+                new Update()
+                        .setOnInsert("value", defaultValue)
+                        .setOnInsert("description", getDescription(key))
+                        .setOnInsert("category", getCategory(key))
+                        .setOnInsert("updatedAt", now)));
+        int created = bulk.execute().getUpserts().size();
+
+        log.info("Создано настроек по умолчанию: {} из {}", created, DEFAULT_SETTINGS.size());
     }
 
     /**
@@ -0,0 +1,89 @@
+package com.example.downtime.service;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Слияние двух потоков, уже отсортированных в одном порядке (горячая коллекция и архив).
+ * Потоки читаются лениво, в памяти - по одному элементу из каждого.
+ * Одинаковые элементы на стыке (документ на мгновение есть в обеих коллекциях) выдаются один раз.
+ */
+final class SortedStreams {
+
+    private SortedStreams() {
+    }
+
+    static <T> Stream<T> merge(Stream<T> first, Stream<T> second, Comparator<? super T> order) {
+        Iterator<T> merged = new MergingIterator<>(first.iterator(), second.iterator(), order);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        first.close();
+                    } finally {
+                        second.close();
+                    }
+                });
+    }
+
+    private static final class MergingIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> left;
+        private final Iterator<T> right;
+        private final Comparator<? super T> order;
+
+        private T nextLeft;
+        private T nextRight;
+
+        private MergingIterator(Iterator<T> left, Iterator<T> right, Comparator<? super T> order) {
+            this.left = left;
+            this.right = right;
+            this.order = order;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextLeft == null && left.hasNext()) {
+                nextLeft = left.next();
+            }
+            if (nextRight == null && right.hasNext()) {
+                nextRight = right.next();
+            }
+            return nextLeft != null || nextRight != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result;
+            if (nextRight == null) {
+                result = nextLeft;
+                nextLeft = null;
+            } else if (nextLeft == null) {
+                result = nextRight;
+                nextRight = null;
+            } else {
+                int compared = order.compare(nextLeft, nextRight);
+                if (compared == 0 && Objects.equals(nextLeft, nextRight)) {
+                    nextRight = null;
+                }
+                if (compared <= 0) {
+                    result = nextLeft;
+                    nextLeft = null;
+                } else {
+                    result = nextRight;
+                    nextRight = null;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.downtime.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ход фоновой инициализации в /actuator/health и группе readiness (management.endpoint.health.group.readiness):
+ * OUT_OF_SERVICE, пока не выполнены обязательные задачи StartupOrchestrator.
+ */
+@Component
+@RequiredArgsConstructor
+public class StartupHealthIndicator implements HealthIndicator {
+
+    private final StartupOrchestrator orchestrator;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = orchestrator.isReady() ? Health.up() : Health.outOfService();
+        return builder.withDetails(orchestrator.progress()).build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.downtime.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая инициализация после старта приложения: настройки по умолчанию, мониторинг оборудования
+ * и бакет S3 выполняются параллельно, веб-сервер уже принимает запросы.
+ * Упавшая задача повторяется с экспоненциальной паузой до успеха.
+ * Готовность (readiness, StartupHealthIndicator) ждет только обязательные задачи:
+ * бакет S3 к ним не относится - запросы без фото обслуживаются и при недоступном MinIO.
+ */
+@Slf4j
+@Service
+public class StartupOrchestrator {
+
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private final List<StartupTask> tasks;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${downtime.startup.retry-initial:1s}")
+    private Duration retryInitial;
+
+    @Value("${downtime.startup.retry-max:1m}")
+    private Duration retryMax;
+
+    private ScheduledExecutorService executor;
+
+    public StartupOrchestrator(SettingsService settingsService,
+                               EquipmentMonitorService equipmentMonitorService,
+                               FileStorageService fileStorageService,
+                               MeterRegistry meterRegistry) {
+        this.tasks = List.of(
+                new StartupTask("settings", true, settingsService::initializeDefaultSettings),
+                new StartupTask("equipment-monitor", true, equipmentMonitorService::init),
+                new StartupTask("s3-bucket", false, fileStorageService::ensureBucket));
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = Executors.newScheduledThreadPool(tasks.size(), runnable -> {
+            Thread thread = new Thread(runnable, "startup-orchestrator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Фоновая инициализация: {}", tasks.stream().map(StartupTask::name).toList());
+        for (StartupTask task : tasks) {
+            executor.execute(() -> run(task));
+        }
+    }
+
+    private void run(StartupTask task) {
+        task.started();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            task.action().run();
+            sample.stop(meterRegistry.timer("startup.task", "task", task.name(), "outcome", "success"));
+            task.completed();
+            log.info("Инициализация '{}' завершена за {} попыток", task.name(), task.attempts());
+        } catch (Exception e) {
+            sample.stop(meterRegistry.timer("startup.task", "task", task.name(), "outcome", "failure"));
+            long delayMillis = Math.min(retryMax.toMillis(),
+                    retryInitial.toMillis() * (1L << Math.min(task.attempts() - 1, 20)));
+            task.failed(e);
+            log.warn("Инициализация '{}' не удалась (попытка {}), повтор через {} мс: {}",
+                    task.name(), task.attempts(), delayMillis, e.getMessage());
+            try {
+                executor.schedule(() -> run(task), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                log.debug("Повтор инициализации '{}' отменен: приложение останавливается", task.name());
+            }
+        }
+    }
+
+    /**
+     * Все обязательные задачи выполнены - приложение готово принимать трафик.
+     */
+    public boolean isReady() {
+        return tasks.stream().filter(StartupTask::required).allMatch(task -> task.state() == State.DONE);
+    }
+
+    // Состояние задач для проб и /actuator/health
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        for (StartupTask task : tasks) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("state", task.state());
+            details.put("required", task.required());
+            details.put("attempts", task.attempts());
+            if (task.finishedAt() != null) {
+                details.put("finishedAt", task.finishedAt());
+            }
+            if (task.lastError() != null) {
+                details.put("lastError", task.lastError());
+            }
+            progress.put(task.name(), details);
+        }
+        return progress;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Задача инициализации. required - без нее экземпляр не готов принимать трафик.
+     */
+    static final class StartupTask {
+
+        private final String name;
+        private final boolean required;
+        private final Runnable action;
+
+        private volatile State state = State.PENDING;
+        private volatile int attempts;
+        private volatile String lastError;
+        private volatile LocalDateTime finishedAt;
+
+        StartupTask(String name, boolean required, Runnable action) {
+            this.name = name;
+            this.required = required;
+            this.action = action;
+        }
+
+        String name() {
+            return name;
+        }
+
+        boolean required() {
+            return required;
+        }
+
+        Runnable action() {
+            return action;
+        }
+
+        State state() {
+            return state;
+        }
+
+        int attempts() {
+            return attempts;
+        }
+
+        String lastError() {
+            return lastError;
+        }
+
+        LocalDateTime finishedAt() {
+            return finishedAt;
+        }
+
+        void started() {
+            attempts++;
+            state = State.RUNNING;
+        }
+
+        void completed() {
+            state = State.DONE;
+            lastError = null;
+            finishedAt = LocalDateTime.now();
+        }
+
+        void failed(Exception e) {
+            state = State.FAILED;
+            lastError = e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.downtime.service;
+
+import com.example.downtime.exception.StorageUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Изоляция обращений к S3 от остальных запросов.
+ * Bulkhead: не больше max-concurrent вызовов одновременно и не больше max-waiting ожидающих,
+ * ожидание не дольше max-wait - иначе сразу StorageUnavailableException (503 с Retry-After),
+ * поэтому медленный MinIO занимает ограниченное число потоков Tomcat, а страницы списков продолжают работать.
+ * Сбои S3 (сеть, таймауты, 5xx, 429) повторяются с экспоненциальной паузой и случайным разбросом;
+ * после failure-threshold сбоев подряд автомат размыкается на open-duration и вызовы отклоняются
+ * без обращения к S3, затем пропускается один пробный вызов.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageGuard {
+
+    enum CircuitState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${downtime.storage.bulkhead.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${downtime.storage.bulkhead.max-waiting:16}")
+    private int maxWaiting;
+
+    @Value("${downtime.storage.bulkhead.max-wait:500ms}")
+    private Duration maxWait;
+
+    // Retry-After при переполнении
+    @Value("${downtime.storage.bulkhead.retry-after:5s}")
+    private Duration busyRetryAfter;
+
+    @Value("${downtime.storage.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${downtime.storage.retry.initial:200ms}")
+    private Duration retryInitial;
+
+    @Value("${downtime.storage.retry.max:2s}")
+    private Duration retryMax;
+
+    @Value("${downtime.storage.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${downtime.storage.circuit.open-duration:30s}")
+    private Duration openDuration;
+
+    private Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // Состояние автомата меняется редко - достаточно монитора объекта
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+        Gauge.builder("storage.bulkhead.active", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Выполняющиеся обращения к хранилищу фото")
+                .register(meterRegistry);
+        Gauge.builder("storage.bulkhead.waiting", waiting, AtomicInteger::get)
+                .description("Обращения к хранилищу фото в очереди bulkhead")
+                .register(meterRegistry);
+        Gauge.builder("storage.circuit.open", this, guard -> guard.currentState() == CircuitState.CLOSED ? 0 : 1)
+                .description("Автомат хранилища фото разомкнут")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Вызов S3 под bulkhead, автоматом и повторами. operation - для логов и метрик.
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        acquirePermit(operation);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                beforeCall(operation);
+                try {
+                    T result = call.get();
+                    onSuccess();
+                    return result;
+                } catch (RuntimeException e) {
+                    if (!isStorageFailure(e)) {
+                        // Ошибка запроса (403, 400, валидация) - хранилище исправно, повтор не поможет
+                        onSuccess();
+                        throw e;
+                    }
+                    onFailure(operation, e);
+                    if (attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    meterRegistry.counter("storage.retries", "operation", operation).increment();
+                    long delayMillis = backoffMillis(attempt);
+                    log.warn("Сбой хранилища ({}), попытка {} из {}, повтор через {} мс: {}",
+                            operation, attempt, maxAttempts, delayMillis, e.getMessage());
+                    sleep(delayMillis);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // ========== BULKHEAD ==========
+
+    private void acquirePermit(String operation) {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw reject(operation, "bulkhead", "Очередь загрузок в хранилище переполнена", busyRetryAfter);
+        }
+        try {
+            if (!permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw reject(operation, "bulkhead", "Все слоты загрузки в хранилище заняты", busyRetryAfter);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(operation, "bulkhead", "Ожидание слота загрузки прервано", busyRetryAfter);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    // ========== АВТОМАТ ==========
+
+    private synchronized void beforeCall(String operation) {
+        if (state == CircuitState.OPEN) {
+            long remainingNanos = openDuration.toNanos() - (System.nanoTime() - openedAtNanos);
+            if (remainingNanos > 0) {
+                throw reject(operation, "circuit", "Хранилище фото недоступно", Duration.ofNanos(remainingNanos));
+            }
+            state = CircuitState.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (probeInFlight) {
+                throw reject(operation, "circuit", "Хранилище фото проверяется после сбоя", busyRetryAfter);
+            }
+            probeInFlight = true;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != CircuitState.CLOSED) {
+            log.info("Хранилище фото снова доступно, автомат замкнут");
+        }
+        state = CircuitState.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    private synchronized void onFailure(String operation, RuntimeException e) {
+        meterRegistry.counter("storage.failures", "operation", operation).increment();
+        consecutiveFailures++;
+        if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != CircuitState.OPEN) {
+                log.error("Хранилище фото недоступно ({} сбоев подряд), автомат разомкнут на {} с: {}",
+                        consecutiveFailures, openDuration.toSeconds(), e.getMessage());
+            }
+            state = CircuitState.OPEN;
+            openedAtNanos = System.nanoTime();
+            probeInFlight = false;
+        }
+    }
+
+    synchronized CircuitState currentState() {
+        return state;
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    // Сбой хранилища - сеть, таймаут, 5xx или throttling; причина ищется по цепочке (S3Template оборачивает)
+    static boolean isStorageFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SdkClientException) {
+                return true;
+            }
+            if (cause instanceof AwsServiceException service) {
+                return service.statusCode() >= 500 || service.statusCode() == 429 || service.isThrottlingException();
+            }
+        }
+        return false;
+    }
+
+    // Full jitter: случайная пауза от 0 до экспоненциального предела - повторы шлюзов не приходят волной
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(retryMax.toMillis(), retryInitial.toMillis() * (1L << Math.min(attempt - 1, 20)));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private StorageUnavailableException reject(String operation, String reason, String message, Duration retryAfter) {
+        meterRegistry.counter("storage.rejected", "operation", operation, "reason", reason).increment();
+        log.warn("{} ({}), повтор через {} с", message, operation, retryAfter.toSeconds());
+        return new StorageUnavailableException(message, retryAfter);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageUnavailableException("Повтор загрузки прерван", Duration.ofSeconds(1), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.DowntimeChangeDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POST пачки изменений JSON-массивом. Любой ответ кроме 2xx - ошибка, пачка будет отправлена повторно.
+ */
+@Component
+@ConditionalOnProperty(name = "downtime.outbox.sinks.webhook.enabled", havingValue = "true")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${downtime.outbox.sinks.webhook.url}")
+    private String url;
+
+    public WebhookOutboxSink(RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<DowntimeChangeDto> changes) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        // Получатель может сверить по нему, что пачка уже обработана
+        headers.set("X-Outbox-Last-Seq", String.valueOf(changes.get(changes.size() - 1).getSeq()));
+        restTemplate.postForEntity(url, new HttpEntity<>(changes, headers), Void.class);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.downtime.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Реактивный API простоев (WebFlux + ReactiveMongoTemplate + S3AsyncClient).
+ * Работает с той же базой и бакетом, что и основное приложение, на отдельном порту.
+ * Сканируется только пакет reactive - MVC-контроллеры и блокирующие сервисы не поднимаются,
+ * а в основном приложении эти бины отключены профилем.
+ */
+@Profile("reactive")
+@SpringBootApplication
+public class ReactiveDowntimeApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveDowntimeApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive")
+                .run(args);
+    }
+}
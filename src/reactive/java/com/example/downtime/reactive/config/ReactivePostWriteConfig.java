@@ -0,0 +1,59 @@
+package com.example.downtime.reactive.config;
+
+import com.example.downtime.config.MongoConfig;
+import com.example.downtime.service.DataVersionService;
+import com.example.downtime.service.DowntimeEscalationService;
+import com.example.downtime.service.DowntimeOutboxService;
+import com.example.downtime.service.DowntimeRollupService;
+import com.example.downtime.service.EmailNotificationTransport;
+import com.example.downtime.service.EquipmentCatalogService;
+import com.example.downtime.service.LogNotificationTransport;
+import com.example.downtime.service.NotificationDispatcher;
+import com.example.downtime.service.ReasonAnalyticsService;
+import com.example.downtime.service.SequenceGeneratorService;
+import com.example.downtime.service.SettingsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Слушатели DowntimeChangedEvent основного приложения, которые нужны и реактивным записям:
+ * агрегаты причин и временных корзин, версия данных (ключ кэшей списков и ETag во всех процессах),
+ * справочник оборудования; плюс outbox, в который ReactiveDowntimeService пишет после слушателей.
+ * Все блокирующие - событие и outbox идут на boundedElastic.
+ * Локальные кэши основного приложения (простои по ID, надежность) сверяются с версией данных
+ * и updatedAt в Mongo, поэтому реактивные записи видят без событий.
+ */
+@Profile("reactive")
+@Configuration
+@Import({
+        MongoConfig.class,
+        SequenceGeneratorService.class,
+        DataVersionService.class,
+        DowntimeRollupService.class,
+        ReasonAnalyticsService.class,
+        DowntimeOutboxService.class,
+        EquipmentCatalogService.class
+})
+public class ReactivePostWriteConfig {
+
+    /**
+     * Эскалация и уведомления держат состояние в памяти процесса (сроки активных простоев,
+     * очередь сводок), поэтому должны работать ровно в одном процессе. По умолчанию это
+     * основное приложение; downtime.reactive.escalation.enabled=true - только если реактивный
+     * процесс запущен без него, иначе эскалации задвоятся, а закрытия из другого процесса
+     * не дойдут до отслеживаемых сроков.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "downtime.reactive.escalation.enabled", havingValue = "true")
+    @Import({
+            SettingsService.class,
+            NotificationDispatcher.class,
+            EmailNotificationTransport.class,
+            LogNotificationTransport.class,
+            DowntimeEscalationService.class
+    })
+    static class EscalationConfig {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.downtime.reactive.config;
+
+import com.example.downtime.config.S3MetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Profile("reactive")
+@Configuration
+public class ReactiveS3Config {
+
+    @Value("${aws.s3.endpoint}")
+    private String s3Endpoint;
+
+    @Value("${aws.credentials.access-key}")
+    private String accessKey;
+
+    @Value("${aws.credentials.secret-key}")
+    private String secretKey;
+
+    @Value("${aws.region}")
+    private String region;
+
+    // Параллельные загрузки ограничены пулом соединений, а не потоками
+    @Value("${aws.s3.async.max-concurrency:200}")
+    private int maxConcurrency;
+
+    @Bean(destroyMethod = "close")
+    public S3AsyncClient s3AsyncClient(MeterRegistry meterRegistry) {
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(s3Endpoint))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(accessKey, secretKey)
+                ))
+                .region(Region.of(region))
+                .forcePathStyle(true)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(new S3MetricsInterceptor(meterRegistry))
+                        .build())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .connectionAcquisitionTimeout(Duration.ofSeconds(10)))
+                .build();
+    }
+}
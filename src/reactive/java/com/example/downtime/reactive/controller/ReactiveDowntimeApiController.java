@@ -0,0 +1,104 @@
+package com.example.downtime.reactive.controller;
+
+import com.example.downtime.model.DowntimeRequest;
+import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.reactive.service.ReactiveDowntimeService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Те же пути и контракты, что у DowntimeApiController.
+ * Списки отдаются Flux: JSON-массивом или построчно при Accept: application/x-ndjson.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/downtimes")
+@RequiredArgsConstructor
+public class ReactiveDowntimeApiController {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 10_000;
+
+    private final ReactiveDowntimeService downtimeService;
+
+    @PostMapping
+    public Mono<DowntimeResponse> createDowntime(@Valid @RequestBody DowntimeRequest request) {
+        return downtimeService.createDowntime(request);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<DowntimeResponse> getDowntime(@PathVariable Long id) {
+        return downtimeService.getDowntime(id);
+    }
+
+    @GetMapping
+    public Mono<Page<DowntimeResponse>> getFilteredDowntimes(
+            @RequestParam(required = false) String equipmentId,
+            @RequestParam(required = false) DowntimeStatus status,
+            @RequestParam(required = false) String operator,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return downtimeService.getFilteredDowntimes(equipmentId, status, operator, dateFrom,
+                pageable(page, size));
+    }
+
+    @GetMapping(value = "/equipment/{equipmentId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<DowntimeResponse> getDowntimesByEquipment(
+            @PathVariable String equipmentId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return downtimeService.getDowntimesByEquipment(equipmentId, pageable(page, size));
+    }
+
+    @GetMapping(value = "/active",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<DowntimeResponse> getActiveDowntimes(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return downtimeService.getActiveDowntimes(pageable(page, size));
+    }
+
+    @GetMapping(value = "/operator/{operatorId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<DowntimeResponse> getDowntimesByOperator(
+            @PathVariable String operatorId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return downtimeService.getDowntimesByOperator(operatorId, pageable(page, size));
+    }
+
+    @PutMapping("/{id}/resolve")
+    public Mono<DowntimeResponse> resolveDowntime(
+            @PathVariable Long id,
+            @RequestParam(required = false) String comment) {
+        return downtimeService.resolveDowntime(id, comment);
+    }
+
+    private Pageable pageable(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return Pageable.unpaged();
+        }
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        if (page != null && page < 0) {
+            throw new IllegalArgumentException("Номер страницы не может быть отрицательным");
+        }
+        return PageRequest.of(page != null ? page : 0, pageSize);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.downtime.reactive.controller;
+
+import com.example.downtime.reactive.service.ReactiveDowntimeService;
+import com.example.downtime.reactive.service.ReactivePhotoStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@Profile("reactive")
+@RestController
+@RequestMapping("/downtimes/{downtimeId}/photos")
+@RequiredArgsConstructor
+public class ReactiveFileUploadController {
+
+    private final ReactivePhotoStorageService photoStorageService;
+    private final ReactiveDowntimeService downtimeService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<String> uploadPhoto(
+            @PathVariable Long downtimeId,
+            @RequestPart("file") FilePart file) {
+        // Простой проверяется до загрузки, чтобы не оставлять в бакете файлы без владельца
+        return downtimeService.getDowntime(downtimeId)
+                .then(photoStorageService.uploadFile(file, downtimeId.toString()))
+                .flatMap(photoUrl -> downtimeService.addPhotoToDowntime(downtimeId, photoUrl)
+                        .thenReturn(photoUrl));
+    }
+}
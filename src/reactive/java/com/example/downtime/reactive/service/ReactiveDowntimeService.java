@@ -0,0 +1,241 @@
+package com.example.downtime.reactive.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DatabaseSequence;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeRequest;
+import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.PendingOutboxChange;
+import com.example.downtime.service.DowntimeOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реактивный аналог DowntimeService для create/get/filter/resolve/photo.
+ * Контракты (DowntimeRequest/DowntimeResponse) и правила изменения те же, что в MVC-версии.
+ * После каждой записи публикуется DowntimeChangedEvent - те же слушатели, что у DowntimeService
+ * (см. ReactivePostWriteConfig), затем изменение пишется в outbox.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveDowntimeService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DowntimeOutboxService outboxService;
+
+    // ========== СОЗДАНИЕ ПРОСТОЯ ==========
+
+    public Mono<DowntimeResponse> createDowntime(DowntimeRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // ID из той же последовательности, что использует DowntimeEventModelListener
+        return nextId()
+                .map(id -> DowntimeEvent.builder()
+                        .id(id)
+                        .equipmentId(request.getEquipmentId())
+                        .equipmentName(request.getEquipmentName())
+                        .operatorId(request.getOperatorId())
+                        .operatorName(request.getOperatorName())
+                        .startTime(request.getStartTime() != null ? request.getStartTime() : now)
+                        .endTime(request.getEndTime())
+                        .reason(request.getReason())
+                        .comment(request.getComment())
+                        .status(DowntimeStatus.ACTIVE)
+                        .photoUrls(new ArrayList<>())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .flatMap(event -> {
+                    // Отметка outbox пишется тем же insert (см. DowntimeOutboxService)
+                    PendingOutboxChange change = outboxService.pending(ChangeType.CREATED, event);
+                    return mongoTemplate.insert(event)
+                            .doOnNext(saved -> log.info("Простой {} создан (reactive)", saved.getId()))
+                            .flatMap(saved -> publishChange(change, saved));
+                })
+                .map(DowntimeResponse::from);
+    }
+
+    // ========== ПОЛУЧЕНИЕ ==========
+
+    public Mono<DowntimeResponse> getDowntime(Long id) {
+        return findEventById(id).map(DowntimeResponse::from);
+    }
+
+    public Flux<DowntimeResponse> getDowntimesByEquipment(String equipmentId, Pageable pageable) {
+        return findResponses(Criteria.where("equipmentId").is(equipmentId), pageable);
+    }
+
+    public Flux<DowntimeResponse> getActiveDowntimes(Pageable pageable) {
+        return findResponses(Criteria.where("status").is(DowntimeStatus.ACTIVE), pageable);
+    }
+
+    public Flux<DowntimeResponse> getDowntimesByOperator(String operatorId, Pageable pageable) {
+        return findResponses(Criteria.where("operatorId").is(operatorId), pageable);
+    }
+
+    public Mono<Page<DowntimeResponse>> getFilteredDowntimes(
+            String equipmentId,
+            DowntimeStatus status,
+            String operator,
+            LocalDate dateFrom,
+            Pageable pageable) {
+
+        log.debug("Фильтрация простоев (reactive): equipmentId={}, status={}, operator={}, dateFrom={}",
+                equipmentId, status, operator, dateFrom);
+
+        List<Criteria> criteriaList = new ArrayList<>();
+        if (equipmentId != null && !equipmentId.trim().isEmpty()) {
+            criteriaList.add(Criteria.where("equipmentId").is(equipmentId.trim()));
+        }
+        if (status != null) {
+            criteriaList.add(Criteria.where("status").is(status));
+        }
+        if (operator != null && !operator.trim().isEmpty()) {
+            criteriaList.add(Criteria.where("operatorId").is(operator.trim()));
+        }
+        if (dateFrom != null) {
+            criteriaList.add(Criteria.where("startTime").gte(dateFrom.atStartOfDay()));
+        }
+
+        Query query = new Query();
+        if (!criteriaList.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
+        }
+
+        Pageable sorted = PageRequest.of(
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                pageable.getSortOr(Sort.by(Sort.Direction.DESC, "startTime"))
+        );
+
+        // Подсчет и выборка страницы идут параллельно
+        Mono<Long> total = mongoTemplate.count(Query.of(query), DowntimeEvent.class);
+        Mono<List<DowntimeResponse>> content = mongoTemplate.find(Query.of(query).with(sorted), DowntimeEvent.class)
+                .map(DowntimeResponse::from)
+                .collectList();
+
+        return Mono.zip(content, total)
+                .map(tuple -> new PageImpl<>(tuple.getT1(), sorted, tuple.getT2()));
+    }
+
+    // ========== ИЗМЕНЕНИЕ ==========
+
+    public Mono<DowntimeResponse> addPhotoToDowntime(Long downtimeId, String photoUrl) {
+        log.info("Добавление фото к простою (reactive): {}", downtimeId);
+        return Mono.defer(() -> {
+                    PendingOutboxChange change = outboxService.newChange(ChangeType.PHOTO_ADDED);
+                    Update update = new Update()
+                            .addToSet("photoUrls", photoUrl)
+                            .set("updatedAt", LocalDateTime.now())
+                            .push("outboxPending", change);
+                    return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(downtimeId)), update,
+                                    FindAndModifyOptions.options().returnNew(true), DowntimeEvent.class)
+                            .switchIfEmpty(Mono.error(() -> notFound(downtimeId)))
+                            .flatMap(updated -> publishChange(change, updated));
+                })
+                .map(DowntimeResponse::from);
+    }
+
+    public Mono<DowntimeResponse> resolveDowntime(Long id, String resolutionComment) {
+        log.info("Закрытие простоя (reactive): {}", id);
+        return findEventById(id)
+                .flatMap(event -> {
+                    if (event.getStatus() == DowntimeStatus.RESOLVED) {
+                        return Mono.error(new IllegalStateException("Простой уже закрыт"));
+                    }
+
+                    LocalDateTime now = LocalDateTime.now();
+                    PendingOutboxChange change = outboxService.newChange(ChangeType.RESOLVED);
+                    Update update = new Update()
+                            .set("status", DowntimeStatus.RESOLVED)
+                            .set("endTime", now)
+                            .set("updatedAt", now)
+                            .push("outboxPending", change);
+                    if (resolutionComment != null && !resolutionComment.trim().isEmpty()) {
+                        update.set("comment", resolutionComment(event.getComment(), resolutionComment, now));
+                    }
+
+                    // Условие по статусу защищает от двойного закрытия параллельными запросами
+                    Query query = Query.query(Criteria.where("_id").is(id).and("status").ne(DowntimeStatus.RESOLVED));
+                    return mongoTemplate.findAndModify(query, update,
+                                    FindAndModifyOptions.options().returnNew(true), DowntimeEvent.class)
+                            .switchIfEmpty(Mono.error(() -> new IllegalStateException("Простой уже закрыт")))
+                            .flatMap(resolved -> publishChange(change, resolved));
+                })
+                .map(DowntimeResponse::from);
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    // Слушатели и outbox пишут в Mongo блокирующим драйвером - не на event loop
+    private Mono<DowntimeEvent> publishChange(PendingOutboxChange change, DowntimeEvent event) {
+        return Mono.fromCallable(() -> {
+                    eventPublisher.publishEvent(new DowntimeChangedEvent(change.getType(), event));
+                    outboxService.record(change, event);
+                    return event;
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Flux<DowntimeResponse> findResponses(Criteria criteria, Pageable pageable) {
+        Query query = new Query(criteria);
+        query.with(Sort.by(Sort.Order.desc("startTime"), Sort.Order.desc("_id")));
+        if (pageable.isPaged()) {
+            query.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return mongoTemplate.find(query, DowntimeEvent.class).map(DowntimeResponse::from);
+    }
+
+    private Mono<DowntimeEvent> findEventById(Long id) {
+        return mongoTemplate.findById(id, DowntimeEvent.class)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    private Mono<Long> nextId() {
+        return mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(DowntimeEvent.SEQUENCE_NAME)),
+                        new Update().inc("seq", 1),
+                        FindAndModifyOptions.options().returnNew(true).upsert(true),
+                        DatabaseSequence.class)
+                .map(DatabaseSequence::getSeq)
+                .defaultIfEmpty(1L);
+    }
+
+    private static String resolutionComment(String existing, String resolution, LocalDateTime resolvedAt) {
+        StringBuilder commentBuilder = new StringBuilder();
+        if (existing != null && !existing.isEmpty()) {
+            commentBuilder.append(existing).append("\n\n");
+        }
+        return commentBuilder.append("=== РЕШЕНИЕ ===\n")
+                .append(resolution.trim())
+                .append("\nДата решения: ")
+                .append(resolvedAt)
+                .toString();
+    }
+
+    private static IllegalArgumentException notFound(Long id) {
+        return new IllegalArgumentException("Простой не найден с ID: " + id);
+    }
+}
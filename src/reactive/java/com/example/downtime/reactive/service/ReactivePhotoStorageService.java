@@ -0,0 +1,98 @@
+package com.example.downtime.reactive.service;
+
+import com.example.downtime.exception.FileUploadException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.util.UUID;
+
+/**
+ * Загрузка фото в S3 через S3AsyncClient: поток запроса не ждет S3,
+ * ответ отправляется по завершении CompletableFuture.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactivePhotoStorageService {
+
+    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+
+    private final S3AsyncClient s3AsyncClient;
+
+    @Value("${aws.s3.bucket:downtime-photos}")
+    private String bucketName;
+
+    @Value("${aws.s3.endpoint}")
+    private String s3Endpoint;
+
+    public Mono<String> uploadFile(FilePart file, String downtimeId) {
+        return Mono.defer(() -> {
+            MediaType contentType = file.headers().getContentType();
+            String extension = validateFile(file.filename(), contentType);
+            String key = String.format("downtimes/%s/%s.%s", downtimeId, UUID.randomUUID(), extension);
+            return upload(file, key, contentType);
+        });
+    }
+
+    private Mono<String> upload(FilePart file, String key, MediaType contentType) {
+        // Содержимое собирается в один буфер (не больше 10MB) - S3 требует известную длину
+        return DataBufferUtils.join(file.content(), (int) MAX_FILE_SIZE)
+                .map(buffer -> {
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        return bytes;
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> new FileUploadException("File size exceeds limit (10MB)"))
+                .flatMap(bytes -> {
+                    if (bytes.length == 0) {
+                        return Mono.error(new FileUploadException("File is empty"));
+                    }
+                    PutObjectRequest request = PutObjectRequest.builder()
+                            .bucket(bucketName)
+                            .key(key)
+                            .contentType(contentType.toString())
+                            .contentLength((long) bytes.length)
+                            .build();
+                    return Mono.fromFuture(() -> s3AsyncClient.putObject(request, AsyncRequestBody.fromBytes(bytes)));
+                })
+                .map(response -> fileUrl(key))
+                .doOnNext(url -> log.info("File uploaded successfully (reactive): {}", url));
+    }
+
+    // Path-style адрес, как у S3Template в MVC-версии
+    private String fileUrl(String key) {
+        String endpoint = s3Endpoint.endsWith("/") ? s3Endpoint.substring(0, s3Endpoint.length() - 1) : s3Endpoint;
+        return endpoint + "/" + bucketName + "/" + key;
+    }
+
+    private String validateFile(String filename, MediaType contentType) {
+        if (contentType == null || !"image".equals(contentType.getType())) {
+            throw new FileUploadException("Only image files are allowed. Received: " + contentType);
+        }
+        if (filename == null || !filename.contains(".")) {
+            return "jpg";
+        }
+        String extension = filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
+        if (!extension.matches("jpg|jpeg|png|gif|bmp")) {
+            throw new FileUploadException("Unsupported file extension: " + extension);
+        }
+        return extension;
+    }
+}
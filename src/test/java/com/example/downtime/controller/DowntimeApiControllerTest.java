@@ -0,0 +1,93 @@
+package com.example.downtime.controller;
+
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.service.DataVersionService;
+import com.example.downtime.service.DowntimeService;
+import com.example.downtime.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DowntimeApiControllerTest {
+
+    private DowntimeService downtimeService;
+    private DataVersionService dataVersionService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        downtimeService = mock(DowntimeService.class);
+        dataVersionService = mock(DataVersionService.class);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new DowntimeApiController(downtimeService, objectMapper, dataVersionService,
+                        mock(IdempotencyService.class))).build();
+    }
+
+    @Test
+    void getDowntime_shouldAnswerNotModifiedForMatchingETag() throws Exception {
+        DowntimeEvent event = DowntimeEvent.builder()
+                .id(7L)
+                .equipmentId("EQ001")
+                .status(DowntimeStatus.RESOLVED)
+                .startTime(LocalDateTime.of(2024, 3, 1, 8, 0))
+                .endTime(LocalDateTime.of(2024, 3, 1, 9, 0))
+                .updatedAt(LocalDateTime.of(2024, 3, 1, 9, 0))
+                .build();
+        when(downtimeService.getDowntimeEntity(7L)).thenReturn(event);
+        String etag = ETags.forDowntime(event, true);
+
+        mockMvc.perform(get("/api/downtimes/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+
+        mockMvc.perform(get("/api/downtimes/7").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getActiveDowntimes_shouldSkipQueryWhenDataVersionUnchanged() throws Exception {
+        // ETag активных списков привязан к минуте - запросы не должны попасть на ее границу
+        awayFromMinuteBoundary();
+        when(dataVersionService.currentVersion()).thenReturn(3L);
+        when(downtimeService.getActiveDowntimes(any())).thenReturn(List.of());
+
+        String etag = mockMvc.perform(get("/api/downtimes/active").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/downtimes/active").accept(MediaType.APPLICATION_JSON).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(downtimeService).getActiveDowntimes(any());
+
+        when(dataVersionService.currentVersion()).thenReturn(4L);
+        mockMvc.perform(get("/api/downtimes/active").accept(MediaType.APPLICATION_JSON).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        verify(downtimeService, times(2)).getActiveDowntimes(any());
+    }
+
+    private static void awayFromMinuteBoundary() throws InterruptedException {
+        long leftInMinute = 60_000 - System.currentTimeMillis() % 60_000;
+        if (leftInMinute < 10_000) {
+            Thread.sleep(leftInMinute + 100);
+        }
+    }
+}
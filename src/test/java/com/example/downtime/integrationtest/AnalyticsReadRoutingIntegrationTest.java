@@ -0,0 +1,131 @@
+package com.example.downtime.integrationtest;
+
+import com.example.downtime.config.MongoConfig;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Маршрутизация аналитических чтений (MongoConfig): команды аналитического шаблона уходят
+ * с secondaryPreferred и maxStalenessSeconds, основного - без read preference (primary).
+ * Одноузловой replica set Testcontainers: secondary нет, secondaryPreferred читает primary,
+ * но read preference драйвер передает в каждой команде - ее и проверяем. Без Docker тест пропускается.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AnalyticsReadRoutingIntegrationTest {
+
+    private static final String COLLECTION = "routing_probe";
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6");
+
+    private static final List<CommandStartedEvent> COMMANDS = new CopyOnWriteArrayList<>();
+
+    private static MongoClient mongoClient;
+    private static MongoDatabaseFactory databaseFactory;
+    private static MappingMongoConverter converter;
+
+    private final MongoConfig mongoConfig = new MongoConfig();
+
+    @BeforeAll
+    static void connect() {
+        CommandListener listener = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                COMMANDS.add(event);
+            }
+        };
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(MONGO.getReplicaSetUrl()))
+                .addCommandListener(listener)
+                .build());
+        databaseFactory = new SimpleMongoClientDatabaseFactory(mongoClient, "downtime_routing");
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate primary = mongoConfig.mongoTemplate(databaseFactory, converter);
+        primary.dropCollection(COLLECTION);
+        primary.insert(new Document("reason", "Поломка").append("minutes", 30), COLLECTION);
+        COMMANDS.clear();
+    }
+
+    @Test
+    void analyticsTemplate_shouldReadWithSecondaryPreferredAndMaxStaleness() {
+        MongoTemplate analytics = mongoConfig.analyticsMongoTemplate(
+                databaseFactory, converter, true, Duration.ofSeconds(120));
+
+        List<Document> found = analytics.find(new Query(), Document.class, COLLECTION);
+
+        assertThat(found).hasSize(1);
+        BsonDocument readPreference = lastCommand("find").getDocument("$readPreference");
+        assertThat(readPreference.getString("mode").getValue()).isEqualTo("secondaryPreferred");
+        assertThat(readPreference.getNumber("maxStalenessSeconds").longValue()).isEqualTo(120);
+    }
+
+    @Test
+    void primaryTemplate_shouldNotSendReadPreference() {
+        MongoTemplate primary = mongoConfig.mongoTemplate(databaseFactory, converter);
+
+        assertThat(primary.find(new Query(), Document.class, COLLECTION)).hasSize(1);
+        assertThat(lastCommand("find").containsKey("$readPreference")).isFalse();
+    }
+
+    @Test
+    void analyticsTemplate_withSecondaryReadsDisabled_shouldReadPrimary() {
+        MongoTemplate analytics = mongoConfig.analyticsMongoTemplate(
+                databaseFactory, converter, false, Duration.ofSeconds(120));
+
+        assertThat(analytics.find(new Query(), Document.class, COLLECTION)).hasSize(1);
+        assertThat(lastCommand("find").containsKey("$readPreference")).isFalse();
+    }
+
+    @Test
+    void analyticsTemplate_shouldRejectStalenessBelowDriverMinimum() {
+        assertThatThrownBy(() -> mongoConfig.analyticsMongoTemplate(
+                databaseFactory, converter, true, Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("max-staleness");
+    }
+
+    private static BsonDocument lastCommand(String name) {
+        return COMMANDS.stream()
+                .filter(event -> event.getCommandName().equals(name))
+                .reduce((first, second) -> second)
+                .map(CommandStartedEvent::getCommand)
+                .orElseThrow(() -> new AssertionError("Команда " + name + " не отправлялась"));
+    }
+}
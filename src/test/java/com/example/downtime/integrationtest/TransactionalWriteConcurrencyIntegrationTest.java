@@ -0,0 +1,208 @@
+package com.example.downtime.integrationtest;
+
+import com.example.downtime.config.MongoConfig;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.listener.DowntimeEventModelListener;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeRollup;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.OutboxEntry;
+import com.example.downtime.model.PendingOutboxChange;
+import com.example.downtime.model.ReasonDailyRollup;
+import com.example.downtime.model.RollupGranularity;
+import com.example.downtime.service.DataVersionService;
+import com.example.downtime.service.DowntimeOutboxService;
+import com.example.downtime.service.DowntimeRollupService;
+import com.example.downtime.service.ReasonAnalyticsService;
+import com.example.downtime.service.SequenceGeneratorService;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Параллельные записи простоев в транзакциях Mongo (downtime.outbox.transactional): все
+ * писатели берут номера из общих счетчиков и увеличивают одни и те же корзины агрегатов.
+ * Внутри транзакции это давало WriteConflict; проверяем, что все записи фиксируются,
+ * а outbox, агрегаты и версия данных учитывают каждую. Без Docker тест пропускается.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionalWriteConcurrencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 10;
+    private static final int TOTAL = THREADS * WRITES_PER_THREAD;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 10, 15);
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6");
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void startContext() {
+        context = new SpringApplicationBuilder(TransactionalWriteConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("downtime.rollups.backfill-on-startup=false")
+                .run();
+        // В продакшене коллекции уже есть; неявное создание в параллельных транзакциях тоже конфликтует
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        mongoTemplate.createCollection(DowntimeEvent.class);
+        mongoTemplate.createCollection(OutboxEntry.class);
+    }
+
+    @AfterAll
+    static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void concurrentCreates_shouldAllCommitWithoutWriteConflicts() throws Exception {
+        TransactionalWriter writer = context.getBean(TransactionalWriter.class);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                writes.add(pool.submit(() -> {
+                    startGate.await();
+                    for (int j = 0; j < WRITES_PER_THREAD; j++) {
+                        writer.create();
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> write : writes) {
+                // WriteConflict пришел бы сюда как ExecutionException
+                write.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        assertThat(mongoTemplate.count(new Query(), DowntimeEvent.class)).isEqualTo(TOTAL);
+        assertThat(mongoTemplate.count(new Query(), OutboxEntry.class)).isEqualTo(TOTAL);
+        // Запись outbox снимает отметку в той же транзакции - сборщику нечего дописывать
+        assertThat(mongoTemplate.count(new Query(Criteria.where("outboxPending.0").exists(true)), DowntimeEvent.class))
+                .isZero();
+        assertThat(mongoTemplate.find(new Query(Criteria.where("granularity").is(RollupGranularity.HOUR)),
+                DowntimeRollup.class))
+                .singleElement()
+                .extracting(DowntimeRollup::getCount)
+                .isEqualTo((long) TOTAL);
+        assertThat(mongoTemplate.findAll(ReasonDailyRollup.class))
+                .singleElement()
+                .extracting(ReasonDailyRollup::getCount)
+                .isEqualTo((long) TOTAL);
+        assertThat(context.getBean(DataVersionService.class).currentVersion()).isEqualTo(TOTAL);
+    }
+
+    /**
+     * Запись простоя так же, как DowntimeService.createDowntime: вставка с отметкой, событие и outbox в одной транзакции.
+     */
+    @RequiredArgsConstructor
+    static class TransactionalWriter {
+
+        private final MongoTemplate mongoTemplate;
+        private final ApplicationEventPublisher eventPublisher;
+        private final DowntimeOutboxService outboxService;
+
+        @Transactional
+        public void create() {
+            DowntimeEvent downtime = DowntimeEvent.builder()
+                    .equipmentId("EQ-1")
+                    .equipmentName("Пресс 1")
+                    .operatorId("OP-1")
+                    .reason("Поломка")
+                    .startTime(START)
+                    .status(DowntimeStatus.ACTIVE)
+                    .photoUrls(new ArrayList<>())
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            PendingOutboxChange change = outboxService.pending(ChangeType.CREATED, downtime);
+            DowntimeEvent saved = mongoTemplate.insert(downtime);
+            eventPublisher.publishEvent(new DowntimeChangedEvent(ChangeType.CREATED, saved));
+            outboxService.record(change, saved);
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @Import({
+            SequenceGeneratorService.class,
+            DowntimeEventModelListener.class,
+            DowntimeOutboxService.class,
+            DowntimeRollupService.class,
+            ReasonAnalyticsService.class,
+            DataVersionService.class,
+            TransactionalWriter.class
+    })
+    static class TransactionalWriteConfig {
+
+        @Bean
+        MongoDatabaseFactory databaseFactory() {
+            return new SimpleMongoClientDatabaseFactory(MONGO.getReplicaSetUrl("downtime_tx"));
+        }
+
+        @Bean
+        MappingMongoConverter converter() {
+            MappingMongoConverter converter =
+                    new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+            converter.afterPropertiesSet();
+            return converter;
+        }
+
+        @Bean
+        @Primary
+        MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MappingMongoConverter converter) {
+            return new MongoTemplate(databaseFactory, converter);
+        }
+
+        @Bean(MongoConfig.ANALYTICS_TEMPLATE)
+        MongoTemplate analyticsMongoTemplate(MongoDatabaseFactory databaseFactory, MappingMongoConverter converter) {
+            return new MongoTemplate(databaseFactory, converter);
+        }
+
+        @Bean
+        MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+            return new MongoTransactionManager(databaseFactory);
+        }
+    }
+}
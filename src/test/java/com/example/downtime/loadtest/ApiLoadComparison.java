@@ -0,0 +1,197 @@
+package com.example.downtime.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Сравнение MVC и реактивного API под нагрузкой: N клиентов (по умолчанию 2000) в замкнутом цикле
+ * выполняют одинаковый сценарий против каждого адреса, выводятся throughput и p50/p90/p99.
+ *
+ * Запуск (оба приложения подняты на одной базе):
+ *   mvn spring-boot:run                      # MVC, :8080
+ *   mvn -Preactive spring-boot:run           # WebFlux, :8081
+ *   java -cp target/test-classes com.example.downtime.loadtest.ApiLoadComparison \
+ *        mvc=http://localhost:8080 reactive=http://localhost:8081 clients=2000 duration=60 warmup=15
+ *
+ * Сценарий: 60% - список активных (страница 50), 25% - простой по ID, 15% - создание.
+ * Это не unit-тест, surefire его не запускает.
+ */
+public class ApiLoadComparison {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*\"?(\\d+)");
+    private static final int SEED_EVENTS = 200;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "2000"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("mvc", options.getOrDefault("mvc", "http://localhost:8080"));
+        targets.put("reactive", options.getOrDefault("reactive", "http://localhost:8081"));
+
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            System.out.printf("== %s (%s): %d клиентов, прогрев %ds, замер %ds%n",
+                    target.getKey(), target.getValue(), clients, warmup.toSeconds(), duration.toSeconds());
+            LoadRun run = new LoadRun(target.getValue(), clients);
+            run.seed();
+            run.execute(warmup, null);
+            Result result = new Result(target.getKey());
+            run.execute(duration, result);
+            results.add(result);
+        }
+
+        System.out.printf("%n%-10s %10s %8s %10s %8s %8s %8s %8s%n",
+                "target", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-10s %10d %8d %10.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    result.name, result.histogram.count(), result.histogram.errors(), result.throughput(),
+                    result.histogram.percentile(0.50), result.histogram.percentile(0.90),
+                    result.histogram.percentile(0.99), result.histogram.maxMillis());
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Прогон против одного адреса. Каждый клиент - виртуальный поток, следующий запрос после ответа.
+     */
+    static final class LoadRun {
+
+        private final String baseUrl;
+        private final int clients;
+        private final HttpClient httpClient;
+        private final List<Long> seededIds = new ArrayList<>();
+
+        LoadRun(String baseUrl, int clients) {
+            this.baseUrl = baseUrl;
+            this.clients = clients;
+            this.httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+        }
+
+        void seed() throws Exception {
+            for (int i = 0; i < SEED_EVENTS; i++) {
+                HttpResponse<String> response = httpClient.send(createRequest(), HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = ID_PATTERN.matcher(response.body());
+                if (response.statusCode() == 200 && matcher.find()) {
+                    seededIds.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+            if (seededIds.isEmpty()) {
+                throw new IllegalStateException("Не удалось создать тестовые простои на " + baseUrl);
+            }
+        }
+
+        void execute(Duration duration, Result result) throws InterruptedException {
+            long deadline = System.nanoTime() + duration.toNanos();
+            long started = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            HttpRequest request = nextRequest();
+                            long requestStart = System.nanoTime();
+                            boolean ok;
+                            try {
+                                HttpResponse<Void> response =
+                                        httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                                ok = response.statusCode() < 400;
+                            } catch (Exception e) {
+                                ok = false;
+                            }
+                            if (result != null) {
+                                result.record(System.nanoTime() - requestStart, ok);
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+            if (result != null) {
+                result.elapsedNanos = System.nanoTime() - started;
+            }
+        }
+
+        private HttpRequest nextRequest() {
+            int roll = ThreadLocalRandom.current().nextInt(100);
+            if (roll < 60) {
+                return get("/api/downtimes/active?page=0&size=50");
+            } else if (roll < 85) {
+                long id = seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size()));
+                return get("/api/downtimes/" + id);
+            }
+            return createRequest();
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        }
+
+        private HttpRequest createRequest() {
+            int equipment = ThreadLocalRandom.current().nextInt(1, 21);
+            String body = String.format("""
+                    {"equipmentId":"LOAD%03d","equipmentName":"Нагрузочный стенд %d",\
+                    "operatorId":"LOADOP","operatorName":"Load Test","reason":"Нагрузочный тест",\
+                    "startTime":"%s"}""",
+                    equipment, equipment, LocalDateTime.now().format(TIMESTAMP));
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/downtimes"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+
+    static final class Result {
+
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private volatile long elapsedNanos;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, boolean ok) {
+            histogram.record(nanos, ok);
+        }
+
+        double throughput() {
+            return elapsedNanos > 0 ? histogram.count() * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.downtime.loadtest;
+
+import com.example.downtime.loadtest.LoadScenario.Endpoint;
+import com.example.downtime.loadtest.OpenModelLoadRunner.StageReport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный тест одного узла: ступенчато растущая интенсивность (открытая модель)
+ * до точки насыщения - p99 выше SLO, ошибки выше порога или сервис не успевает за потоком.
+ *
+ * Запуск (нужен Docker, в обычной сборке тест исключен по тегу):
+ *   mvn -Ploadtest test -Dloadtest.rates=10,25,50,100,200,400 -Dloadtest.stageSeconds=60
+ * Отчет: target/loadtest/report.csv и вывод в консоль.
+ */
+@Tag("loadtest")
+class DowntimeLoadTest {
+
+    private static final double[] RATES = Arrays.stream(
+                    System.getProperty("loadtest.rates", "10,25,50,100,200,400").split(","))
+            .mapToDouble(rate -> Double.parseDouble(rate.trim()))
+            .toArray();
+    private static final Duration STAGE = Duration.ofSeconds(Long.getLong("loadtest.stageSeconds", 30));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 20));
+    private static final double SLO_P99_MS = Double.parseDouble(System.getProperty("loadtest.sloP99Ms", "1000"));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01"));
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("loadtest.maxInFlight", 2000);
+    private static final int SEED_EVENTS = 200;
+
+    @Test
+    void findSaturationPoint() throws Exception {
+        try (LoadTestEnvironment environment = new LoadTestEnvironment().start()) {
+            LoadScenario scenario = new LoadScenario(environment.baseUrl());
+            seed(scenario);
+
+            OpenModelLoadRunner runner = new OpenModelLoadRunner(scenario, MAX_IN_FLIGHT);
+            System.out.printf("Прогрев %d с при %.0f req/s%n", WARMUP.toSeconds(), RATES[0]);
+            runner.runStage(RATES[0], WARMUP);
+
+            List<StageReport> reports = new ArrayList<>();
+            StageReport saturated = null;
+            for (double rate : RATES) {
+                StageReport report = runner.runStage(rate, STAGE);
+                reports.add(report);
+                printStage(report);
+                if (isSaturated(report)) {
+                    saturated = report;
+                    break;
+                }
+            }
+
+            writeCsv(reports, Path.of("target", "loadtest", "report.csv"));
+            if (saturated != null) {
+                StageReport lastHealthy = reports.size() > 1 ? reports.get(reports.size() - 2) : null;
+                System.out.printf("%nНасыщение при %.0f req/s (p99 %.0f мс, ошибки %.2f%%, выполнено %.1f req/s). "
+                                + "Последняя устойчивая ступень: %s%n",
+                        saturated.offeredRate(), saturated.worstP99Millis(), saturated.errorRate() * 100,
+                        saturated.achievedRate(),
+                        lastHealthy != null ? String.format(Locale.ROOT, "%.0f req/s", lastHealthy.offeredRate()) : "нет");
+            } else {
+                System.out.printf("%nНасыщение не достигнуто до %.0f req/s%n", RATES[RATES.length - 1]);
+            }
+
+            assertThat(reports).isNotEmpty();
+            assertThat(reports.get(0).achievedRate()).isPositive();
+        }
+    }
+
+    private void seed(LoadScenario scenario) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        for (int i = 0; i < SEED_EVENTS; i++) {
+            HttpRequest request = scenario.create();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            scenario.onResponse(request, response);
+        }
+    }
+
+    private boolean isSaturated(StageReport report) {
+        return report.worstP99Millis() > SLO_P99_MS
+                || report.errorRate() > MAX_ERROR_RATE
+                || report.achievedRate() < report.offeredRate() * 0.95;
+    }
+
+    private void printStage(StageReport report) {
+        System.out.printf("%n== %.0f req/s: выполнено %.1f req/s, ошибки %.2f%%, отброшено %d%n",
+                report.offeredRate(), report.achievedRate(), report.errorRate() * 100, report.dropped());
+        System.out.printf("%-18s %8s %7s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            LatencyHistogram histogram = report.histogram(endpoint);
+            System.out.printf("%-18s %8d %7d %9.1f %9.1f %9.1f %9.1f%n", endpoint, histogram.count(), histogram.errors(),
+                    histogram.percentile(0.50), histogram.percentile(0.95), histogram.percentile(0.99),
+                    histogram.maxMillis());
+        }
+    }
+
+    private void writeCsv(List<StageReport> reports, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("offered_rps,achieved_rps,endpoint,count,errors,p50_ms,p95_ms,p99_ms,max_ms");
+            for (StageReport report : reports) {
+                for (Endpoint endpoint : Endpoint.values()) {
+                    LatencyHistogram histogram = report.histogram(endpoint);
+                    writer.printf(Locale.ROOT, "%.0f,%.1f,%s,%d,%d,%.1f,%.1f,%.1f,%.1f%n",
+                            report.offeredRate(), report.achievedRate(), endpoint, histogram.count(), histogram.errors(),
+                            histogram.percentile(0.50), histogram.percentile(0.95), histogram.percentile(0.99),
+                            histogram.maxMillis());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.downtime.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек с шагом 100 мкс до 60 с - без хранения каждого замера,
+ * запись из любого количества потоков.
+ */
+public class LatencyHistogram {
+
+    private static final long BUCKET_NANOS = 100_000;
+    private static final int BUCKETS = 600_000;
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos, boolean ok) {
+        requests.incrementAndGet();
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+        histogram.incrementAndGet((int) Math.max(0, Math.min(BUCKETS - 1, nanos / BUCKET_NANOS)));
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() {
+        return requests.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public double errorRate() {
+        long total = requests.get();
+        return total > 0 ? (double) errors.get() / total : 0;
+    }
+
+    public double percentile(double quantile) {
+        long total = requests.get();
+        long threshold = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += histogram.get(bucket);
+            if (seen >= threshold && seen > 0) {
+                return (bucket + 1) * BUCKET_NANOS / 1_000_000.0;
+            }
+        }
+        return 0;
+    }
+
+    public double maxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+}
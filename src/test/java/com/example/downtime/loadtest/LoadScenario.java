@@ -0,0 +1,174 @@
+package com.example.downtime.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Смесь запросов, близкая к реальной смене: операторы создают и закрывают простои,
+ * прикладывают фото; мастера смотрят список с фильтрами; дашборды мониторинга опрашиваются постоянно.
+ */
+public class LoadScenario {
+
+    public enum Endpoint {
+        CREATE(15),
+        PHOTO_UPLOAD(5),
+        INDEX_PAGE(30),
+        MONITOR_DASHBOARD(40),
+        RESOLVE(10);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*\"?(\\d+)");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int EQUIPMENT_COUNT = 20;
+    private static final int TOTAL_WEIGHT = List.of(Endpoint.values()).stream().mapToInt(e -> e.weight).sum();
+
+    // PNG 1x1 - фото для загрузки
+    private static final byte[] PHOTO = Base64.getDecoder().decode(
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mP8z8BQDwAEhQGAhKmMIQAAAABJRU5ErkJggg==");
+
+    private final String baseUrl;
+    // Созданные и еще не закрытые простои - цели для resolve
+    private final ConcurrentLinkedDeque<Long> activeIds = new ConcurrentLinkedDeque<>();
+    // Все известные простои - цели для фото
+    private final List<Long> knownIds = new CopyOnWriteArrayList<>();
+    // Последний ETag по адресу - страницы опрашиваются условными запросами, как это делает браузер
+    private final ConcurrentHashMap<URI, String> etags = new ConcurrentHashMap<>();
+
+    public LoadScenario(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public Endpoint nextEndpoint() {
+        int roll = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.MONITOR_DASHBOARD;
+    }
+
+    /**
+     * Запрос для точки входа. Если для resolve/photo нет подходящего простоя - создаем новый.
+     */
+    public HttpRequest request(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (endpoint) {
+            case CREATE -> create();
+            case PHOTO_UPLOAD -> {
+                if (knownIds.isEmpty()) {
+                    yield create();
+                }
+                yield photoUpload(knownIds.get(random.nextInt(knownIds.size())));
+            }
+            case INDEX_PAGE -> get("/web/downtimes?" + indexFilter(random));
+            case MONITOR_DASHBOARD -> get("/web/monitor/dashboard");
+            case RESOLVE -> {
+                Long id = activeIds.pollFirst();
+                yield id != null ? resolve(id) : create();
+            }
+        };
+    }
+
+    /**
+     * Разбор ответа: ETag страниц запоминается для условных запросов,
+     * ID созданного простоя добавляется в пулы для resolve и фото.
+     */
+    public void onResponse(HttpRequest request, HttpResponse<String> response) {
+        if ("GET".equals(request.method())) {
+            response.headers().firstValue("ETag").ifPresent(etag -> etags.put(request.uri(), etag));
+            return;
+        }
+        int status = response.statusCode();
+        String body = response.body();
+        if (status != 200 || body == null || !"POST".equals(request.method())
+                || !request.uri().getPath().equals("/api/downtimes")) {
+            return;
+        }
+        Matcher matcher = ID_PATTERN.matcher(body);
+        if (matcher.find()) {
+            long id = Long.parseLong(matcher.group(1));
+            activeIds.addLast(id);
+            knownIds.add(id);
+        }
+    }
+
+    public HttpRequest create() {
+        int equipment = ThreadLocalRandom.current().nextInt(1, EQUIPMENT_COUNT + 1);
+        String body = String.format("""
+                {"equipmentId":"LOAD%03d","equipmentName":"Нагрузочный стенд %d",\\
+                "operatorId":"OP%03d","operatorName":"Оператор %d","reason":"Нагрузочный тест",\\
+                "startTime":"%s"}""",
+                equipment, equipment, equipment % 5, equipment % 5,
+                LocalDateTime.now().minusMinutes(ThreadLocalRandom.current().nextInt(240)).format(TIMESTAMP));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/downtimes"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest resolve(long id) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/downtimes/" + id + "/resolve?comment=load"))
+                .timeout(REQUEST_TIMEOUT)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpRequest photoUpload(long id) {
+        String boundary = "----load" + UUID.randomUUID();
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/downtimes/" + id + "/photos"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(head, PHOTO, tail)))
+                .build();
+    }
+
+    private String indexFilter(ThreadLocalRandom random) {
+        int page = random.nextInt(3);
+        return switch (random.nextInt(4)) {
+            case 0 -> "page=" + page;
+            case 1 -> "status=ACTIVE&page=" + page;
+            case 2 -> String.format("equipmentId=LOAD%03d", random.nextInt(1, EQUIPMENT_COUNT + 1));
+            default -> "dateFrom=" + LocalDateTime.now().toLocalDate().minusDays(1);
+        };
+    }
+
+    private HttpRequest get(String path) {
+        URI uri = URI.create(baseUrl + path);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        String etag = etags.get(uri);
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.downtime.loadtest;
+
+import com.example.downtime.DowntimeApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Стенд для нагрузочного теста: MongoDB и MinIO в Testcontainers + приложение на случайном порту.
+ * Образы те же, что в docker-compose.yml, но с зафиксированными тегами - базовые замеры
+ * воспроизводимы между прогонами; после однократного docker pull стенд работает без сети.
+ */
+@Slf4j
+public class LoadTestEnvironment implements AutoCloseable {
+
+    private static final String MONGO_IMAGE = System.getProperty("loadtest.mongoImage", "mongo:6");
+    private static final String MINIO_IMAGE = System.getProperty("loadtest.minioImage", "minio/minio:RELEASE.2024-10-13T13-34-11Z");
+
+    private final MongoDBContainer mongo = new MongoDBContainer(MONGO_IMAGE);
+    private final MinIOContainer minio = new MinIOContainer(MINIO_IMAGE);
+    private ConfigurableApplicationContext context;
+
+    public LoadTestEnvironment start() {
+        mongo.start();
+        minio.start();
+        log.info("Mongo: {}, MinIO: {}", mongo.getReplicaSetUrl(), minio.getS3URL());
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.data.mongodb.uri", mongo.getReplicaSetUrl("downtime_loadtest"));
+        properties.put("aws.s3.endpoint", minio.getS3URL());
+        properties.put("aws.credentials.access-key", minio.getUserName());
+        properties.put("aws.credentials.secret-key", minio.getPassword());
+        properties.put("spring.cloud.aws.s3.endpoint", minio.getS3URL());
+        properties.put("spring.cloud.aws.credentials.access-key", minio.getUserName());
+        properties.put("spring.cloud.aws.credentials.secret-key", minio.getPassword());
+        // Как в продакшене: кэш шаблонов включен, без DEBUG-логов на каждый запрос
+        properties.put("spring.thymeleaf.cache", true);
+        properties.put("logging.level.com.example.downtime", "INFO");
+        properties.put("logging.level.io.awspring.cloud", "WARN");
+        properties.put("logging.level.software.amazon.awssdk", "WARN");
+        properties.put("logging.level.org.springframework.cloud.aws", "WARN");
+        properties.put("logging.level.org.thymeleaf", "WARN");
+        properties.put("logging.file.name", "target/loadtest/application.log");
+
+        context = new SpringApplicationBuilder(DowntimeApplication.class)
+                .properties(properties)
+                .run();
+        log.info("Приложение запущено: {}", baseUrl());
+        return this;
+    }
+
+    public String baseUrl() {
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        return "http://localhost:" + port;
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+        minio.stop();
+        mongo.stop();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.downtime.loadtest;
+
+import com.example.downtime.loadtest.LoadScenario.Endpoint;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки: запросы приходят пуассоновским потоком с заданной интенсивностью
+ * независимо от того, успевает ли сервис отвечать. Задержка считается от запланированного
+ * момента отправки, поэтому очередь на стороне клиента не скрывает деградацию (coordinated omission).
+ */
+public class OpenModelLoadRunner {
+
+    private final LoadScenario scenario;
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+
+    public OpenModelLoadRunner(LoadScenario scenario, int maxInFlight) {
+        this.scenario = scenario;
+        this.maxInFlight = maxInFlight;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public StageReport runStage(double ratePerSecond, Duration duration) {
+        StageReport report = new StageReport(ratePerSecond);
+        AtomicInteger inFlight = new AtomicInteger();
+        double meanGapNanos = 1_000_000_000.0 / ratePerSecond;
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long nextArrival = start;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (nextArrival < end) {
+                long wait = nextArrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                long intendedStart = nextArrival;
+                Endpoint endpoint = scenario.nextEndpoint();
+                report.offered.incrementAndGet();
+
+                if (inFlight.get() >= maxInFlight) {
+                    // Клиентский предел достигнут - сервис не справляется, запрос считается отказом
+                    report.dropped.incrementAndGet();
+                    report.histogram(endpoint).record(System.nanoTime() - intendedStart, false);
+                } else {
+                    inFlight.incrementAndGet();
+                    executor.submit(() -> {
+                        try {
+                            execute(endpoint, intendedStart, report);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+
+                double gap = -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos;
+                nextArrival += (long) gap;
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void execute(Endpoint endpoint, long intendedStart, StageReport report) {
+        HttpRequest request = scenario.request(endpoint);
+        boolean ok;
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            ok = response.statusCode() < 400;
+            scenario.onResponse(request, response);
+        } catch (Exception e) {
+            ok = false;
+        }
+        report.histogram(endpoint).record(System.nanoTime() - intendedStart, ok);
+    }
+
+    /**
+     * Результат одной ступени нагрузки по каждой точке входа.
+     */
+    public static class StageReport {
+
+        private final double offeredRate;
+        private final Map<Endpoint, LatencyHistogram> histograms = new EnumMap<>(Endpoint.class);
+        private final AtomicLong offered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long elapsedNanos;
+
+        StageReport(double offeredRate) {
+            this.offeredRate = offeredRate;
+            for (Endpoint endpoint : Endpoint.values()) {
+                histograms.put(endpoint, new LatencyHistogram());
+            }
+        }
+
+        public LatencyHistogram histogram(Endpoint endpoint) {
+            return histograms.get(endpoint);
+        }
+
+        public double worstP99Millis() {
+            return histograms.values().stream()
+                    .filter(histogram -> histogram.count() > 0)
+                    .mapToDouble(histogram -> histogram.percentile(0.99))
+                    .max()
+                    .orElse(0);
+        }
+
+        public double offeredRate() {
+            return offeredRate;
+        }
+
+        public double achievedRate() {
+            long completed = histograms.values().stream().mapToLong(h -> h.count() - h.errors()).sum();
+            return elapsedNanos > 0 ? completed * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        public double errorRate() {
+            long total = histograms.values().stream().mapToLong(LatencyHistogram::count).sum();
+            long errors = histograms.values().stream().mapToLong(LatencyHistogram::errors).sum();
+            return total > 0 ? (double) errors / total : 0;
+        }
+
+        public long dropped() {
+            return dropped.get();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.downtime.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DowntimeResponseTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    void from_shouldCopyFieldsAndComputeDuration() {
+        DowntimeEvent event = event(DowntimeStatus.RESOLVED, START.plusMinutes(135));
+
+        DowntimeResponse response = DowntimeResponse.from(event);
+
+        assertThat(response.getId()).isEqualTo(1L);
+        assertThat(response.getEquipmentId()).isEqualTo("EQ001");
+        assertThat(response.getStartTime()).isEqualTo(START);
+        assertThat(response.getDurationMinutes()).isEqualTo(135L);
+        assertThat(response.getDurationFormatted()).isEqualTo("2ч 15м");
+        assertThat(response.getIsLongDowntime()).isTrue();
+        assertThat(response.getIsActive()).isFalse();
+        assertThat(response.getCurrentDurationMinutes()).isNull();
+    }
+
+    @Test
+    void from_activeDowntimeWithoutEndTimeShouldHaveNoDuration() {
+        DowntimeResponse response = DowntimeResponse.from(event(DowntimeStatus.ACTIVE, null));
+
+        assertThat(response.getEndTime()).isNull();
+        assertThat(response.getDurationMinutes()).isNull();
+        assertThat(response.getDurationFormatted()).isNull();
+        assertThat(response.getIsActive()).isTrue();
+        assertThat(response.getCurrentDurationMinutes()).isNotNull().isGreaterThan(60L);
+        assertThat(response.getIsLongDowntime()).isTrue();
+    }
+
+    @Test
+    void from_withoutStatusAndPhotosShouldReturnEmptyValues() {
+        DowntimeEvent event = event(null, null);
+        event.setPhotoUrls(null);
+
+        DowntimeResponse response = DowntimeResponse.from(event);
+
+        assertThat(response.getStatusText()).isNull();
+        assertThat(response.getStatusColor()).isNull();
+        assertThat(response.getStatusIcon()).isNull();
+        assertThat(response.getCurrentDurationMinutes()).isNull();
+        assertThat(response.getPhotoUrls()).isEmpty();
+        assertThat(response.getPhotoCount()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DowntimeStatus.class)
+    void statusFields_shouldComeFromStatus(DowntimeStatus status) {
+        DowntimeResponse response = DowntimeResponse.from(event(status, START.plusMinutes(5)));
+
+        assertThat(response.getStatusText()).isEqualTo(status.getDisplayName());
+        assertThat(response.getStatusColor()).isEqualTo(status.getColor());
+        assertThat(response.getStatusIcon()).isEqualTo(status.getIcon());
+        assertThat(response.getIsActive()).isEqualTo(status == DowntimeStatus.ACTIVE);
+    }
+
+    @Test
+    void photoUrls_shouldNotBeModifiableThroughResponse() {
+        DowntimeEvent event = event(DowntimeStatus.ACTIVE, null);
+
+        DowntimeResponse response = DowntimeResponse.from(event);
+
+        assertThat(response.getPhotoCount()).isEqualTo(2);
+        assertThatThrownBy(() -> response.getPhotoUrls().add("photo-3.jpg"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(event.getPhotoUrls()).containsExactly("photo-1.jpg", "photo-2.jpg");
+    }
+
+    @Test
+    void formatDuration_shouldMatchInsideAndOutsideCachedRange() {
+        assertThat(DowntimeResponse.formatDuration(0)).isEqualTo("0м");
+        assertThat(DowntimeResponse.formatDuration(45)).isEqualTo("45м");
+        assertThat(DowntimeResponse.formatDuration(120)).isEqualTo("2ч");
+        assertThat(DowntimeResponse.formatDuration(61)).isEqualTo("1ч 01м");
+        assertThat(DowntimeResponse.formatDuration(24 * 60 + 5)).isEqualTo("24ч 05м");
+    }
+
+    private static DowntimeEvent event(DowntimeStatus status, LocalDateTime endTime) {
+        return DowntimeEvent.builder()
+                .id(1L)
+                .equipmentId("EQ001")
+                .equipmentName("Токарный станок ЧПУ")
+                .startTime(endTime != null ? START : LocalDateTime.now().minusHours(2))
+                .endTime(endTime)
+                .status(status)
+                .photoUrls(new ArrayList<>(List.of("photo-1.jpg", "photo-2.jpg")))
+                .build();
+    }
+}
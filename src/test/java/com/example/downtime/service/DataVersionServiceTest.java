@@ -0,0 +1,51 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataVersionServiceTest {
+
+    private SequenceGeneratorService sequenceGenerator;
+    private DataVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        sequenceGenerator = mock(SequenceGeneratorService.class);
+        service = new DataVersionService(mock(MongoTemplate.class), sequenceGenerator);
+        ReflectionTestUtils.setField(service, "versionCheckInterval", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void onDowntimeChanged_shouldBumpVersion() {
+        when(sequenceGenerator.generateSequence(DataVersionService.DOWNTIME_VERSION)).thenReturn(5L);
+
+        service.onDowntimeChanged(change());
+
+        assertThat(service.currentVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void onDowntimeChanged_bumpFailureShouldNotFailWrite() {
+        when(sequenceGenerator.generateSequence(DataVersionService.DOWNTIME_VERSION))
+                .thenThrow(new DataAccessResourceFailureException("Mongo недоступна"));
+
+        assertThatCode(() -> service.onDowntimeChanged(change())).doesNotThrowAnyException();
+    }
+
+    private static DowntimeChangedEvent change() {
+        return new DowntimeChangedEvent(ChangeType.CREATED, DowntimeEvent.builder().id(1L).build());
+    }
+}
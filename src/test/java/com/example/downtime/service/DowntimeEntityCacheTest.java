@@ -0,0 +1,86 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.repository.DowntimeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DowntimeEntityCacheTest {
+
+    private final LocalDateTime updatedAt = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private DowntimeRepository repository;
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private DowntimeEntityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DowntimeRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DowntimeEntityCache(repository, mongoTemplate, meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxWeight", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(cache, "revalidateAfter", Duration.ofMinutes(1));
+        cache.init();
+
+        when(repository.findById(1L)).thenReturn(Optional.of(event(updatedAt)));
+    }
+
+    @Test
+    void get_shouldServeRepeatedReadsFromCache() {
+        assertThat(cache.get(1L)).isPresent();
+        assertThat(cache.get(1L)).isPresent();
+
+        verify(repository, times(1)).findById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "downtime.entity").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void onDowntimeChanged_shouldInvalidateEntry() {
+        cache.get(1L);
+        cache.onDowntimeChanged(new DowntimeChangedEvent(DowntimeChangedEvent.ChangeType.RESOLVED, event(updatedAt)));
+        cache.get(1L);
+
+        verify(repository, times(2)).findById(1L);
+    }
+
+    @Test
+    void get_shouldReloadWhenUpdatedAtChangedElsewhere() {
+        cache.get(1L);
+        // Окно сверки обнуляется после первой загрузки - дальше каждое чтение сверяет updatedAt
+        ReflectionTestUtils.setField(cache, "revalidateAfter", Duration.ZERO);
+
+        when(mongoTemplate.findOne(any(Query.class), eq(DowntimeEvent.class))).thenReturn(event(updatedAt));
+        cache.get(1L);
+        verify(repository, times(1)).findById(1L);
+
+        when(mongoTemplate.findOne(any(Query.class), eq(DowntimeEvent.class))).thenReturn(event(updatedAt.plusMinutes(1)));
+        cache.get(1L);
+        verify(repository, times(2)).findById(1L);
+        assertThat(meterRegistry.get("cache.revalidations").tag("result", "stale").counter().count()).isEqualTo(1.0);
+    }
+
+    private DowntimeEvent event(LocalDateTime updatedAt) {
+        return DowntimeEvent.builder().id(1L).equipmentId("EQ001").updatedAt(updatedAt).build();
+    }
+}
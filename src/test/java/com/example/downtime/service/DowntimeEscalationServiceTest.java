@@ -0,0 +1,140 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.event.DowntimeEscalatedEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.repository.DowntimeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DowntimeEscalationServiceTest {
+
+    private DowntimeRepository downtimeRepository;
+    private final List<DowntimeEscalatedEvent> escalations = new CopyOnWriteArrayList<>();
+    private DowntimeEscalationService service;
+
+    @BeforeEach
+    void setUp() {
+        downtimeRepository = mock(DowntimeRepository.class);
+        service = new DowntimeEscalationService(downtimeRepository, event -> {
+            if (event instanceof DowntimeEscalatedEvent escalated) {
+                escalations.add(escalated);
+            }
+        }, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "seedOnStartup", true);
+        // По умолчанию простой в базе все еще активен
+        when(downtimeRepository.findById(any())).thenAnswer(invocation ->
+                Optional.of(downtime(invocation.getArgument(0), LocalDateTime.now())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void start_shouldSkipThresholdsPassedBeforeStartup() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "thresholds",
+                new Duration[]{Duration.ofSeconds(30), Duration.ofMillis(60_200), Duration.ofMinutes(10)});
+        when(downtimeRepository.findByStatus(DowntimeStatus.ACTIVE))
+                .thenReturn(List.of(downtime(1L, LocalDateTime.now().minusMinutes(1))));
+
+        service.start();
+        waitFor(() -> !escalations.isEmpty());
+
+        assertThat(escalations).singleElement().satisfies(event -> {
+            assertThat(event.downtimeId()).isEqualTo(1L);
+            assertThat(event.level()).isEqualTo(2);
+        });
+        assertThat(service.pendingDeadlines()).isEqualTo(1);
+    }
+
+    @Test
+    void onDowntimeChanged_resolvedDowntimeShouldNotEscalate() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "thresholds",
+                new Duration[]{Duration.ofMillis(100), Duration.ofMillis(200)});
+        when(downtimeRepository.findByStatus(DowntimeStatus.ACTIVE)).thenReturn(List.of());
+        service.start();
+
+        DowntimeEvent escalated = downtime(1L, LocalDateTime.now());
+        DowntimeEvent resolved = downtime(2L, LocalDateTime.now());
+        service.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.CREATED, escalated));
+        service.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.CREATED, resolved));
+        service.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.RESOLVED, resolved));
+
+        waitFor(() -> escalations.size() >= 2);
+
+        assertThat(escalations).extracting(DowntimeEscalatedEvent::downtimeId).containsOnly(1L);
+        assertThat(escalations).extracting(DowntimeEscalatedEvent::level).containsExactly(1, 2);
+        assertThat(service.trackedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fire_downtimeResolvedByAnotherProcessShouldNotEscalate() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "thresholds", new Duration[]{Duration.ofMillis(100)});
+        when(downtimeRepository.findByStatus(DowntimeStatus.ACTIVE)).thenReturn(List.of());
+        DowntimeEvent closedElsewhere = downtime(3L, LocalDateTime.now());
+        closedElsewhere.setStatus(DowntimeStatus.RESOLVED);
+        when(downtimeRepository.findById(3L)).thenReturn(Optional.of(closedElsewhere));
+        service.start();
+
+        service.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.CREATED, downtime(3L, LocalDateTime.now())));
+        waitFor(() -> service.trackedCount() == 0);
+
+        assertThat(escalations).isEmpty();
+        assertThat(service.trackedCount()).isZero();
+    }
+
+    @Test
+    void start_downtimeResolvedDuringSnapshotLoadShouldNotBeTracked() {
+        ReflectionTestUtils.setField(service, "thresholds", new Duration[]{Duration.ofMinutes(30)});
+        DowntimeEvent resolvedDuringLoad = downtime(4L, LocalDateTime.now());
+        // Снимок прочитан до закрытия простоя 4, а событие о закрытии пришло, пока загрузка шла
+        when(downtimeRepository.findByStatus(DowntimeStatus.ACTIVE)).thenAnswer(invocation -> {
+            service.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.RESOLVED, resolvedDuringLoad));
+            return List.of(downtime(4L, LocalDateTime.now()), downtime(5L, LocalDateTime.now()));
+        });
+
+        service.start();
+
+        assertThat(service.trackedCount()).isEqualTo(1);
+        assertThat(service.pendingDeadlines()).isEqualTo(1);
+    }
+
+    private static DowntimeEvent downtime(Long id, LocalDateTime startTime) {
+        return DowntimeEvent.builder()
+                .id(id)
+                .equipmentId("EQ-" + id)
+                .equipmentName("Станок " + id)
+                .status(DowntimeStatus.ACTIVE)
+                .startTime(startTime)
+                .build();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        // Запас на случай лишних эскалаций
+        Thread.sleep(100);
+    }
+}
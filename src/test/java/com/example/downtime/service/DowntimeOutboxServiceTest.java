@@ -0,0 +1,168 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.OutboxEntry;
+import com.example.downtime.model.PendingOutboxChange;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DowntimeOutboxServiceTest {
+
+    private static final String HOT = "downtime_events";
+
+    private MongoTemplate mongoTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private DowntimeOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        outboxService = new DowntimeOutboxService(mongoTemplate, mock(SequenceGeneratorService.class), eventPublisher);
+        when(mongoTemplate.getCollectionName(DowntimeEvent.class)).thenReturn(HOT);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(DowntimeEvent.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ReflectionTestUtils.setField(outboxService, "gapTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(outboxService, "writeAttempts", 3);
+        ReflectionTestUtils.setField(outboxService, "writeRetryDelay", Duration.ofMillis(1));
+    }
+
+    @Test
+    void readAfter_shouldStopBeforeRecentGap() {
+        LocalDateTime now = LocalDateTime.now();
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEntry.class)))
+                .thenReturn(List.of(entry(11, now), entry(12, now), entry(14, now)));
+
+        // #13 еще вставляется - курсор не должен его перескочить
+        assertThat(outboxService.readAfter(10, 100))
+                .extracting(OutboxEntry::getSeq)
+                .containsExactly(11L, 12L);
+    }
+
+    @Test
+    void readAfter_shouldSkipGapOlderThanTimeout() {
+        LocalDateTime old = LocalDateTime.now().minusMinutes(1);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEntry.class)))
+                .thenReturn(List.of(entry(11, old), entry(14, old), entry(15, LocalDateTime.now())));
+
+        assertThat(outboxService.readAfter(10, 100))
+                .extracting(OutboxEntry::getSeq)
+                .containsExactly(11L, 14L, 15L);
+    }
+
+    @Test
+    void record_shouldRetryTransientInsertFailure() {
+        when(mongoTemplate.insert(any(OutboxEntry.class)))
+                .thenThrow(new DataAccessResourceFailureException("Mongo недоступна"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        DowntimeEvent downtime = downtime();
+        PendingOutboxChange change = outboxService.pending(ChangeType.CREATED, downtime);
+
+        outboxService.record(change, downtime);
+
+        verify(mongoTemplate, times(2)).insert(any(OutboxEntry.class));
+        assertThat(downtime.getOutboxPending()).isEmpty();
+    }
+
+    @Test
+    void record_shouldRethrowWhenAttemptsExhausted() {
+        when(mongoTemplate.insert(any(OutboxEntry.class)))
+                .thenThrow(new DataAccessResourceFailureException("Mongo недоступна"));
+
+        DowntimeEvent downtime = downtime();
+        PendingOutboxChange change = outboxService.pending(ChangeType.CREATED, downtime);
+
+        assertThatThrownBy(() -> outboxService.record(change, downtime))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(mongoTemplate, times(3)).insert(any(OutboxEntry.class));
+        // Отметка остается - запись допишет сборщик
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(DowntimeEvent.class));
+        assertThat(downtime.getOutboxPending()).containsExactly(change);
+    }
+
+    @Test
+    void record_duplicateChangeShouldCountAsWritten() {
+        when(mongoTemplate.insert(any(OutboxEntry.class)))
+                .thenThrow(new DuplicateKeyException("outbox_change_id_idx"));
+        DowntimeEvent downtime = downtime();
+        PendingOutboxChange change = outboxService.pending(ChangeType.RESOLVED, downtime);
+
+        outboxService.record(change, downtime);
+
+        verify(mongoTemplate, times(1)).insert(any(OutboxEntry.class));
+        assertThat(downtime.getOutboxPending()).isEmpty();
+    }
+
+    @Test
+    void recoverPending_shouldWriteStaleChangeAndClearMarker() {
+        PendingOutboxChange stale = change(ChangeType.PHOTO_ADDED, LocalDateTime.now().minusMinutes(5));
+        PendingOutboxChange fresh = change(ChangeType.RESOLVED, LocalDateTime.now());
+        DowntimeEvent downtime = downtime();
+        downtime.setOutboxPending(new ArrayList<>(List.of(stale, fresh)));
+        when(mongoTemplate.find(any(Query.class), eq(DowntimeEvent.class), eq(HOT))).thenReturn(List.of(downtime));
+
+        assertThat(outboxService.recoverPending(Duration.ofSeconds(30), 100)).isEqualTo(1);
+
+        verify(mongoTemplate).insert(argThat((OutboxEntry entry) -> stale.getChangeId().equals(entry.getChangeId())
+                && entry.getType() == ChangeType.PHOTO_ADDED
+                && entry.getDowntime().getOutboxPending() == null));
+        assertThat(downtime.getOutboxPending()).containsExactly(fresh);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void recoverPending_shouldFinishInterruptedDelete() {
+        DowntimeEvent downtime = downtime();
+        downtime.setOutboxPending(new ArrayList<>(List.of(change(ChangeType.DELETED, LocalDateTime.now().minusMinutes(5)))));
+        when(mongoTemplate.find(any(Query.class), eq(DowntimeEvent.class), eq(HOT))).thenReturn(List.of(downtime));
+        when(mongoTemplate.remove(any(Query.class), anyString())).thenReturn(DeleteResult.acknowledged(1));
+
+        assertThat(outboxService.recoverPending(Duration.ofSeconds(30), 100)).isEqualTo(1);
+
+        verify(mongoTemplate).insert(argThat((OutboxEntry entry) -> entry.getType() == ChangeType.DELETED));
+        verify(mongoTemplate).remove(any(Query.class), eq(HOT));
+        verify(eventPublisher).publishEvent(argThat((DowntimeChangedEvent event) ->
+                event.type() == ChangeType.DELETED && event.downtime().getId().equals(7L)));
+    }
+
+    private static DowntimeEvent downtime() {
+        return DowntimeEvent.builder().id(7L).equipmentId("EQ-7").build();
+    }
+
+    private static PendingOutboxChange change(ChangeType type, LocalDateTime createdAt) {
+        return PendingOutboxChange.builder().changeId(type + "-" + createdAt).type(type).createdAt(createdAt).build();
+    }
+
+    private static OutboxEntry entry(long seq, LocalDateTime createdAt) {
+        return OutboxEntry.builder().seq(seq).downtimeId(seq).createdAt(createdAt).build();
+    }
+}
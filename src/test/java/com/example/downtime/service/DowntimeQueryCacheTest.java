@@ -0,0 +1,115 @@
+package com.example.downtime.service;
+
+import com.example.downtime.model.DowntimeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DowntimeQueryCacheTest {
+
+    private static final Sort SORT = Sort.by(Sort.Direction.DESC, "startTime");
+
+    private DataVersionService dataVersionService;
+    private DowntimeQueryCache queryCache;
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService = mock(DataVersionService.class);
+        when(dataVersionService.currentVersion()).thenReturn(1L);
+        queryCache = new DowntimeQueryCache(dataVersionService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(queryCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(queryCache, "ttl", Duration.ofMinutes(1));
+        queryCache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryCache.shutdown();
+    }
+
+    @Test
+    void getPage_shouldCoalesceConcurrentIdenticalQueries() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Page<DowntimeResponse>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                // Пробелы в фильтре нормализуются - ключ тот же
+                String equipmentId = i % 2 == 0 ? "EQ001" : " EQ001 ";
+                results.add(callers.submit(() -> queryCache.getPage(equipmentId, null, "", null, 0, 5, SORT, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return new PageImpl<>(List.of());
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Page<DowntimeResponse>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEmpty();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void getPage_shouldReloadAfterDataVersionChanges() {
+        AtomicInteger loads = new AtomicInteger();
+
+        queryCache.getPage(null, null, null, null, 0, 5, SORT, () -> page(loads));
+        queryCache.getPage(null, null, null, null, 0, 5, SORT, () -> page(loads));
+        assertThat(loads).hasValue(1);
+
+        when(dataVersionService.currentVersion()).thenReturn(2L);
+        queryCache.getPage(null, null, null, null, 0, 5, SORT, () -> page(loads));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void getPage_shouldNotCacheFailedLoads() {
+        AtomicInteger loads = new AtomicInteger();
+
+        try {
+            queryCache.getPage(null, null, null, null, 0, 5, SORT, () -> {
+                loads.incrementAndGet();
+                throw new IllegalStateException("Mongo недоступна");
+            });
+        } catch (IllegalStateException expected) {
+            // ожидаемо
+        }
+        queryCache.getPage(null, null, null, null, 0, 5, SORT, () -> page(loads));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private Page<DowntimeResponse> page(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
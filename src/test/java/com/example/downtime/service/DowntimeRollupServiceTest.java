@@ -0,0 +1,113 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.RollupBucketDto;
+import com.example.downtime.dto.RollupSummaryDto;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.RollupGranularity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.bson.Document;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DowntimeRollupServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 10, 0, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private DowntimeRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rollupService, "shiftStartHours", new int[]{16, 0, 8});
+        rollupService.init();
+    }
+
+    @Test
+    void bucketStart_shouldAlignToShifts() {
+        assertThat(rollupService.bucketStart(RollupGranularity.SHIFT, DAY.plusHours(7).plusMinutes(59)))
+                .isEqualTo(DAY);
+        assertThat(rollupService.bucketStart(RollupGranularity.SHIFT, DAY.plusHours(17)))
+                .isEqualTo(DAY.plusHours(16));
+        assertThat(rollupService.nextBucketStart(RollupGranularity.SHIFT, DAY.plusHours(16)))
+                .isEqualTo(DAY.plusDays(1));
+    }
+
+    @Test
+    void chooseGranularity_shouldPickCoarsestAlignedBuckets() {
+        assertThat(rollupService.chooseGranularity(DAY, DAY.plusDays(7))).isEqualTo(RollupGranularity.DAY);
+        assertThat(rollupService.chooseGranularity(DAY.plusHours(8), DAY.plusHours(16)))
+                .isEqualTo(RollupGranularity.SHIFT);
+        assertThat(rollupService.chooseGranularity(DAY.plusHours(9), DAY.plusHours(11)))
+                .isEqualTo(RollupGranularity.HOUR);
+    }
+
+    @Test
+    void contribute_resolvedShouldSplitDurationAcrossBuckets() {
+        DowntimeEvent event = DowntimeEvent.builder()
+                .equipmentId("EQ-001")
+                .startTime(DAY.plusHours(7).plusMinutes(30))
+                .endTime(DAY.plusHours(9).plusMinutes(15))
+                .status(DowntimeStatus.RESOLVED)
+                .build();
+
+        Map<String, Long> deltas = new HashMap<>();
+        rollupService.contribute(event, ChangeType.RESOLVED, (granularity, bucketStart, field, delta) ->
+                deltas.merge(granularity + "|" + bucketStart.toLocalTime() + "|" + field, delta, Long::sum));
+
+        assertThat(deltas)
+                .containsEntry("HOUR|07:00|durationSeconds", 1800L)
+                .containsEntry("HOUR|08:00|durationSeconds", 3600L)
+                .containsEntry("HOUR|09:00|durationSeconds", 900L)
+                .containsEntry("HOUR|09:00|activeAtStart", 1L)
+                .containsEntry("HOUR|07:00|resolvedCount", 1L)
+                .containsEntry("SHIFT|00:00|durationSeconds", 1800L)
+                .containsEntry("SHIFT|08:00|durationSeconds", 4500L)
+                .containsEntry("SHIFT|08:00|activeAtStart", 1L)
+                .containsEntry("DAY|00:00|durationSeconds", 6300L)
+                .doesNotContainKey("HOUR|07:00|activeAtStart");
+    }
+
+    @Test
+    void getRollups_shouldCountStillActiveDowntimesAtBucketBoundaries() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", DAY.plusHours(7)).append("count", 1L)), new Document()));
+        when(mongoTemplate.find(any(Query.class), eq(DowntimeEvent.class))).thenReturn(List.of(
+                DowntimeEvent.builder().startTime(DAY.plusHours(7).plusMinutes(30)).build()));
+
+        RollupSummaryDto summary = rollupService.getRollups(null, DAY.plusHours(7), DAY.plusHours(10));
+
+        assertThat(summary.getBuckets())
+                .extracting(bucket -> bucket.getBucketStart().getHour(), RollupBucketDto::getActiveAtStart)
+                .containsExactly(
+                        tuple(7, 0L),
+                        tuple(8, 1L),
+                        tuple(9, 1L));
+        assertThat(summary.getTotalCount()).isEqualTo(1);
+    }
+}
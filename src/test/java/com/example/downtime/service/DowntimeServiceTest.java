@@ -1,31 +1,49 @@
 package com.example.downtime.service;
 
+import com.example.downtime.dto.DowntimeListPageDto;
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.DowntimeChangedEvent;
 import com.example.downtime.factory.DowntimeTestFactory;
 import com.example.downtime.model.DowntimeEvent;
 import com.example.downtime.model.DowntimeRequest;
 import com.example.downtime.model.DowntimeResponse;
 import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.PendingOutboxChange;
 import com.example.downtime.repository.DowntimeRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.within;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.within;
 import static java.time.temporal.ChronoUnit.SECONDS;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +55,18 @@ class DowntimeServiceTest {
     @Mock
     private DowntimeRepository downtimeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EquipmentCatalogService equipmentCatalog;
+
+    @Mock
+    private DowntimeOutboxService outboxService;
+
     @Spy
     @InjectMocks
     private DowntimeService downtimeService;
@@ -98,6 +128,7 @@ class DowntimeServiceTest {
 
     @Test
     void createDowntime_Success() {
+        stubPendingChange();
         when(downtimeRepository.save(any(DowntimeEvent.class)))
                 .thenReturn(event);
         DowntimeResponse response = downtimeService.createDowntime(request);
@@ -111,11 +142,26 @@ class DowntimeServiceTest {
 
         verify(downtimeRepository, times(1))
                 .save(any(DowntimeEvent.class));
+        verify(eventPublisher).publishEvent(any(DowntimeChangedEvent.class));
+
+    }
 
+    @Test
+    void createDowntime_outboxFailure_shouldPropagateAfterListeners() {
+        stubPendingChange();
+        when(downtimeRepository.save(any(DowntimeEvent.class))).thenReturn(event);
+        doThrow(new DataAccessResourceFailureException("Mongo недоступна"))
+                .when(outboxService).record(any(PendingOutboxChange.class), eq(event));
+
+        assertThatThrownBy(() -> downtimeService.createDowntime(request))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        // Слушатели отработали до outbox - их работа не пропадает из-за его ошибки
+        verify(eventPublisher).publishEvent(any(DowntimeChangedEvent.class));
     }
 
     @Test
     void createDowntime_UsesCurrentTime_WhenStartTimeNotProvided() {
+        stubPendingChange();
         LocalDateTime mockedNow = LocalDateTime.now()
                 .truncatedTo(ChronoUnit.SECONDS);
         doReturn(mockedNow).when(downtimeService).getCurrentTime();
@@ -152,6 +198,32 @@ class DowntimeServiceTest {
     void getDowntimesByEquipment() {
     }
 
+    @Test
+    void streamDowntimesByEquipment_shouldMergeArchiveAndApplyPageAfterMerge() {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 8, 0);
+        DowntimeEvent hot4 = event.toBuilder().id(4L).startTime(base.plusHours(4)).build();
+        DowntimeEvent hot2 = event.toBuilder().id(2L).startTime(base.plusHours(2)).build();
+        DowntimeEvent archived3 = event.toBuilder().id(3L).startTime(base.plusHours(3)).build();
+        DowntimeEvent archived1 = event.toBuilder().id(1L).startTime(base.plusHours(1)).build();
+        when(mongoTemplate.stream(any(Query.class), eq(DowntimeEvent.class))).thenReturn(Stream.of(hot4, hot2));
+        when(mongoTemplate.stream(any(Query.class), eq(DowntimeEvent.class), eq(DowntimeArchive.COLLECTION)))
+                .thenReturn(Stream.of(archived3, archived1));
+
+        try (Stream<DowntimeResponse> responses =
+                     downtimeService.streamDowntimesByEquipment("EQ001", PageRequest.of(1, 2))) {
+            assertThat(responses).extracting(DowntimeResponse::getId).containsExactly(2L, 1L);
+        }
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(captor.capture(), eq(DowntimeEvent.class));
+        Query query = captor.getValue();
+        assertThat(query.getQueryObject()).containsEntry("equipmentId", "EQ001");
+        assertThat(query.getSortObject()).containsEntry("startTime", -1).containsEntry("_id", -1);
+        // Каждая коллекция читается до конца страницы, пропуск - после слияния
+        assertThat(query.getSkip()).isZero();
+        assertThat(query.getLimit()).isEqualTo(4);
+    }
+
     @Test
     void getActiveDowntimes() {
     }
@@ -164,10 +236,86 @@ class DowntimeServiceTest {
     void getFilteredDowntimes() {
     }
 
+    @Test
+    void getListPageModel_shouldReadAllFacetsFromSingleAggregation() {
+        Document facets = new Document("page", List.of())
+                .append("total", List.of(new Document("count", 42)))
+                .append("active", List.of(new Document("count", 3)))
+                .append("today", List.of())
+                .append("resolved", List.of(new Document("durationMs", 2 * 90 * 60_000L).append("count", 2)))
+                .append("photos", List.of(new Document("count", 7)));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(DowntimeEvent.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(facets), new Document()));
+        when(equipmentCatalog.getAll()).thenReturn(List.of(new EquipmentDto("EQ001", "Станок 1")));
+
+        DowntimeListPageDto page = downtimeService.getListPageModel(null, null, null, null, PageRequest.of(0, 5));
+
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(DowntimeEvent.class), eq(Document.class));
+        assertThat(page.getDowntimes().getTotalElements()).isEqualTo(42);
+        assertThat(page.getEquipmentList()).extracting(EquipmentDto::getEquipmentId).containsExactly("EQ001");
+        assertThat(page.getActiveCount()).isEqualTo(3);
+        assertThat(page.getTodayCount()).isZero();
+        assertThat(page.getAvgDuration()).isEqualTo("1ч 30м");
+        assertThat(page.getPhotosCount()).isEqualTo(7);
+    }
+
+    @Test
+    void statistics_shouldBeUnchangedAfterArchiving() {
+        DowntimeEvent recent = DowntimeEvent.builder().id(1L).equipmentName("Станок 1")
+                .status(DowntimeStatus.ACTIVE).startTime(LocalDateTime.of(2024, 3, 10, 8, 0)).build();
+        DowntimeEvent old = DowntimeEvent.builder().id(2L).equipmentName("Станок 2")
+                .status(DowntimeStatus.RESOLVED).startTime(LocalDateTime.of(2024, 3, 1, 8, 0))
+                .endTime(LocalDateTime.of(2024, 3, 1, 9, 30)).build();
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+
+        // До переноса оба простоя в горячей коллекции
+        when(mongoTemplate.stream(any(Query.class), eq(DowntimeEvent.class)))
+                .thenAnswer(invocation -> Stream.of(recent, old));
+        when(mongoTemplate.stream(any(Query.class), eq(DowntimeEvent.class), eq(DowntimeArchive.COLLECTION)))
+                .thenAnswer(invocation -> Stream.empty());
+        when(downtimeRepository.countByStatus(DowntimeStatus.RESOLVED)).thenReturn(1L);
+        when(mongoTemplate.count(any(Query.class), eq(DowntimeArchive.COLLECTION))).thenReturn(0L);
+        Map<String, Object> before = downtimeService.getStatistics(from, to);
+        long resolvedBefore = downtimeService.countByStatus(DowntimeStatus.RESOLVED);
+
+        // После переноса закрытый простой только в архиве
+        when(mongoTemplate.stream(any(Query.class), eq(DowntimeEvent.class)))
+                .thenAnswer(invocation -> Stream.of(recent));
+        when(mongoTemplate.stream(any(Query.class), eq(DowntimeEvent.class), eq(DowntimeArchive.COLLECTION)))
+                .thenAnswer(invocation -> Stream.of(old));
+        when(downtimeRepository.countByStatus(DowntimeStatus.RESOLVED)).thenReturn(0L);
+        when(mongoTemplate.count(any(Query.class), eq(DowntimeArchive.COLLECTION))).thenReturn(1L);
+        Map<String, Object> after = downtimeService.getStatistics(from, to);
+
+        assertThat(after).isEqualTo(before);
+        assertThat(after).containsEntry("totalEvents", 2L).containsEntry("totalDurationMinutes", 90L);
+        assertThat(downtimeService.countByStatus(DowntimeStatus.RESOLVED)).isEqualTo(resolvedBefore).isEqualTo(1L);
+    }
+
+    @Test
+    void countTotalPhotos_shouldIncludeArchive() {
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        when(mongoTemplate.aggregate(aggregation.capture(), eq(DowntimeEvent.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("count", 5)), new Document()));
+
+        assertThat(downtimeService.countTotalPhotos()).isEqualTo(5);
+        assertThat(aggregation.getValue().toString()).contains("$unionWith", DowntimeArchive.COLLECTION);
+    }
+
     @Test
     void getCurrentTime() {
         assertThat(downtimeService.getCurrentTime()).isNotNull();
         assertThat(downtimeService.getCurrentTime())
                 .isCloseTo(LocalDateTime.now(), within(10, ChronoUnit.SECONDS));
     }
-}
\ No newline at end of file
+
+    // Отметка outbox, как ее создает DowntimeOutboxService.pending
+    private void stubPendingChange() {
+        when(outboxService.pending(any(DowntimeChangedEvent.ChangeType.class), any(DowntimeEvent.class)))
+                .thenAnswer(invocation -> PendingOutboxChange.builder()
+                        .changeId("change-1")
+                        .type(invocation.getArgument(0))
+                        .build());
+    }
+}
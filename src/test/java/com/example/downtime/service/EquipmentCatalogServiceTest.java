@@ -0,0 +1,73 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.EquipmentRegisteredEvent;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.Equipment;
+import com.example.downtime.repository.EquipmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EquipmentCatalogServiceTest {
+
+    @Mock
+    private EquipmentRepository equipmentRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private EquipmentCatalogService catalogService;
+
+    @BeforeEach
+    void setUp() {
+        when(equipmentRepository.count()).thenReturn(1L);
+        when(equipmentRepository.findAll()).thenReturn(List.of(
+                new Equipment("EQ002", "Фрезерный станок", LocalDateTime.now())));
+        catalogService.init();
+    }
+
+    @Test
+    void onDowntimeChanged_shouldRegisterNewEquipmentOnce() {
+        DowntimeEvent downtime = DowntimeEvent.builder().equipmentId("EQ001").equipmentName("Токарный станок").build();
+
+        catalogService.onDowntimeChanged(new DowntimeChangedEvent(DowntimeChangedEvent.ChangeType.CREATED, downtime));
+        catalogService.onDowntimeChanged(new DowntimeChangedEvent(DowntimeChangedEvent.ChangeType.CREATED, downtime));
+
+        assertThat(catalogService.getAll()).extracting(EquipmentDto::getEquipmentId).containsExactly("EQ001", "EQ002");
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(Equipment.class));
+        verify(eventPublisher).publishEvent(new EquipmentRegisteredEvent("EQ001", "Токарный станок"));
+    }
+
+    @Test
+    void register_shouldIgnoreKnownAndBlankEquipment() {
+        assertThat(catalogService.register("EQ002", "Другое имя")).isFalse();
+        assertThat(catalogService.register(" ", "Без ID")).isFalse();
+
+        assertThat(catalogService.get("EQ002").getEquipmentName()).isEqualTo("Фрезерный станок");
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(Equipment.class));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.EquipmentOwnershipChangedEvent;
+import com.example.downtime.event.EquipmentRegisteredEvent;
+import com.example.downtime.model.EquipmentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EquipmentMonitorServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EquipmentCatalogService catalog;
+    private EquipmentOwnershipService ownership;
+    private EquipmentMonitorService monitorService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalog = mock(EquipmentCatalogService.class);
+        when(catalog.getAll()).thenReturn(List.of(
+                new EquipmentDto("EQ001", "Токарный станок ЧПУ"),
+                new EquipmentDto("EQ002", "Фрезерный станок")));
+        ownership = mock(EquipmentOwnershipService.class);
+        monitorService = new EquipmentMonitorService(meterRegistry, catalog, ownership);
+        monitorService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitorService.shutdown();
+    }
+
+    @Test
+    void setEquipmentStatus_shouldCountManualTransition() {
+        EquipmentStatus equipment = monitorService.getAllEquipmentStatuses().get(0);
+        EquipmentStatus.Status from = equipment.getCurrentStatus();
+        EquipmentStatus.Status to = from == EquipmentStatus.Status.WORKING
+                ? EquipmentStatus.Status.DOWNTIME : EquipmentStatus.Status.WORKING;
+
+        monitorService.setEquipmentStatus(equipment.getEquipmentId(), to);
+
+        assertThat(meterRegistry.get("equipment.status.transitions")
+                .tag("source", "manual")
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void init_shouldRegisterStatusGaugesAndExecutorMetrics() {
+        double total = meterRegistry.get("equipment.status.current").gauges().stream()
+                .mapToDouble(gauge -> gauge.value())
+                .sum();
+
+        assertThat(total).isEqualTo(monitorService.getAllEquipmentStatuses().size());
+        assertThat(meterRegistry.find("executor.queued").tag("name", "equipment-monitor").gauge()).isNotNull();
+    }
+
+    @Test
+    void init_shouldMonitorEquipmentFromCatalog() {
+        assertThat(monitorService.getAllEquipmentStatuses())
+                .extracting(EquipmentStatus::getEquipmentId)
+                .containsExactlyInAnyOrder("EQ001", "EQ002");
+    }
+
+    @Test
+    void onEquipmentRegistered_shouldStartMonitoringNewEquipmentOnce() {
+        monitorService.onEquipmentRegistered(new EquipmentRegisteredEvent("EQ100", "Новый станок"));
+        monitorService.onEquipmentRegistered(new EquipmentRegisteredEvent("EQ100", "Новый станок"));
+
+        assertThat(monitorService.getEquipmentStatus("EQ100"))
+                .extracting(EquipmentStatus::getEquipmentName, EquipmentStatus::getCurrentStatus)
+                .containsExactly("Новый станок", EquipmentStatus.Status.WORKING);
+        assertThat(monitorService.getAllEquipmentStatuses()).hasSize(3);
+    }
+
+    @Test
+    void onOwnershipChanged_shouldMonitorOnlyLeasedEquipmentAndReadOthersFromSnapshots() {
+        monitorService.shutdown();
+        when(ownership.isEnabled()).thenReturn(true);
+        EquipmentStatus published = EquipmentStatus.builder()
+                .equipmentId("EQ002")
+                .equipmentName("Фрезерный станок")
+                .currentStatus(EquipmentStatus.Status.DOWNTIME)
+                .build();
+        when(ownership.loadSnapshot("EQ001")).thenReturn(Optional.empty());
+        when(ownership.loadSnapshot("EQ002")).thenReturn(Optional.of(published));
+        when(ownership.loadSnapshots()).thenReturn(List.of(published));
+        when(catalog.get("EQ001")).thenReturn(new EquipmentDto("EQ001", "Токарный станок ЧПУ"));
+        monitorService = new EquipmentMonitorService(meterRegistry, catalog, ownership);
+        monitorService.init();
+
+        monitorService.onOwnershipChanged(new EquipmentOwnershipChangedEvent(Set.of("EQ001"), Set.of()));
+        monitorService.setEquipmentStatus("EQ001", EquipmentStatus.Status.DOWNTIME);
+
+        verify(ownership).publishSnapshot(any(EquipmentStatus.class));
+        assertThat(monitorService.getEquipmentStatus("EQ002")).isEqualTo(published);
+        assertThat(monitorService.getAllEquipmentStatuses())
+                .extracting(EquipmentStatus::getEquipmentId)
+                .containsExactlyInAnyOrder("EQ001", "EQ002");
+
+        // Чужое оборудование - команда уходит владельцу
+        monitorService.setEquipmentStatus("EQ002", EquipmentStatus.Status.WORKING);
+        verify(ownership).forwardStatus("EQ002", EquipmentStatus.Status.WORKING);
+
+        monitorService.onOwnershipChanged(new EquipmentOwnershipChangedEvent(Set.of(), Set.of("EQ001")));
+        assertThat(monitorService.getEquipmentStatus("EQ001")).isNull();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.EquipmentDto;
+import com.example.downtime.event.EquipmentOwnershipChangedEvent;
+import com.example.downtime.model.Equipment;
+import com.example.downtime.model.EquipmentLease;
+import com.example.downtime.model.MonitorNode;
+import com.example.downtime.repository.EquipmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EquipmentOwnershipServiceTest {
+
+    private static final List<String> EQUIPMENT = IntStream.rangeClosed(1, 300)
+            .mapToObj(i -> String.format("EQ%03d", i))
+            .toList();
+
+    @Test
+    void ownerOf_shouldSpreadEquipmentAcrossNodes() {
+        List<String> nodes = List.of("node-a", "node-b", "node-c");
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String equipmentId : EQUIPMENT) {
+            counts.merge(EquipmentOwnershipService.ownerOf(equipmentId, nodes), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys(nodes);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(60, 140));
+    }
+
+    @Test
+    void ownerOf_shouldMoveOnlyEquipmentOfLeavingNode() {
+        List<String> before = List.of("node-a", "node-b", "node-c");
+        List<String> after = List.of("node-a", "node-c");
+
+        for (String equipmentId : EQUIPMENT) {
+            String oldOwner = EquipmentOwnershipService.ownerOf(equipmentId, before);
+            String newOwner = EquipmentOwnershipService.ownerOf(equipmentId, after);
+            if (!oldOwner.equals("node-b")) {
+                assertThat(newOwner).isEqualTo(oldOwner);
+            }
+        }
+    }
+
+    @Test
+    void ownerOf_shouldNotDependOnNodeOrder() {
+        for (String equipmentId : EQUIPMENT) {
+            assertThat(EquipmentOwnershipService.ownerOf(equipmentId, List.of("node-a", "node-b")))
+                    .isEqualTo(EquipmentOwnershipService.ownerOf(equipmentId, List.of("node-b", "node-a")));
+        }
+    }
+
+    @Test
+    void rebalance_shouldOwnEquipmentRegisteredOnAnotherNode() {
+        List<String> nodes = List.of("node-a", "node-b");
+        // Оборудование, которое по хэшу достается узлу A, но зарегистрировано на узле B
+        String registeredOnB = EQUIPMENT.stream()
+                .filter(equipmentId -> "node-a".equals(EquipmentOwnershipService.ownerOf(equipmentId, nodes)))
+                .findFirst()
+                .orElseThrow();
+
+        // Общая коллекция equipment; справочник узла A прочитан до регистрации на узле B
+        List<Equipment> shared = new ArrayList<>(List.of(new Equipment("EQ-BASE", "Пресс", LocalDateTime.now())));
+        EquipmentRepository repository = mock(EquipmentRepository.class);
+        when(repository.count()).thenAnswer(invocation -> (long) shared.size());
+        when(repository.findAll()).thenAnswer(invocation -> List.copyOf(shared));
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(MonitorNode.class))).thenReturn(nodes.stream()
+                .map(nodeId -> MonitorNode.builder().nodeId(nodeId).build())
+                .toList());
+
+        Set<String> gainedByA = new HashSet<>();
+        EquipmentCatalogService catalogA = new EquipmentCatalogService(repository, mongoTemplate, event -> { });
+        catalogA.init();
+        EquipmentOwnershipService nodeA = node("node-a", mongoTemplate, catalogA, gainedByA);
+
+        shared.add(new Equipment(registeredOnB, "Станок узла B", LocalDateTime.now()));
+        EquipmentCatalogService catalogB = new EquipmentCatalogService(repository, mongoTemplate, event -> { });
+        catalogB.init();
+        Set<String> gainedByB = new HashSet<>();
+        EquipmentOwnershipService nodeB = node("node-b", mongoTemplate, catalogB, gainedByB);
+
+        nodeA.rebalance();
+        nodeB.rebalance();
+
+        assertThat(gainedByA).contains(registeredOnB);
+        assertThat(gainedByB).doesNotContain(registeredOnB);
+        assertThat(catalogA.getAll()).extracting(EquipmentDto::getEquipmentId).contains(registeredOnB);
+        // Аренда не отпускается как "удаленная из справочника" на следующем heartbeat
+        nodeA.rebalance();
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(EquipmentLease.class));
+    }
+
+    private static EquipmentOwnershipService node(String nodeId, MongoTemplate mongoTemplate,
+                                                  EquipmentCatalogService catalog, Set<String> gained) {
+        EquipmentOwnershipService node = new EquipmentOwnershipService(mongoTemplate, catalog, event -> {
+            if (event instanceof EquipmentOwnershipChangedEvent change) {
+                gained.addAll(change.gained());
+            }
+        }, new RestTemplateBuilder());
+        ReflectionTestUtils.setField(node, "enabled", true);
+        ReflectionTestUtils.setField(node, "configuredNodeId", nodeId);
+        ReflectionTestUtils.setField(node, "advertisedUrl", "http://" + nodeId);
+        ReflectionTestUtils.setField(node, "leaseTtl", Duration.ofSeconds(15));
+        node.init();
+        return node;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.downtime.service;
+
+import com.example.downtime.exception.IdempotencyConflictException;
+import com.example.downtime.model.DowntimeRequest;
+import com.example.downtime.model.DowntimeResponse;
+import com.example.downtime.model.IdempotencyRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private IdempotencyService service;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        service = new IdempotencyService(mongoTemplate, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "hotWindow", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(service, "hotMaxSize", 100L);
+        ReflectionTestUtils.setField(service, "lockTimeout", Duration.ofMinutes(1));
+        service.init();
+    }
+
+    @Test
+    void execute_retryWithSameKeyShouldReplayResponseWithoutRunningAction() {
+        DowntimeRequest request = request("EQ001");
+
+        var first = service.execute("create", "key-1", request, DowntimeResponse.class, () -> create(request));
+        var retry = service.execute("create", "key-1", request, DowntimeResponse.class, () -> create(request));
+
+        assertThat(created).hasValue(1);
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.body().getId()).isEqualTo(first.body().getId());
+        assertThat(retry.toResponseEntity().getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        verify(mongoTemplate).insert(any(IdempotencyRecord.class));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_shouldReplayResponseCompletedOnAnotherInstance() throws Exception {
+        DowntimeRequest request = request("EQ001");
+        DowntimeResponse original = DowntimeResponse.builder().id(42L).equipmentId("EQ001").build();
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(mongoTemplate.findById("create:key-1", IdempotencyRecord.class)).thenReturn(IdempotencyRecord.builder()
+                .key("create:key-1")
+                .fingerprint(service.fingerprint(request))
+                .state(IdempotencyRecord.State.COMPLETED)
+                .response(new ObjectMapper().writeValueAsString(original))
+                .build());
+
+        var result = service.execute("create", "key-1", request, DowntimeResponse.class, () -> create(request));
+
+        assertThat(created).hasValue(0);
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.body().getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void execute_sameKeyWithDifferentRequestShouldConflict() {
+        service.execute("create", "key-1", request("EQ001"), DowntimeResponse.class, () -> create(request("EQ001")));
+
+        assertThatThrownBy(() -> service.execute("create", "key-1", request("EQ002"), DowntimeResponse.class,
+                () -> create(request("EQ002"))))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void execute_failedActionShouldReleaseKey() {
+        DowntimeRequest request = request("EQ001");
+
+        assertThatThrownBy(() -> service.execute("create", "key-1", request, DowntimeResponse.class, () -> {
+            throw new IllegalStateException("Mongo недоступна");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class));
+    }
+
+    private DowntimeResponse create(DowntimeRequest request) {
+        return DowntimeResponse.builder()
+                .id((long) created.incrementAndGet())
+                .equipmentId(request.getEquipmentId())
+                .build();
+    }
+
+    private static DowntimeRequest request(String equipmentId) {
+        return DowntimeRequest.builder()
+                .equipmentId(equipmentId)
+                .operatorId("OP001")
+                .reason("Поломка")
+                .build();
+    }
+}
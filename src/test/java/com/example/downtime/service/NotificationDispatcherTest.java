@@ -0,0 +1,144 @@
+package com.example.downtime.service;
+
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.model.DowntimeEvent;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void flush_shouldSendOneDigestPerRecipient() throws Exception {
+        dispatcher = dispatcher(List.of(emailTransport()), "shift@example.com, chief@example.com");
+
+        for (long id = 1; id <= 3; id++) {
+            dispatcher.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.CREATED, downtime(id)));
+        }
+        // Закрытие не уведомляется
+        dispatcher.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.RESOLVED, downtime(4L)));
+        dispatcher.flush();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 2)).isTrue();
+        MimeMessage[] messages = greenMail.getReceivedMessages();
+        assertThat(messages).hasSize(2);
+        for (MimeMessage message : messages) {
+            assertThat(message.getSubject()).isEqualTo("Новые простои оборудования: 3");
+            // getContent декодирует тело: кириллица уходит в base64/quoted-printable
+            assertThat((String) message.getContent()).contains("#1", "#2", "#3").doesNotContain("#4");
+        }
+    }
+
+    @Test
+    void flush_shouldRetryFailedSendWithBackoff() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(1);
+        NotificationTransport flaky = new NotificationTransport() {
+            @Override
+            public String name() {
+                return "flaky";
+            }
+
+            @Override
+            public boolean supports(String recipient) {
+                return true;
+            }
+
+            @Override
+            public void send(NotificationMessage message) {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new IllegalStateException("SMTP недоступен");
+                }
+                delivered.countDown();
+            }
+        };
+        dispatcher = dispatcher(List.of(flaky), "shift@example.com");
+
+        dispatcher.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.CREATED, downtime(1L)));
+        dispatcher.flush();
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void parseRecipients_shouldSplitAndDeduplicate() {
+        assertThat(NotificationDispatcher.parseRecipients(" a@example.com; b@example.com,a@example.com "))
+                .containsExactly("a@example.com", "b@example.com");
+        assertThat(NotificationDispatcher.parseRecipients("")).isEmpty();
+    }
+
+    private NotificationDispatcher dispatcher(List<NotificationTransport> transports, String recipients) {
+        SettingsService settings = mock(SettingsService.class);
+        when(settings.getBooleanSetting("notifications.email.enabled")).thenReturn(true);
+        when(settings.getBooleanSetting("notifications.active.downtime.enabled")).thenReturn(true);
+        when(settings.getSetting("notifications.email.recipients")).thenReturn(recipients);
+
+        NotificationDispatcher created = new NotificationDispatcher(settings, transports, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(created, "enabled", true);
+        ReflectionTestUtils.setField(created, "queueCapacity", 100);
+        // Сводки по расписанию не мешают тесту - flush вызывается явно
+        ReflectionTestUtils.setField(created, "digestInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(created, "maxAttempts", 5);
+        ReflectionTestUtils.setField(created, "retryInitial", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(created, "retryMax", Duration.ofSeconds(1));
+        created.init();
+        return created;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EmailNotificationTransport emailTransport() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        ObjectProvider<JavaMailSender> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(mailSender);
+        when(provider.getObject()).thenReturn(mailSender);
+        EmailNotificationTransport transport = new EmailNotificationTransport(provider);
+        ReflectionTestUtils.setField(transport, "from", "downtime-service@localhost");
+        return transport;
+    }
+
+    private static DowntimeEvent downtime(Long id) {
+        return DowntimeEvent.builder()
+                .id(id)
+                .equipmentId("EQ00" + id)
+                .equipmentName("Станок " + id)
+                .operatorName("Иванов")
+                .reason("Поломка")
+                .startTime(LocalDateTime.of(2024, 3, 1, 8, 0))
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.DowntimeChangeDto;
+import com.example.downtime.model.OutboxCursor;
+import com.example.downtime.model.OutboxEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxPublisherTest {
+
+    private DowntimeOutboxService outbox;
+    private MongoTemplate mongoTemplate;
+    private OutboxPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outbox = mock(DowntimeOutboxService.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        publisher = new OutboxPublisher(outbox, mongoTemplate, mock(ObjectProvider.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(publisher, "batchSize", 100);
+        ReflectionTestUtils.setField(publisher, "maxBatchesPerPoll", 5);
+        ReflectionTestUtils.setField(publisher, "lockTtl", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(publisher, "retryInitial", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(publisher, "retryMax", Duration.ofMinutes(5));
+
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(OutboxCursor.class))).thenReturn(OutboxCursor.builder().sink("test").lastSeq(10).build());
+        when(outbox.readAfter(10, 100)).thenReturn(List.of(
+                OutboxEntry.builder().seq(11L).downtimeId(1L).createdAt(LocalDateTime.now()).build(),
+                OutboxEntry.builder().seq(12L).downtimeId(2L).createdAt(LocalDateTime.now()).build()));
+    }
+
+    @Test
+    void publishTo_shouldAdvanceCursorAfterDelivery() {
+        RecordingSink sink = new RecordingSink(false);
+
+        assertThat(publisher.publishTo(sink)).isEqualTo(2);
+
+        assertThat(sink.delivered).extracting(DowntimeChangeDto::getSeq).containsExactly(11L, 12L);
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(OutboxCursor.class));
+    }
+
+    @Test
+    void publishTo_shouldKeepCursorAndBackOffWhenSinkFails() {
+        RecordingSink sink = new RecordingSink(true);
+
+        assertThat(publisher.publishTo(sink)).isZero();
+        // Повтор раньше retry-initial не выполняется
+        assertThat(publisher.publishTo(sink)).isZero();
+
+        assertThat(sink.attempts).isEqualTo(1);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(OutboxCursor.class));
+    }
+
+    private static final class RecordingSink implements OutboxSink {
+
+        private final boolean failing;
+        private final List<DowntimeChangeDto> delivered = new ArrayList<>();
+        private int attempts;
+
+        private RecordingSink(boolean failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public void deliver(List<DowntimeChangeDto> changes) {
+            attempts++;
+            if (failing) {
+                throw new IllegalStateException("получатель недоступен");
+            }
+            delivered.addAll(changes);
+        }
+    }
+}
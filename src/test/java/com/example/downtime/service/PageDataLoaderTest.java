@@ -0,0 +1,67 @@
+package com.example.downtime.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageDataLoaderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PageDataLoader pageDataLoader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pageDataLoader = new PageDataLoader(meterRegistry);
+        ReflectionTestUtils.setField(pageDataLoader, "defaultTimeout", Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pageDataLoader.shutdown();
+    }
+
+    @Test
+    void submit_shouldRunLoadsConcurrently() {
+        long started = System.nanoTime();
+
+        PageDataLoader.Load<Integer> first = pageDataLoader.submit("first", () -> sleepAndReturn(300, 1), 0);
+        PageDataLoader.Load<Integer> second = pageDataLoader.submit("second", () -> sleepAndReturn(300, 2), 0);
+        PageDataLoader.Load<Integer> third = pageDataLoader.submit("third", () -> sleepAndReturn(300, 3), 0);
+
+        assertThat(first.get() + second.get() + third.get()).isEqualTo(6);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(800));
+    }
+
+    @Test
+    void get_shouldReturnFallbackOnTimeout() {
+        PageDataLoader.Load<String> slow = pageDataLoader.submit("slow",
+                () -> sleepAndReturn(2000, "value"), "fallback", Duration.ofMillis(100));
+
+        assertThat(slow.get()).isEqualTo("fallback");
+        assertThat(meterRegistry.get("web.page.load.fallbacks").tag("reason", "timeout").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void get_shouldReturnFallbackOnError() {
+        PageDataLoader.Load<Long> failing = pageDataLoader.submit("failing", () -> {
+            throw new IllegalStateException("Mongo недоступна");
+        }, 0L);
+
+        assertThat(failing.get()).isZero();
+        assertThat(meterRegistry.get("web.page.load.fallbacks").tag("reason", "error").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private static <T> T sleepAndReturn(long millis, T value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.downtime.service;
+
+import com.example.downtime.dto.ReasonParetoDto;
+import com.example.downtime.event.DowntimeChangedEvent;
+import com.example.downtime.event.DowntimeChangedEvent.ChangeType;
+import com.example.downtime.factory.DowntimeTestFactory;
+import com.example.downtime.model.DowntimeEvent;
+import com.example.downtime.model.DowntimeStatus;
+import com.example.downtime.model.ReasonDailyRollup;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReasonAnalyticsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ReasonAnalyticsService reasonAnalyticsService;
+
+    @Test
+    void buildPareto_shouldMergeDaysAndSortByCount() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        List<ReasonDailyRollup> rollups = List.of(
+                rollup("EQ-001", "Поломка", day, 2, 90, 2),
+                rollup("EQ-001", "Поломка", day.plusDays(1), 3, 30, 3),
+                rollup("EQ-002", "Наладка", day, 4, 20, 4),
+                rollup("EQ-001", " ", day, 1, 0, 0));
+
+        List<ReasonParetoDto> result = ReasonAnalyticsService.buildPareto(
+                rollups, ReasonAnalyticsService.Metric.COUNT, 10);
+
+        assertThat(result).extracting(ReasonParetoDto::getReason)
+                .containsExactly("Поломка", "Наладка", ReasonAnalyticsService.UNKNOWN_REASON);
+        assertThat(result.get(0).getCount()).isEqualTo(5);
+        assertThat(result.get(0).getTotalMinutes()).isEqualTo(120);
+        assertThat(result.get(0).getShare()).isEqualTo(50.0);
+        assertThat(result.get(2).getCumulativeShare()).isEqualTo(100.0);
+    }
+
+    @Test
+    void buildPareto_shouldRankByMinutesAndApplyLimit() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        List<ReasonParetoDto> result = ReasonAnalyticsService.buildPareto(List.of(
+                        rollup("EQ-001", "Поломка", day, 1, 30, 1),
+                        rollup("EQ-001", "Наладка", day, 5, 10, 5),
+                        rollup("EQ-001", "Смена", day, 2, 60, 2)),
+                ReasonAnalyticsService.Metric.MINUTES, 2);
+
+        assertThat(result).extracting(ReasonParetoDto::getReason)
+                .containsExactly("Смена", "Поломка");
+        assertThat(result.get(1).getCumulativeShare()).isEqualTo(90.0);
+    }
+
+    @Test
+    void onDowntimeChanged_resolvedShouldIncrementMinutes() {
+        DowntimeEvent event = DowntimeTestFactory.createEventFromRequest(
+                DowntimeTestFactory.createRequestWithDefaults());
+        event.setStatus(DowntimeStatus.RESOLVED);
+
+        reasonAnalyticsService.onDowntimeChanged(new DowntimeChangedEvent(ChangeType.RESOLVED, event));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(ReasonDailyRollup.class));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertThat(inc.get("totalMinutes")).isEqualTo(60L);
+        assertThat(inc.get("resolvedCount")).isEqualTo(1L);
+        assertThat(inc.get("count")).isEqualTo(0L);
+    }
+
+    private ReasonDailyRollup rollup(String equipmentId, String reason, LocalDate day,
+                                     long count, long minutes, long resolved) {
+        return ReasonDailyRollup.builder()
+                .equipmentId(equipmentId)
+                .reason(reason)
+                .day(day)
+                .count(count)
+                .totalMinutes(minutes)
+                .resolvedCount(resolved)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.downtime.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReliabilityServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(1);
+
+    @Test
+    void intervalSweep_shouldMergeOverlappingIntervals() {
+        ReliabilityService.IntervalSweep sweep = new ReliabilityService.IntervalSweep(FROM, TO);
+
+        sweep.add(FROM.plusHours(1), FROM.plusHours(2));
+        sweep.add(FROM.plusMinutes(90), FROM.plusHours(3));      // пересекается с первым
+        sweep.add(FROM.plusHours(2), FROM.plusMinutes(150));     // целиком внутри
+        sweep.add(FROM.plusHours(5), FROM.plusHours(6));
+        sweep.finish();
+
+        assertThat(sweep.failureCount()).isEqualTo(2);
+        assertThat(sweep.downtimeMinutes()).isEqualTo(180);
+        assertThat(sweep.periodMinutes()).isEqualTo(24 * 60);
+    }
+
+    @Test
+    void intervalSweep_shouldClipIntervalsToPeriod() {
+        ReliabilityService.IntervalSweep sweep = new ReliabilityService.IntervalSweep(FROM, TO);
+
+        sweep.add(FROM.minusHours(5), FROM.minusHours(4));       // вне периода
+        sweep.add(FROM.minusHours(2), FROM.plusMinutes(30));
+        sweep.add(TO.minusMinutes(15), TO.plusHours(4));
+        sweep.finish();
+
+        assertThat(sweep.failureCount()).isEqualTo(2);
+        assertThat(sweep.downtimeMinutes()).isEqualTo(45);
+    }
+
+    @Test
+    void intervalSweep_withoutIntervals_shouldReportNoFailures() {
+        ReliabilityService.IntervalSweep sweep = new ReliabilityService.IntervalSweep(FROM, TO);
+        sweep.finish();
+
+        assertThat(sweep.failureCount()).isZero();
+        assertThat(sweep.downtimeMinutes()).isZero();
+    }
+}
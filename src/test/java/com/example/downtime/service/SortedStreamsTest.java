@@ -0,0 +1,33 @@
+package com.example.downtime.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedStreamsTest {
+
+    @Test
+    void merge_shouldKeepOrderAndEmitDuplicateOnce() {
+        Stream<Integer> merged = SortedStreams.merge(
+                Stream.of(9, 7, 4, 1), Stream.of(8, 7, 2), Comparator.<Integer>reverseOrder());
+
+        assertThat(merged).containsExactly(9, 8, 7, 4, 2, 1);
+    }
+
+    @Test
+    void merge_shouldCloseBothSources() {
+        AtomicInteger closed = new AtomicInteger();
+        Stream<Integer> first = Stream.of(1).onClose(closed::incrementAndGet);
+        Stream<Integer> second = Stream.<Integer>empty().onClose(closed::incrementAndGet);
+
+        try (Stream<Integer> merged = SortedStreams.merge(first, second, Comparator.naturalOrder())) {
+            assertThat(merged).containsExactly(1);
+        }
+
+        assertThat(closed).hasValue(2);
+    }
+}
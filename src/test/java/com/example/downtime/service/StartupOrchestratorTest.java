@@ -0,0 +1,90 @@
+package com.example.downtime.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class StartupOrchestratorTest {
+
+    private SettingsService settingsService;
+    private EquipmentMonitorService monitorService;
+    private FileStorageService fileStorageService;
+    private StartupOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        settingsService = mock(SettingsService.class);
+        monitorService = mock(EquipmentMonitorService.class);
+        fileStorageService = mock(FileStorageService.class);
+        orchestrator = new StartupOrchestrator(settingsService, monitorService, fileStorageService,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(orchestrator, "retryInitial", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(orchestrator, "retryMax", Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orchestrator.shutdown();
+    }
+
+    @Test
+    void start_shouldBecomeReadyWhileStorageIsStillUnavailable() throws InterruptedException {
+        doThrow(new IllegalStateException("Mongo недоступна")).doNothing()
+                .when(settingsService).initializeDefaultSettings();
+        doThrow(new RuntimeException("S3 error")).when(fileStorageService).ensureBucket();
+        StartupHealthIndicator health = new StartupHealthIndicator(orchestrator);
+
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        orchestrator.start();
+
+        verify(settingsService, timeout(2_000).times(2)).initializeDefaultSettings();
+        verify(monitorService, timeout(2_000)).init();
+        verify(fileStorageService, timeout(2_000).atLeast(2)).ensureBucket();
+        waitUntilReady();
+
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(state("settings")).isEqualTo(StartupOrchestrator.State.DONE);
+        // Бакет продолжает повторяться в фоне
+        assertThat(state("s3-bucket")).isIn(StartupOrchestrator.State.FAILED, StartupOrchestrator.State.RUNNING);
+    }
+
+    @Test
+    void start_shouldNotRepeatCompletedTasks() throws InterruptedException {
+        doNothing().when(fileStorageService).ensureBucket();
+
+        orchestrator.start();
+        waitUntilReady();
+        Thread.sleep(100);
+
+        verify(settingsService, times(1)).initializeDefaultSettings();
+        verify(monitorService, times(1)).init();
+        verify(fileStorageService, times(1)).ensureBucket();
+    }
+
+    @SuppressWarnings("unchecked")
+    private StartupOrchestrator.State state(String task) {
+        return (StartupOrchestrator.State) ((Map<String, Object>) orchestrator.progress().get(task)).get("state");
+    }
+
+    private void waitUntilReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!orchestrator.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(orchestrator.isReady()).isTrue();
+    }
+}
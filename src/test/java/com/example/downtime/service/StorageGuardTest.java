@@ -0,0 +1,109 @@
+package com.example.downtime.service;
+
+import com.example.downtime.exception.StorageUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StorageGuardTest {
+
+    private StorageGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        guard = new StorageGuard(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(guard, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(guard, "maxWaiting", 0);
+        ReflectionTestUtils.setField(guard, "maxWait", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(guard, "busyRetryAfter", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(guard, "maxAttempts", 3);
+        ReflectionTestUtils.setField(guard, "retryInitial", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(guard, "retryMax", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(guard, "failureThreshold", 3);
+        ReflectionTestUtils.setField(guard, "openDuration", Duration.ofMinutes(1));
+        guard.init();
+    }
+
+    @Test
+    void call_shouldRetryStorageFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String url = guard.call("upload", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new RuntimeException("File upload failed", SdkClientException.create("Read timed out"));
+            }
+            return "http://minio/photo.jpg";
+        });
+
+        assertThat(url).isEqualTo("http://minio/photo.jpg");
+        assertThat(attempts).hasValue(3);
+        assertThat(guard.currentState()).isEqualTo(StorageGuard.CircuitState.CLOSED);
+    }
+
+    @Test
+    void call_clientErrorShouldNotBeRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> guard.call("upload", () -> {
+            attempts.incrementAndGet();
+            throw S3Exception.builder().statusCode(403).message("Access Denied").build();
+        })).isInstanceOf(S3Exception.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void call_shouldOpenCircuitAndRejectWithoutCallingStorage() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> guard.call("upload", () -> {
+            attempts.incrementAndGet();
+            throw S3Exception.builder().statusCode(503).message("Slow Down").build();
+        })).isInstanceOf(S3Exception.class);
+        assertThat(guard.currentState()).isEqualTo(StorageGuard.CircuitState.OPEN);
+
+        assertThatThrownBy(() -> guard.call("upload", () -> {
+            attempts.incrementAndGet();
+            return "never";
+        }))
+                .isInstanceOf(StorageUnavailableException.class)
+                .satisfies(e -> assertThat(((StorageUnavailableException) e).getRetryAfterSeconds()).isBetween(1L, 60L));
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void call_shouldRejectWhenBulkheadIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowUpload = new Thread(() -> guard.call("upload", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        slowUpload.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> guard.call("upload", () -> "fast"))
+                .isInstanceOf(StorageUnavailableException.class)
+                .satisfies(e -> assertThat(((StorageUnavailableException) e).getRetryAfterSeconds()).isEqualTo(5L));
+
+        release.countDown();
+        slowUpload.join();
+        assertThat(guard.call("upload", () -> "fast")).isEqualTo("fast");
+    }
+}